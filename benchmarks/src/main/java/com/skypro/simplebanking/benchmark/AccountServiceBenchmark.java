@@ -0,0 +1,89 @@
+package com.skypro.simplebanking.benchmark;
+
+import com.skypro.simplebanking.dto.AccountDTO;
+import com.skypro.simplebanking.dto.UserDTO;
+import com.skypro.simplebanking.service.AccountService;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+/** Single-account balance changes; fewer {@code users} means more contention per account. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class AccountServiceBenchmark {
+  private static final long INITIAL_BALANCE = 1_000_000_000_000L;
+
+  @Param({"PESSIMISTIC", "OPTIMISTIC"})
+  public String lockStrategy;
+
+  @Param({"64"})
+  public int users;
+
+  private ConfigurableApplicationContext context;
+  private AccountService accountService;
+  private List<UserDTO> accounts;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BankingContext.start("--app.accounts.lock-strategy=" + lockStrategy);
+    accountService = context.getBean(AccountService.class);
+    accounts = BankingContext.createUsers(context, users, INITIAL_BALANCE);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public AccountDTO deposit(Conflicts conflicts) {
+    UserDTO user = randomUser();
+    try {
+      return accountService.depositToAccount(user.getId(), BankingContext.usdAccountId(user), 1);
+    } catch (OptimisticLockingFailureException e) {
+      conflicts.conflicts++;
+      return null;
+    }
+  }
+
+  @Benchmark
+  public AccountDTO withdraw(Conflicts conflicts) {
+    UserDTO user = randomUser();
+    try {
+      return accountService.withdrawFromAccount(
+          user.getId(), BankingContext.usdAccountId(user), 1);
+    } catch (OptimisticLockingFailureException e) {
+      conflicts.conflicts++;
+      return null;
+    }
+  }
+
+  @Benchmark
+  public AccountDTO getAccount() {
+    UserDTO user = randomUser();
+    return accountService.getAccount(user.getId(), BankingContext.usdAccountId(user));
+  }
+
+  private UserDTO randomUser() {
+    return accounts.get(ThreadLocalRandom.current().nextInt(accounts.size()));
+  }
+}
@@ -0,0 +1,71 @@
+package com.skypro.simplebanking.benchmark;
+
+import com.skypro.simplebanking.configuration.CachingAuthenticationProvider;
+import com.skypro.simplebanking.service.UserService;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Basic-auth cost: the user lookup alone, the lookup plus the BCrypt check every uncached request
+ * pays, and the full provider with the credential cache warm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class AuthenticationBenchmark {
+  private ConfigurableApplicationContext context;
+  private UserService userService;
+  private PasswordEncoder passwordEncoder;
+  private CachingAuthenticationProvider authenticationProvider;
+  private String username;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BankingContext.start();
+    userService = context.getBean(UserService.class);
+    passwordEncoder = context.getBean(PasswordEncoder.class);
+    authenticationProvider = context.getBean(CachingAuthenticationProvider.class);
+    username = BankingContext.createUsers(context, 1, 0).get(0).getUsername();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public UserDetails loadUserByUsername() {
+    return userService.loadUserByUsername(username);
+  }
+
+  @Benchmark
+  public boolean loadUserAndCheckPassword() {
+    UserDetails user = userService.loadUserByUsername(username);
+    return passwordEncoder.matches(BankingContext.PASSWORD, user.getPassword());
+  }
+
+  @Benchmark
+  public Authentication authenticateCached() {
+    return authenticationProvider.authenticate(
+        new UsernamePasswordAuthenticationToken(username, BankingContext.PASSWORD));
+  }
+}
@@ -0,0 +1,66 @@
+package com.skypro.simplebanking.benchmark;
+
+import com.skypro.simplebanking.SimpleBankingApplication;
+import com.skypro.simplebanking.dto.AccountDTO;
+import com.skypro.simplebanking.dto.UserDTO;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.service.AccountService;
+import com.skypro.simplebanking.service.UserService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Starts the application on a random port against a private in-memory H2 database; the web layer
+ * stays up because the security configuration needs it. Extra arguments use the usual
+ * {@code --property=value} form, e.g. to pick the lock strategy.
+ */
+public final class BankingContext {
+  public static final String PASSWORD = "benchmark-password";
+
+  private BankingContext() {}
+
+  public static ConfigurableApplicationContext start(String... args) {
+    // Command-line arguments, unlike default properties, take precedence over
+    // application.properties.
+    List<String> arguments =
+        new ArrayList<>(
+            List.of(
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--spring.datasource.url=jdbc:h2:mem:"
+                    + UUID.randomUUID()
+                    + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--app.cache.invalidation.bus=in-memory"));
+    arguments.addAll(List.of(args));
+    return new SpringApplicationBuilder(SimpleBankingApplication.class)
+        .logStartupInfo(false)
+        .run(arguments.toArray(String[]::new));
+  }
+
+  public static List<UserDTO> createUsers(
+      ConfigurableApplicationContext context, int count, long initialBalance) {
+    UserService userService = context.getBean(UserService.class);
+    AccountService accountService = context.getBean(AccountService.class);
+    List<UserDTO> users = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      UserDTO user = userService.createUser("benchmark-" + i, PASSWORD);
+      accountService.depositToAccount(user.getId(), usdAccountId(user), initialBalance);
+      users.add(user);
+    }
+    return users;
+  }
+
+  public static long usdAccountId(UserDTO user) {
+    return user.getAccounts().stream()
+        .filter(account -> account.getCurrency() == AccountCurrency.USD)
+        .map(AccountDTO::getId)
+        .findFirst()
+        .orElseThrow();
+  }
+}
@@ -0,0 +1,22 @@
+package com.skypro.simplebanking.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Operations that gave up after exhausting their optimistic retries. They are still counted as
+ * operations by JMH, so read the score together with this counter.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class Conflicts {
+  public long conflicts;
+
+  @Setup(Level.Iteration)
+  public void reset() {
+    conflicts = 0;
+  }
+}
@@ -0,0 +1,59 @@
+package com.skypro.simplebanking.benchmark;
+
+import com.skypro.simplebanking.dto.AccountDTO;
+import com.skypro.simplebanking.dto.ListUserDTO;
+import com.skypro.simplebanking.entity.Account;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.entity.User;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoMappingBenchmark {
+  private User user;
+  private Account account;
+
+  @Setup
+  public void setUp() {
+    user = new User();
+    user.setId(1L);
+    user.setUsername("benchmark");
+    List<Account> accounts = new ArrayList<>();
+    for (AccountCurrency currency : AccountCurrency.values()) {
+      Account userAccount = new Account();
+      userAccount.setId((long) accounts.size() + 1);
+      userAccount.setAccountCurrency(currency);
+      userAccount.setAmount(1_000L);
+      userAccount.setUser(user);
+      accounts.add(userAccount);
+    }
+    user.setAccounts(accounts);
+    account = accounts.get(0);
+  }
+
+  @Benchmark
+  public AccountDTO accountDtoFrom() {
+    return AccountDTO.from(account);
+  }
+
+  @Benchmark
+  public ListUserDTO listUserDtoFrom() {
+    return ListUserDTO.from(user);
+  }
+}
@@ -0,0 +1,75 @@
+package com.skypro.simplebanking.benchmark;
+
+import com.skypro.simplebanking.dto.TransferRequest;
+import com.skypro.simplebanking.dto.UserDTO;
+import com.skypro.simplebanking.service.TransferService;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+/** Transfers between random pairs of USD accounts. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TransferServiceBenchmark {
+  private static final long INITIAL_BALANCE = 1_000_000_000_000L;
+
+  @Param({"PESSIMISTIC", "OPTIMISTIC"})
+  public String lockStrategy;
+
+  @Param({"64"})
+  public int users;
+
+  private ConfigurableApplicationContext context;
+  private TransferService transferService;
+  private List<UserDTO> accounts;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BankingContext.start("--app.accounts.lock-strategy=" + lockStrategy);
+    transferService = context.getBean(TransferService.class);
+    accounts = BankingContext.createUsers(context, Math.max(2, users), INITIAL_BALANCE);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public void transfer(Conflicts conflicts) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int from = random.nextInt(accounts.size());
+    int to = (from + 1 + random.nextInt(accounts.size() - 1)) % accounts.size();
+    UserDTO sender = accounts.get(from);
+    UserDTO recipient = accounts.get(to);
+    TransferRequest request = new TransferRequest();
+    request.setFromAccountId(BankingContext.usdAccountId(sender));
+    request.setToUserId(recipient.getId());
+    request.setToAccountId(BankingContext.usdAccountId(recipient));
+    request.setAmount(1);
+    try {
+      transferService.transfer(sender.getId(), request);
+    } catch (OptimisticLockingFailureException e) {
+      conflicts.conflicts++;
+    }
+  }
+}
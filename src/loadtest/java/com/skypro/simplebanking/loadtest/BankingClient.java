@@ -0,0 +1,119 @@
+package com.skypro.simplebanking.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+
+/** Minimal HTTP client for the banking API; returns status codes and leaves judging them to the caller. */
+class BankingClient {
+  private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+  private final HttpClient httpClient =
+      HttpClient.newBuilder()
+          .version(HttpClient.Version.HTTP_1_1)
+          .connectTimeout(Duration.ofSeconds(5))
+          .build();
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final String baseUrl;
+  private final String adminToken;
+
+  BankingClient(String baseUrl, String adminToken) {
+    this.baseUrl = baseUrl;
+    this.adminToken = adminToken;
+  }
+
+  JsonNode createUser(String username, String password) throws InterruptedException {
+    HttpResponse<String> response =
+        send(
+            post("/user", Map.of("username", username, "password", password))
+                .header("X-SECURITY-ADMIN-KEY", adminToken)
+                .build());
+    return parse(expectOk(response));
+  }
+
+  JsonNode getMe(LoadTestUser user) throws InterruptedException {
+    return parse(expectOk(send(authorized(request("/user/me"), user).GET().build())));
+  }
+
+  int deposit(LoadTestUser user, long accountId, long amount) throws InterruptedException {
+    return send(
+            authorized(post("/account/deposit/" + accountId, Map.of("amount", amount)), user)
+                .build())
+        .statusCode();
+  }
+
+  int withdraw(LoadTestUser user, long accountId, long amount) throws InterruptedException {
+    return send(
+            authorized(post("/account/withdraw/" + accountId, Map.of("amount", amount)), user)
+                .build())
+        .statusCode();
+  }
+
+  int transfer(LoadTestUser from, long fromAccountId, LoadTestUser to, long toAccountId, long amount)
+      throws InterruptedException {
+    Map<String, Object> body =
+        Map.of(
+            "fromAccountId", fromAccountId,
+            "toUserId", to.id,
+            "toAccountId", toAccountId,
+            "amount", amount);
+    return send(authorized(post("/transfer", body), from).build()).statusCode();
+  }
+
+  private HttpRequest.Builder request(String path) {
+    return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(TIMEOUT);
+  }
+
+  private HttpRequest.Builder post(String path, Object body) {
+    try {
+      return request(path)
+          .header("Content-Type", "application/json")
+          .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static HttpRequest.Builder authorized(HttpRequest.Builder request, LoadTestUser user) {
+    return request.header("Authorization", user.authorization);
+  }
+
+  private HttpResponse<String> send(HttpRequest request) throws InterruptedException {
+    try {
+      return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static String expectOk(HttpResponse<String> response) {
+    if (response.statusCode() != 200) {
+      throw new IllegalStateException(
+          response.request().uri() + " returned " + response.statusCode() + ": " + response.body());
+    }
+    return response.body();
+  }
+
+  private JsonNode parse(String body) {
+    try {
+      return objectMapper.readTree(body);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  static String basic(String username, String password) {
+    return "Basic "
+        + Base64.getEncoder()
+            .encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+  }
+}
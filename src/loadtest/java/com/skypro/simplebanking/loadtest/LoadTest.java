@@ -0,0 +1,290 @@
+package com.skypro.simplebanking.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.skypro.simplebanking.SimpleBankingApplication;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Release-qualification load test. Starts the application in this JVM (unless {@code
+ * loadtest.base-url} points at a running instance), creates users through the API, runs a skewed
+ * mix of transfers, deposits and withdrawals for a fixed time, prints throughput and latency
+ * percentiles, and fails unless each currency's total moved by exactly the acknowledged deposits
+ * minus the acknowledged withdrawals.
+ */
+public class LoadTest {
+  private static final String PASSWORD = "loadtest-password";
+  private static final String TRANSFER = "transfer";
+  private static final String DEPOSIT = "deposit";
+  private static final String WITHDRAW = "withdraw";
+
+  private final LoadTestSettings settings;
+  private final BankingClient client;
+  private final ExecutorService executor;
+  private final Map<String, LongAdder> netDeposits = new HashMap<>();
+  private final LongAdder unexpectedOutcomes = new LongAdder();
+  private List<LoadTestUser> users;
+
+  private LoadTest(LoadTestSettings settings, BankingClient client, ExecutorService executor) {
+    this.settings = settings;
+    this.client = client;
+    this.executor = executor;
+    for (AccountCurrency currency : AccountCurrency.values()) {
+      netDeposits.put(currency.name(), new LongAdder());
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+    ConfigurableApplicationContext application = null;
+    String baseUrl = settings.baseUrl;
+    if (baseUrl.isEmpty()) {
+      application = startApplication(settings);
+      baseUrl = "http://localhost:" + application.getEnvironment().getProperty("local.server.port");
+    }
+    ExecutorService executor = newExecutor(settings.concurrency);
+    try {
+      new LoadTest(settings, new BankingClient(baseUrl, settings.adminToken), executor).run();
+    } finally {
+      executor.shutdownNow();
+      if (application != null) {
+        application.close();
+      }
+    }
+  }
+
+  private static ConfigurableApplicationContext startApplication(LoadTestSettings settings) {
+    List<String> args = new ArrayList<>(List.of("--server.port=0"));
+    if (!settings.datasourceUrl.isEmpty()) {
+      args.add("--spring.datasource.url=" + settings.datasourceUrl);
+      args.add("--spring.datasource.username=" + settings.datasourceUsername);
+      args.add("--spring.datasource.password=" + settings.datasourcePassword);
+    }
+    return SpringApplication.run(SimpleBankingApplication.class, args.toArray(String[]::new));
+  }
+
+  // Virtual threads when the JVM has them (21+), otherwise one platform thread per worker.
+  private static ExecutorService newExecutor(int concurrency) {
+    try {
+      ExecutorService executor =
+          (ExecutorService)
+              Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+      System.out.println("Workers run on virtual threads");
+      return executor;
+    } catch (ReflectiveOperationException e) {
+      System.out.println("Workers run on " + concurrency + " platform threads");
+      return Executors.newFixedThreadPool(concurrency);
+    }
+  }
+
+  private void run() throws Exception {
+    String runId = Long.toString(System.currentTimeMillis(), 36);
+    System.out.printf("Creating %d users (run %s)%n", settings.users, runId);
+    users = createUsers(runId);
+    Map<String, Long> before = totals();
+
+    System.out.printf(
+        "Running %d workers for %ds, %d%% of traffic on %d hot users%n",
+        settings.concurrency,
+        settings.duration.toSeconds(),
+        Math.round(settings.hotTrafficShare * 100),
+        settings.hotUsers());
+    long startedAt = System.nanoTime();
+    long deadline = startedAt + settings.duration.toNanos();
+    List<Callable<Map<String, OperationStats>>> workers = new ArrayList<>();
+    for (int i = 0; i < settings.concurrency; i++) {
+      workers.add(() -> work(deadline));
+    }
+    Map<String, OperationStats> stats = new LinkedHashMap<>();
+    for (Future<Map<String, OperationStats>> worker : executor.invokeAll(workers)) {
+      worker
+          .get()
+          .forEach(
+              (operation, workerStats) ->
+                  stats.computeIfAbsent(operation, o -> new OperationStats()).merge(workerStats));
+    }
+    double elapsedSeconds = (System.nanoTime() - startedAt) / 1e9;
+    report(stats, elapsedSeconds);
+
+    Map<String, Long> after = totals();
+    verify(before, after);
+  }
+
+  private List<LoadTestUser> createUsers(String runId) throws Exception {
+    List<Callable<LoadTestUser>> tasks = new ArrayList<>();
+    for (int i = 0; i < settings.users; i++) {
+      String username = "loadtest-" + runId + "-" + i;
+      tasks.add(() -> createUser(username));
+    }
+    List<LoadTestUser> created = new ArrayList<>();
+    for (Future<LoadTestUser> task : executor.invokeAll(tasks)) {
+      created.add(task.get());
+    }
+    return created;
+  }
+
+  private LoadTestUser createUser(String username) throws InterruptedException {
+    JsonNode user = client.createUser(username, PASSWORD);
+    Map<String, Long> accounts = new HashMap<>();
+    for (JsonNode account : user.get("accounts")) {
+      accounts.put(account.get("currency").asText(), account.get("id").asLong());
+    }
+    LoadTestUser loadTestUser =
+        new LoadTestUser(
+            user.get("id").asLong(), BankingClient.basic(username, PASSWORD), accounts);
+    for (long accountId : accounts.values()) {
+      int status = client.deposit(loadTestUser, accountId, settings.initialBalance);
+      if (status != 200) {
+        throw new IllegalStateException("Initial deposit returned " + status);
+      }
+    }
+    return loadTestUser;
+  }
+
+  private Map<String, Long> totals() throws Exception {
+    List<Callable<JsonNode>> tasks = new ArrayList<>();
+    for (LoadTestUser user : users) {
+      tasks.add(() -> client.getMe(user));
+    }
+    Map<String, Long> totals = new LinkedHashMap<>();
+    for (Future<JsonNode> task : executor.invokeAll(tasks)) {
+      for (JsonNode account : task.get().get("accounts")) {
+        totals.merge(account.get("currency").asText(), account.get("amount").asLong(), Long::sum);
+      }
+    }
+    return totals;
+  }
+
+  private Map<String, OperationStats> work(long deadline) throws InterruptedException {
+    Map<String, OperationStats> stats = new HashMap<>();
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    AccountCurrency[] currencies = AccountCurrency.values();
+    int totalWeight = settings.transferWeight + settings.depositWeight + settings.withdrawWeight;
+    while (System.nanoTime() < deadline) {
+      String currency = currencies[random.nextInt(currencies.length)].name();
+      long amount = 1 + random.nextLong(settings.maxAmount);
+      int sender = pickUser(random);
+      LoadTestUser user = users.get(sender);
+      int roll = random.nextInt(totalWeight);
+      String operation;
+      long started = System.nanoTime();
+      String outcome;
+      if (roll < settings.transferWeight) {
+        operation = TRANSFER;
+        int pick = pickUser(random);
+        LoadTestUser recipient = users.get(pick != sender ? pick : (pick + 1) % users.size());
+        outcome =
+            call(
+                () ->
+                    client.transfer(
+                        user,
+                        user.accounts.get(currency),
+                        recipient,
+                        recipient.accounts.get(currency),
+                        amount));
+      } else if (roll < settings.transferWeight + settings.depositWeight) {
+        operation = DEPOSIT;
+        outcome = call(() -> client.deposit(user, user.accounts.get(currency), amount));
+        if (outcome.equals("200")) {
+          netDeposits.get(currency).add(amount);
+        }
+      } else {
+        operation = WITHDRAW;
+        outcome = call(() -> client.withdraw(user, user.accounts.get(currency), amount));
+        if (outcome.equals("200")) {
+          netDeposits.get(currency).add(-amount);
+        }
+      }
+      stats
+          .computeIfAbsent(operation, o -> new OperationStats())
+          .record(System.nanoTime() - started, outcome);
+    }
+    return stats;
+  }
+
+  // The first hotUsers users take hotTrafficShare of the picks; the rest share the remainder.
+  private int pickUser(ThreadLocalRandom random) {
+    int hotUsers = settings.hotUsers();
+    if (hotUsers >= users.size() || random.nextDouble() < settings.hotTrafficShare) {
+      return random.nextInt(Math.min(hotUsers, users.size()));
+    }
+    return hotUsers + random.nextInt(users.size() - hotUsers);
+  }
+
+  // 4xx answers (insufficient funds, an exhausted optimistic retry) are part of the workload;
+  // anything else means the outcome is unknown and the totals can no longer be checked.
+  private String call(StatusCall request) throws InterruptedException {
+    try {
+      int status = request.call();
+      if (status >= 500) {
+        unexpectedOutcomes.increment();
+      }
+      return String.valueOf(status);
+    } catch (UncheckedIOException e) {
+      unexpectedOutcomes.increment();
+      return "io-error";
+    }
+  }
+
+  private void report(Map<String, OperationStats> stats, double elapsedSeconds) {
+    System.out.printf(
+        "%n%-10s %9s %9s %9s %9s %9s %9s %9s  %s%n",
+        "operation", "count", "ops/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms",
+        "outcomes");
+    OperationStats all = new OperationStats();
+    stats.forEach(
+        (operation, s) -> {
+          print(operation, s, elapsedSeconds);
+          all.merge(s);
+        });
+    print("total", all, elapsedSeconds);
+  }
+
+  private static void print(String operation, OperationStats stats, double elapsedSeconds) {
+    double[] p = stats.percentilesMillis(50, 90, 99, 99.9, 100);
+    System.out.printf(
+        "%-10s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f  %s%n",
+        operation, stats.count(), stats.count() / elapsedSeconds, p[0], p[1], p[2], p[3], p[4],
+        stats.outcomes());
+  }
+
+  private void verify(Map<String, Long> before, Map<String, Long> after) {
+    System.out.printf("%n%-8s %20s %20s %20s%n", "currency", "before", "net deposits", "after");
+    boolean conserved = true;
+    for (String currency : before.keySet()) {
+      long net = netDeposits.get(currency).sum();
+      long expected = before.get(currency) + net;
+      long actual = after.getOrDefault(currency, 0L);
+      System.out.printf(
+          "%-8s %20d %20d %20d%s%n",
+          currency, before.get(currency), net, actual, actual == expected ? "" : "  MISMATCH");
+      conserved &= actual == expected;
+    }
+    if (unexpectedOutcomes.sum() > 0) {
+      throw new IllegalStateException(
+          unexpectedOutcomes.sum() + " requests failed with 5xx or I/O errors");
+    }
+    if (!conserved) {
+      throw new IllegalStateException("Money was not conserved");
+    }
+    System.out.println("Money conserved in every currency");
+  }
+
+  @FunctionalInterface
+  private interface StatusCall {
+    int call() throws InterruptedException;
+  }
+}
@@ -0,0 +1,51 @@
+package com.skypro.simplebanking.loadtest;
+
+import java.time.Duration;
+
+/** Load test knobs, read from {@code -Dloadtest.*} system properties. */
+class LoadTestSettings {
+  final String baseUrl;
+  final String datasourceUrl;
+  final String datasourceUsername;
+  final String datasourcePassword;
+  final String adminToken;
+  final int users;
+  final int concurrency;
+  final Duration duration;
+  final long initialBalance;
+  final long maxAmount;
+  final double hotAccountShare;
+  final double hotTrafficShare;
+  final int transferWeight;
+  final int depositWeight;
+  final int withdrawWeight;
+
+  private LoadTestSettings() {
+    baseUrl = System.getProperty("loadtest.base-url", "");
+    datasourceUrl = System.getProperty("loadtest.datasource.url", "");
+    datasourceUsername = System.getProperty("loadtest.datasource.username", "");
+    datasourcePassword = System.getProperty("loadtest.datasource.password", "");
+    adminToken = System.getProperty("loadtest.admin-token", "SUPER_SECRET_KEY_FROM_ADMIN");
+    users = Integer.getInteger("loadtest.users", 100);
+    concurrency = Integer.getInteger("loadtest.concurrency", 200);
+    duration = Duration.ofSeconds(Long.getLong("loadtest.duration-seconds", 30));
+    initialBalance = Long.getLong("loadtest.initial-balance", 1_000_000);
+    maxAmount = Long.getLong("loadtest.max-amount", 100);
+    hotAccountShare = Double.parseDouble(System.getProperty("loadtest.hot-account-share", "0.05"));
+    hotTrafficShare = Double.parseDouble(System.getProperty("loadtest.hot-traffic-share", "0.5"));
+    transferWeight = Integer.getInteger("loadtest.weight.transfer", 70);
+    depositWeight = Integer.getInteger("loadtest.weight.deposit", 15);
+    withdrawWeight = Integer.getInteger("loadtest.weight.withdraw", 15);
+    if (users < 2) {
+      throw new IllegalArgumentException("loadtest.users should be at least 2");
+    }
+  }
+
+  static LoadTestSettings fromSystemProperties() {
+    return new LoadTestSettings();
+  }
+
+  int hotUsers() {
+    return Math.max(1, (int) Math.round(users * hotAccountShare));
+  }
+}
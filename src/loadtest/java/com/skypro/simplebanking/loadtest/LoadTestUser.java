@@ -0,0 +1,16 @@
+package com.skypro.simplebanking.loadtest;
+
+import java.util.Map;
+
+class LoadTestUser {
+  final long id;
+  final String authorization;
+  // Account id by currency name.
+  final Map<String, Long> accounts;
+
+  LoadTestUser(long id, String authorization, Map<String, Long> accounts) {
+    this.id = id;
+    this.authorization = authorization;
+    this.accounts = accounts;
+  }
+}
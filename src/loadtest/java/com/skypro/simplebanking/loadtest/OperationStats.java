@@ -0,0 +1,55 @@
+package com.skypro.simplebanking.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Latencies and outcomes of one operation type as seen by one worker. Workers never share an
+ * instance; {@link #merge} combines them once the run is over.
+ */
+class OperationStats {
+  private long[] latenciesNanos = new long[1024];
+  private int count;
+  private final Map<String, Long> outcomes = new TreeMap<>();
+
+  void record(long latencyNanos, String outcome) {
+    if (count == latenciesNanos.length) {
+      latenciesNanos = Arrays.copyOf(latenciesNanos, count * 2);
+    }
+    latenciesNanos[count++] = latencyNanos;
+    outcomes.merge(outcome, 1L, Long::sum);
+  }
+
+  void merge(OperationStats other) {
+    if (count + other.count > latenciesNanos.length) {
+      latenciesNanos = Arrays.copyOf(latenciesNanos, count + other.count);
+    }
+    System.arraycopy(other.latenciesNanos, 0, latenciesNanos, count, other.count);
+    count += other.count;
+    other.outcomes.forEach((outcome, n) -> outcomes.merge(outcome, n, Long::sum));
+  }
+
+  int count() {
+    return count;
+  }
+
+  Map<String, Long> outcomes() {
+    return outcomes;
+  }
+
+  /** Latency percentiles in milliseconds, for {@code percentiles} between 0 and 100. */
+  double[] percentilesMillis(double... percentiles) {
+    long[] sorted = Arrays.copyOf(latenciesNanos, count);
+    Arrays.sort(sorted);
+    double[] result = new double[percentiles.length];
+    for (int i = 0; i < percentiles.length; i++) {
+      if (count == 0) {
+        continue;
+      }
+      int index = (int) Math.ceil(percentiles[i] / 100 * count) - 1;
+      result[i] = sorted[Math.max(0, Math.min(count - 1, index))] / 1_000_000.0;
+    }
+    return result;
+  }
+}
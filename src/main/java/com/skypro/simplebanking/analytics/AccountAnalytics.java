@@ -0,0 +1,284 @@
+package com.skypro.simplebanking.analytics;
+
+import com.skypro.simplebanking.dto.AccountDTO;
+import com.skypro.simplebanking.dto.AnalyticsDTO;
+import com.skypro.simplebanking.dto.CurrencyAnalyticsDTO;
+import com.skypro.simplebanking.dto.TransferVolumeDTO;
+import com.skypro.simplebanking.engine.BalanceEngine;
+import com.skypro.simplebanking.entity.Account;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Aggregates for the admin dashboard kept in memory so that polling them never scans the accounts
+ * table: account counts and total balances per currency in {@link LongAdder}s, the largest
+ * balances per currency in a bounded {@link TopBalances} heap, and transfers per minute over the
+ * last {@code app.analytics.volume-minutes}. Account and transfer services report their changes
+ * through an {@link AnalyticsUpdate} that is applied when their transaction commits.
+ *
+ * <p>Everything is rebuilt from the database on startup, after a balance engine checkpoint when
+ * the engine is enabled, and again on {@code app.analytics.rebuild-cron}. Each node only sees its
+ * own changes in between, so with several nodes the scheduled rebuild bounds how far they drift;
+ * changes committed while a rebuild reads the database may be missed until the next one. When a
+ * largest-balances list has run short of {@code app.analytics.top-n} entries because tracked
+ * accounts fell below its bound, reading it reloads that currency from the database, at most once
+ * per {@code app.analytics.top-refresh-millis}.
+ */
+@Component
+public class AccountAnalytics implements InitializingBean {
+  private static final int CURRENCIES = AccountCurrency.values().length;
+  private static final int FETCH_SIZE = 1000;
+  // Room for a few times the reported entries before the heap runs short.
+  private static final int TRACKED_PER_REPORTED = 4;
+  private static final long MINUTE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+  private static final Logger log = LoggerFactory.getLogger(AccountAnalytics.class);
+  private static final String ACCOUNT_TOTALS =
+      "SELECT account_currency, COUNT(*) AS accounts, SUM(amount) AS balance"
+          + " FROM accounts GROUP BY account_currency";
+  private static final String SLOT_TOTALS =
+      "SELECT a.account_currency, SUM(s.amount) AS balance"
+          + " FROM account_balance_slots s JOIN accounts a ON a.id = s.account_id"
+          + " GROUP BY a.account_currency";
+  private static final String TOP_BALANCES =
+      "SELECT a.id, a.amount + COALESCE((SELECT SUM(s.amount) FROM account_balance_slots s"
+          + " WHERE s.account_id = a.id), 0) AS balance"
+          + " FROM accounts a WHERE a.account_currency = ? ORDER BY balance DESC";
+  private static final String RECENT_TRANSFERS =
+      "SELECT a.account_currency, l.created_at, l.amount"
+          + " FROM ledger_entries l JOIN accounts a ON a.id = l.account_id"
+          + " WHERE l.type = 'TRANSFER_OUT' AND l.created_at >= ?";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final JdbcTemplate topBalancesTemplate;
+  private final BalanceEngine balanceEngine;
+  private final TransactionTemplate readOnlyTransaction;
+  private final int topLimit;
+  private final int volumeMinutes;
+  private final long topRefreshNanos;
+  private final AtomicLongArray topRefreshedAt = new AtomicLongArray(CURRENCIES);
+  private volatile Aggregates aggregates;
+
+  public AccountAnalytics(
+      DataSource dataSource,
+      BalanceEngine balanceEngine,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry,
+      @Value("${app.analytics.top-n}") int topLimit,
+      @Value("${app.analytics.volume-minutes}") int volumeMinutes,
+      @Value("${app.analytics.top-refresh-millis}") long topRefreshMillis) {
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+    this.topLimit = Math.max(1, topLimit);
+    this.topBalancesTemplate = new JdbcTemplate(dataSource);
+    this.topBalancesTemplate.setMaxRows(this.topLimit * TRACKED_PER_REPORTED);
+    this.balanceEngine = balanceEngine;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    this.volumeMinutes = Math.max(1, volumeMinutes);
+    this.topRefreshNanos = TimeUnit.MILLISECONDS.toNanos(topRefreshMillis);
+    long now = System.nanoTime();
+    for (int index = 0; index < CURRENCIES; index++) {
+      topRefreshedAt.set(index, now - topRefreshNanos);
+    }
+    this.aggregates = new Aggregates(this.topLimit, this.volumeMinutes, Instant.EPOCH);
+    for (AccountCurrency currency : AccountCurrency.values()) {
+      int index = currency.ordinal();
+      Gauge.builder(
+              "banking.analytics.accounts",
+              this,
+              analytics -> analytics.aggregates.accounts[index].sum())
+          .tag("currency", currency.name())
+          .register(meterRegistry);
+      Gauge.builder(
+              "banking.analytics.balance",
+              this,
+              analytics -> analytics.aggregates.balances[index].sum())
+          .tag("currency", currency.name())
+          .register(meterRegistry);
+    }
+  }
+
+  /** Starts collecting the changes of one unit of work. */
+  public AnalyticsUpdate update() {
+    return new AnalyticsUpdate(this);
+  }
+
+  public AnalyticsDTO getAnalytics() {
+    Aggregates current = aggregates;
+    long currentMinute = System.currentTimeMillis() / MINUTE_MILLIS;
+    AccountCurrency[] currencies = AccountCurrency.values();
+    List<CurrencyAnalyticsDTO> perCurrency = new ArrayList<>(CURRENCIES);
+    for (int index = 0; index < CURRENCIES; index++) {
+      long[] top = current.topBalances[index].top();
+      if (top.length / 2 < topLimit && current.topBalances[index].isShortened()) {
+        top = refreshTopBalances(current.topBalances[index], index, top);
+      }
+      List<AccountDTO> topBalances = new ArrayList<>(top.length / 2);
+      for (int entry = 0; entry < top.length; entry += 2) {
+        topBalances.add(new AccountDTO(top[entry], top[entry + 1], currencies[index]));
+      }
+      long[] transfers = new long[volumeMinutes];
+      long[] amounts = new long[volumeMinutes];
+      current.transferVolumes[index].read(currentMinute, transfers, amounts);
+      List<TransferVolumeDTO> volume = new ArrayList<>(volumeMinutes);
+      for (int minute = 0; minute < volumeMinutes; minute++) {
+        long startMillis = (currentMinute - volumeMinutes + 1 + minute) * MINUTE_MILLIS;
+        volume.add(
+            new TransferVolumeDTO(
+                Instant.ofEpochMilli(startMillis), transfers[minute], amounts[minute]));
+      }
+      perCurrency.add(
+          new CurrencyAnalyticsDTO(
+              currencies[index],
+              current.accounts[index].sum(),
+              current.balances[index].sum(),
+              topBalances,
+              volume));
+    }
+    return new AnalyticsDTO(perCurrency, current.rebuiltAt);
+  }
+
+  @Override
+  public void afterPropertiesSet() {
+    rebuild();
+  }
+
+  @Scheduled(cron = "${app.analytics.rebuild-cron}")
+  public void rebuild() {
+    long started = System.nanoTime();
+    if (balanceEngine.isEnabled()) {
+      // Brings the accounts table up to date with the engine, including a replayed log.
+      balanceEngine.checkpoint();
+    }
+    Aggregates rebuilt = new Aggregates(topLimit, volumeMinutes, Instant.now());
+    readOnlyTransaction.executeWithoutResult(status -> load(rebuilt));
+    aggregates = rebuilt;
+    log.info(
+        "Rebuilt account analytics in {} ms",
+        Duration.ofNanos(System.nanoTime() - started).toMillis());
+  }
+
+  void apply(AnalyticsUpdate update) {
+    Aggregates current = aggregates;
+    long minute = System.currentTimeMillis() / MINUTE_MILLIS;
+    for (int index = 0; index < CURRENCIES; index++) {
+      long created = update.createdAccounts[index];
+      if (created != 0) {
+        current.accounts[index].add(created);
+        current.balances[index].add(created * Account.INITIAL_AMOUNT);
+      }
+      if (update.balanceDeltas[index] != 0) {
+        current.balances[index].add(update.balanceDeltas[index]);
+      }
+      if (update.transfers[index] != 0) {
+        current.transferVolumes[index].record(
+            minute, update.transfers[index], update.transferred[index]);
+      }
+    }
+    for (int index = 0; index < update.balanceCount; index++) {
+      current
+          .topBalances[update.currencies[index]]
+          .update(update.accountIds[index], update.balances[index]);
+    }
+  }
+
+  private void load(Aggregates rebuilt) {
+    jdbcTemplate.query(
+        ACCOUNT_TOTALS,
+        rs -> {
+          int index = rs.getInt("account_currency");
+          rebuilt.accounts[index].add(rs.getLong("accounts"));
+          rebuilt.balances[index].add(rs.getLong("balance"));
+        });
+    jdbcTemplate.query(
+        SLOT_TOTALS,
+        rs -> {
+          rebuilt.balances[rs.getInt("account_currency")].add(rs.getLong("balance"));
+        });
+    for (int index = 0; index < CURRENCIES; index++) {
+      loadTopBalances(rebuilt.topBalances[index], index);
+    }
+    long windowStart = rebuilt.rebuiltAt.toEpochMilli() / MINUTE_MILLIS - volumeMinutes + 1;
+    jdbcTemplate.query(
+        RECENT_TRANSFERS,
+        rs -> {
+          long minute = rs.getTimestamp("created_at").getTime() / MINUTE_MILLIS;
+          rebuilt
+              .transferVolumes[rs.getInt("account_currency")]
+              .record(minute, 1, -rs.getLong("amount"));
+        },
+        new Timestamp(windowStart * MINUTE_MILLIS));
+  }
+
+  // Callers polling at once share one reload; the others report the short list meanwhile.
+  private long[] refreshTopBalances(TopBalances topBalances, int index, long[] top) {
+    long now = System.nanoTime();
+    long last = topRefreshedAt.get(index);
+    if (now - last < topRefreshNanos || !topRefreshedAt.compareAndSet(index, last, now)) {
+      return top;
+    }
+    if (balanceEngine.isEnabled()) {
+      balanceEngine.checkpoint();
+    }
+    TopBalances loaded = new TopBalances(topLimit, topLimit * TRACKED_PER_REPORTED);
+    readOnlyTransaction.executeWithoutResult(status -> loadTopBalances(loaded, index));
+    topBalances.replaceWith(loaded);
+    return topBalances.top();
+  }
+
+  private void loadTopBalances(TopBalances top, int currencyIndex) {
+    long[] loaded = new long[2];
+    topBalancesTemplate.query(
+        TOP_BALANCES,
+        rs -> {
+          long balance = rs.getLong("balance");
+          top.update(rs.getLong("id"), balance);
+          loaded[0]++;
+          loaded[1] = balance;
+        },
+        currencyIndex);
+    // Accounts never touched since creation are not reported, so the bound starts there; with a
+    // full heap every other account holds at most its smallest entry.
+    top.raiseBound(
+        loaded[0] < top.capacity()
+            ? Account.INITIAL_AMOUNT
+            : Math.max(loaded[1], Account.INITIAL_AMOUNT));
+  }
+
+  private static final class Aggregates {
+    private final LongAdder[] accounts = new LongAdder[CURRENCIES];
+    private final LongAdder[] balances = new LongAdder[CURRENCIES];
+    private final TopBalances[] topBalances = new TopBalances[CURRENCIES];
+    private final TransferVolume[] transferVolumes = new TransferVolume[CURRENCIES];
+    private final Instant rebuiltAt;
+
+    private Aggregates(int topLimit, int volumeMinutes, Instant rebuiltAt) {
+      for (int index = 0; index < CURRENCIES; index++) {
+        accounts[index] = new LongAdder();
+        balances[index] = new LongAdder();
+        topBalances[index] = new TopBalances(topLimit, topLimit * TRACKED_PER_REPORTED);
+        transferVolumes[index] = new TransferVolume(volumeMinutes);
+      }
+      this.rebuiltAt = rebuiltAt;
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package com.skypro.simplebanking.analytics;
+
+import com.skypro.simplebanking.entity.AccountCurrency;
+import java.util.Arrays;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Changes made by one unit of work, collected while it runs and applied to {@link
+ * AccountAnalytics} by {@link #apply()}: after the surrounding transaction commits, or at once
+ * outside a transaction. Not thread-safe.
+ */
+public final class AnalyticsUpdate {
+  private static final int CURRENCIES = AccountCurrency.values().length;
+
+  private final AccountAnalytics analytics;
+  final long[] createdAccounts = new long[CURRENCIES];
+  final long[] balanceDeltas = new long[CURRENCIES];
+  final long[] transfers = new long[CURRENCIES];
+  final long[] transferred = new long[CURRENCIES];
+  long[] accountIds = new long[4];
+  long[] balances = new long[4];
+  byte[] currencies = new byte[4];
+  int balanceCount;
+
+  AnalyticsUpdate(AccountAnalytics analytics) {
+    this.analytics = analytics;
+  }
+
+  /** New accounts holding the initial amount. */
+  public AnalyticsUpdate accountsCreated(AccountCurrency currency, long count) {
+    createdAccounts[currency.ordinal()] += count;
+    return this;
+  }
+
+  public AnalyticsUpdate balanceChanged(AccountCurrency currency, long delta) {
+    balanceDeltas[currency.ordinal()] += delta;
+    return this;
+  }
+
+  /** The balance an account is left with; the last one given for an account wins. */
+  public AnalyticsUpdate balance(long accountId, AccountCurrency currency, long balance) {
+    if (balanceCount == accountIds.length) {
+      accountIds = Arrays.copyOf(accountIds, balanceCount * 2);
+      balances = Arrays.copyOf(balances, balanceCount * 2);
+      currencies = Arrays.copyOf(currencies, balanceCount * 2);
+    }
+    accountIds[balanceCount] = accountId;
+    balances[balanceCount] = balance;
+    currencies[balanceCount] = (byte) currency.ordinal();
+    balanceCount++;
+    return this;
+  }
+
+  /** A transfer of {@code amount} out of an account in {@code currency}. */
+  public AnalyticsUpdate transferred(AccountCurrency currency, long amount) {
+    transfers[currency.ordinal()]++;
+    transferred[currency.ordinal()] += amount;
+    return this;
+  }
+
+  /** Applies the changes once the surrounding transaction, if any, has committed. */
+  public void apply() {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      analytics.apply(this);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            analytics.apply(AnalyticsUpdate.this);
+          }
+        });
+  }
+
+  /** Applies the changes right away, for changes already durable outside any transaction. */
+  public void applyNow() {
+    analytics.apply(this);
+  }
+}
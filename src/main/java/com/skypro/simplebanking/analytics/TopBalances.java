@@ -0,0 +1,105 @@
+package com.skypro.simplebanking.analytics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * The largest balances of one currency, tracked in a min-heap bounded to a few times the number
+ * reported. Every account outside the heap is known to hold at most {@code bound}, so only
+ * entries at or above it are reported; an account enters the heap once it rises above the bound,
+ * and the bound rises to whatever the heap evicts. A tracked account that falls below the bound
+ * makes the list shorter, since an untracked one may now be larger; the list is then marked
+ * shortened until it is replaced by one loaded from the database.
+ */
+final class TopBalances {
+  private static final Comparator<Entry> ASCENDING =
+      Comparator.comparingLong((Entry entry) -> entry.balance)
+          .thenComparingLong(entry -> entry.accountId);
+
+  private final int limit;
+  private final int capacity;
+  private final PriorityQueue<Entry> heap;
+  private final Map<Long, Entry> tracked;
+  private long bound;
+  private boolean shortened;
+
+  TopBalances(int limit, int capacity) {
+    this.limit = limit;
+    this.capacity = capacity;
+    this.heap = new PriorityQueue<>(capacity + 1, ASCENDING);
+    this.tracked = new HashMap<>(capacity * 2);
+    this.bound = Long.MIN_VALUE;
+  }
+
+  int capacity() {
+    return capacity;
+  }
+
+  /** Declares that no account outside the heap holds more than {@code bound}. */
+  synchronized void raiseBound(long bound) {
+    this.bound = Math.max(this.bound, bound);
+  }
+
+  synchronized void update(long accountId, long balance) {
+    Entry current = tracked.remove(accountId);
+    if (current != null) {
+      heap.remove(current);
+      shortened |= balance < bound;
+    } else if (balance <= bound) {
+      return;
+    }
+    Entry entry = new Entry(accountId, balance);
+    tracked.put(accountId, entry);
+    heap.add(entry);
+    if (heap.size() > capacity) {
+      Entry evicted = heap.poll();
+      tracked.remove(evicted.accountId);
+      bound = Math.max(bound, evicted.balance);
+    }
+  }
+
+  /** Whether a tracked account fell below the bound since this was loaded. */
+  synchronized boolean isShortened() {
+    return shortened;
+  }
+
+  /** Takes over the entries and bound of a list loaded by the calling thread. */
+  synchronized void replaceWith(TopBalances loaded) {
+    heap.clear();
+    heap.addAll(loaded.heap);
+    tracked.clear();
+    tracked.putAll(loaded.tracked);
+    bound = loaded.bound;
+    shortened = false;
+  }
+
+  /** Account ids and balances, largest first, as alternating elements. */
+  synchronized long[] top() {
+    List<Entry> entries = new ArrayList<>(heap);
+    entries.sort(ASCENDING.reversed());
+    int count = 0;
+    while (count < entries.size() && count < limit && entries.get(count).balance >= bound) {
+      count++;
+    }
+    long[] top = new long[count * 2];
+    for (int index = 0; index < count; index++) {
+      top[index * 2] = entries.get(index).accountId;
+      top[index * 2 + 1] = entries.get(index).balance;
+    }
+    return top;
+  }
+
+  private static final class Entry {
+    private final long accountId;
+    private final long balance;
+
+    private Entry(long accountId, long balance) {
+      this.accountId = accountId;
+      this.balance = balance;
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package com.skypro.simplebanking.analytics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Transfers and amounts per minute over a sliding window of one currency. Each minute maps to a
+ * bucket of a ring that is cleared when its minute comes round again.
+ */
+final class TransferVolume {
+  private final Bucket[] buckets;
+
+  TransferVolume(int minutes) {
+    buckets = new Bucket[minutes];
+    for (int index = 0; index < minutes; index++) {
+      buckets[index] = new Bucket();
+    }
+  }
+
+  void record(long minute, long transfers, long amount) {
+    Bucket bucket = buckets[Math.floorMod(minute, buckets.length)];
+    if (bucket.minute != minute) {
+      synchronized (bucket) {
+        if (bucket.minute < minute) {
+          bucket.transfers.reset();
+          bucket.amount.reset();
+          bucket.minute = minute;
+        } else if (bucket.minute != minute) {
+          // Older than the window.
+          return;
+        }
+      }
+    }
+    bucket.transfers.add(transfers);
+    bucket.amount.add(amount);
+  }
+
+  /**
+   * Fills the arrays, one element per minute of the window, with the transfers and amounts of the
+   * minutes up to {@code currentMinute}, oldest first.
+   */
+  void read(long currentMinute, long[] transfers, long[] amounts) {
+    for (int index = 0; index < buckets.length; index++) {
+      long minute = currentMinute - buckets.length + 1 + index;
+      Bucket bucket = buckets[Math.floorMod(minute, buckets.length)];
+      if (bucket.minute == minute) {
+        transfers[index] = bucket.transfers.sum();
+        amounts[index] = bucket.amount.sum();
+      }
+    }
+  }
+
+  int minutes() {
+    return buckets.length;
+  }
+
+  private static final class Bucket {
+    private final LongAdder transfers = new LongAdder();
+    private final LongAdder amount = new LongAdder();
+    private volatile long minute = Long.MIN_VALUE;
+  }
+}
@@ -0,0 +1,111 @@
+package com.skypro.simplebanking.cache;
+
+import com.skypro.simplebanking.dto.AccountDTO;
+import com.skypro.simplebanking.event.AccountBalanceChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Read-through cache of account balances. A transaction that changes a balance marks the account
+ * as being written from just before its commit until just after it completes; during that window
+ * reads bypass the cache, and a value loaded before the write finished is never stored, so a read
+ * never returns a balance older than the last write committed on this node.
+ */
+@Component
+public class AccountBalanceCache {
+  private static final int STRIPES = 1024;
+
+  private final BoundedTtlCache<Long, CachedAccount> accounts;
+  private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+  private final AtomicIntegerArray writesInProgress = new AtomicIntegerArray(STRIPES);
+
+  public AccountBalanceCache(
+      @Value("${app.accounts.balance-cache.max-size}") int maxSize,
+      @Value("${app.accounts.balance-cache.ttl-seconds}") long ttlSeconds,
+      MeterRegistry meterRegistry) {
+    this.accounts = new BoundedTtlCache<>(maxSize, ttlSeconds, TimeUnit.SECONDS);
+    this.accounts.bindTo(meterRegistry, "banking.account.balance.cache");
+  }
+
+  public AccountDTO get(long userId, long accountId, Supplier<AccountDTO> loader) {
+    int stripe = stripe(accountId);
+    if (writesInProgress.get(stripe) > 0) {
+      return loader.get();
+    }
+    long generation = generations.get(stripe);
+    CachedAccount cached = accounts.get(accountId);
+    if (cached != null && cached.userId == userId) {
+      return cached.account;
+    }
+    AccountDTO account = loader.get();
+    if (writesInProgress.get(stripe) == 0 && generations.get(stripe) == generation) {
+      accounts.put(accountId, new CachedAccount(userId, account));
+      if (generations.get(stripe) != generation) {
+        accounts.invalidate(accountId);
+      }
+    }
+    return account;
+  }
+
+  public void invalidate(long accountId) {
+    generations.incrementAndGet(stripe(accountId));
+    accounts.invalidate(accountId);
+  }
+
+  public void invalidateAll() {
+    for (int stripe = 0; stripe < STRIPES; stripe++) {
+      generations.incrementAndGet(stripe);
+    }
+    accounts.invalidateAll();
+  }
+
+  @EventListener
+  public void onBalanceChanged(AccountBalanceChangedEvent event) {
+    long accountId = event.getAccountId();
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      invalidate(accountId);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          private boolean committing;
+
+          @Override
+          public void beforeCommit(boolean readOnly) {
+            committing = true;
+            writesInProgress.incrementAndGet(stripe(accountId));
+            invalidate(accountId);
+          }
+
+          @Override
+          public void afterCompletion(int status) {
+            invalidate(accountId);
+            if (committing) {
+              writesInProgress.decrementAndGet(stripe(accountId));
+            }
+          }
+        });
+  }
+
+  private static int stripe(long accountId) {
+    return (int) ((accountId ^ (accountId >>> 32)) & (STRIPES - 1));
+  }
+
+  private static final class CachedAccount {
+    private final long userId;
+    private final AccountDTO account;
+
+    private CachedAccount(long userId, AccountDTO account) {
+      this.userId = userId;
+      this.account = account;
+    }
+  }
+}
@@ -0,0 +1,146 @@
+package com.skypro.simplebanking.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiPredicate;
+
+/** Size-bounded LRU cache whose entries expire a fixed time after they were written. */
+public class BoundedTtlCache<K, V> {
+  private final int maxSize;
+  private final long ttlNanos;
+  private final LinkedHashMap<K, Entry<V>> entries;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  public BoundedTtlCache(int maxSize, long ttl, TimeUnit ttlUnit) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("maxSize should be more than 0");
+    }
+    this.maxSize = maxSize;
+    this.ttlNanos = ttlUnit.toNanos(ttl);
+    this.entries = new LinkedHashMap<>(16, 0.75f, true);
+  }
+
+  public V get(K key) {
+    long now = System.nanoTime();
+    lock.lock();
+    try {
+      Entry<V> entry = entries.get(key);
+      if (entry == null) {
+        misses.increment();
+        return null;
+      }
+      if (now - entry.expiresAt >= 0) {
+        entries.remove(key);
+        evictions.increment();
+        misses.increment();
+        return null;
+      }
+      hits.increment();
+      return entry.value;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void put(K key, V value) {
+    Entry<V> entry = new Entry<>(value, System.nanoTime() + ttlNanos);
+    lock.lock();
+    try {
+      entries.put(key, entry);
+      Iterator<Entry<V>> eldest = entries.values().iterator();
+      while (entries.size() > maxSize && eldest.hasNext()) {
+        eldest.next();
+        eldest.remove();
+        evictions.increment();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void invalidate(K key) {
+    lock.lock();
+    try {
+      entries.remove(key);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void invalidateIf(BiPredicate<K, V> predicate) {
+    lock.lock();
+    try {
+      entries.entrySet().removeIf(e -> predicate.test(e.getKey(), e.getValue().value));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void invalidateAll() {
+    lock.lock();
+    try {
+      entries.clear();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int size() {
+    lock.lock();
+    try {
+      return entries.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public long hitCount() {
+    return hits.sum();
+  }
+
+  public long missCount() {
+    return misses.sum();
+  }
+
+  public long evictionCount() {
+    return evictions.sum();
+  }
+
+  public double hitRatio() {
+    long hitCount = hits.sum();
+    long requests = hitCount + misses.sum();
+    return requests == 0 ? 0 : (double) hitCount / requests;
+  }
+
+  public void bindTo(MeterRegistry registry, String name) {
+    FunctionCounter.builder(name + ".requests", hits, LongAdder::sum)
+        .tag("result", "hit")
+        .register(registry);
+    FunctionCounter.builder(name + ".requests", misses, LongAdder::sum)
+        .tag("result", "miss")
+        .register(registry);
+    FunctionCounter.builder(name + ".evictions", evictions, LongAdder::sum).register(registry);
+    Gauge.builder(name + ".size", this, BoundedTtlCache::size).register(registry);
+    Gauge.builder(name + ".hit.ratio", this, BoundedTtlCache::hitRatio).register(registry);
+  }
+
+  private static final class Entry<V> {
+    private final V value;
+    private final long expiresAt;
+
+    private Entry(V value, long expiresAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
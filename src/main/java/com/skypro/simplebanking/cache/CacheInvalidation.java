@@ -0,0 +1,32 @@
+package com.skypro.simplebanking.cache;
+
+public class CacheInvalidation {
+  private final String origin;
+  private final CacheInvalidationType type;
+  private final String key;
+  private final long publishedAtMillis;
+
+  public CacheInvalidation(
+      String origin, CacheInvalidationType type, String key, long publishedAtMillis) {
+    this.origin = origin;
+    this.type = type;
+    this.key = key;
+    this.publishedAtMillis = publishedAtMillis;
+  }
+
+  public String getOrigin() {
+    return origin;
+  }
+
+  public CacheInvalidationType getType() {
+    return type;
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  public long getPublishedAtMillis() {
+    return publishedAtMillis;
+  }
+}
@@ -0,0 +1,97 @@
+package com.skypro.simplebanking.cache;
+
+import com.skypro.simplebanking.configuration.CredentialCache;
+import com.skypro.simplebanking.event.AccountBalanceChangedEvent;
+import com.skypro.simplebanking.event.UserCredentialsChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps the local caches of other instances in step with this one: account and credential changes
+ * are broadcast on the {@link InvalidationBus} once their transaction commits, and invalidations
+ * published by other instances evict the matching local entries.
+ */
+@Component
+public class CacheInvalidationRelay {
+  private final String nodeId = UUID.randomUUID().toString();
+  private final InvalidationBus invalidationBus;
+  private final AccountBalanceCache accountBalanceCache;
+  private final CredentialCache credentialCache;
+  private final Counter published;
+  private final Timer lag;
+
+  public CacheInvalidationRelay(
+      InvalidationBus invalidationBus,
+      AccountBalanceCache accountBalanceCache,
+      CredentialCache credentialCache,
+      MeterRegistry meterRegistry) {
+    this.invalidationBus = invalidationBus;
+    this.accountBalanceCache = accountBalanceCache;
+    this.credentialCache = credentialCache;
+    this.published = meterRegistry.counter("banking.cache.invalidation.published");
+    // Measured against the sender's wall clock, so it includes any clock skew between nodes.
+    this.lag =
+        Timer.builder("banking.cache.invalidation.lag")
+            .description("Time from commit on the writing instance to eviction on this one")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    invalidationBus.subscribe(this::apply);
+  }
+
+  @EventListener
+  public void onBalanceChanged(AccountBalanceChangedEvent event) {
+    publishAfterCommit(CacheInvalidationType.ACCOUNT, String.valueOf(event.getAccountId()));
+  }
+
+  @EventListener
+  public void onCredentialsChanged(UserCredentialsChangedEvent event) {
+    publishAfterCommit(CacheInvalidationType.USER, event.getUsername());
+  }
+
+  private void publishAfterCommit(CacheInvalidationType type, String key) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      publish(type, key);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            publish(type, key);
+          }
+        });
+  }
+
+  private void publish(CacheInvalidationType type, String key) {
+    invalidationBus.publish(new CacheInvalidation(nodeId, type, key, System.currentTimeMillis()));
+    published.increment();
+  }
+
+  private void apply(CacheInvalidation invalidation) {
+    if (nodeId.equals(invalidation.getOrigin())) {
+      return;
+    }
+    switch (invalidation.getType()) {
+      case ACCOUNT:
+        accountBalanceCache.invalidate(Long.parseLong(invalidation.getKey()));
+        break;
+      case USER:
+        credentialCache.invalidate(invalidation.getKey());
+        break;
+      case ALL:
+        accountBalanceCache.invalidateAll();
+        credentialCache.invalidateAll();
+        return;
+    }
+    lag.record(
+        Math.max(0, System.currentTimeMillis() - invalidation.getPublishedAtMillis()),
+        TimeUnit.MILLISECONDS);
+  }
+}
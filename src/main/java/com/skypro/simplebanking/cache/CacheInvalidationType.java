@@ -0,0 +1,7 @@
+package com.skypro.simplebanking.cache;
+
+public enum CacheInvalidationType {
+  ACCOUNT,
+  USER,
+  ALL
+}
@@ -0,0 +1,38 @@
+package com.skypro.simplebanking.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+/**
+ * Delivers invalidations synchronously to every application context in this JVM, so several
+ * contexts started side by side behave like separate nodes. Used whenever {@link
+ * PostgresInvalidationBus} is not.
+ */
+@Component
+@ConditionalOnExpression("!(" + PostgresInvalidationBus.ENABLED + ")")
+public class InMemoryInvalidationBus implements InvalidationBus, DisposableBean {
+  private static final List<Consumer<CacheInvalidation>> SUBSCRIBERS =
+      new CopyOnWriteArrayList<>();
+
+  private final List<Consumer<CacheInvalidation>> ownSubscribers = new CopyOnWriteArrayList<>();
+
+  @Override
+  public void publish(CacheInvalidation invalidation) {
+    SUBSCRIBERS.forEach(subscriber -> subscriber.accept(invalidation));
+  }
+
+  @Override
+  public void subscribe(Consumer<CacheInvalidation> subscriber) {
+    ownSubscribers.add(subscriber);
+    SUBSCRIBERS.add(subscriber);
+  }
+
+  @Override
+  public void destroy() {
+    SUBSCRIBERS.removeAll(ownSubscribers);
+  }
+}
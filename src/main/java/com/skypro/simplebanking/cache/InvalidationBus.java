@@ -0,0 +1,14 @@
+package com.skypro.simplebanking.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts cache invalidations to every instance of the application, including the sender.
+ * Delivery is best effort; an implementation that may have lost messages delivers an
+ * {@link CacheInvalidationType#ALL} invalidation instead.
+ */
+public interface InvalidationBus {
+  void publish(CacheInvalidation invalidation);
+
+  void subscribe(Consumer<CacheInvalidation> subscriber);
+}
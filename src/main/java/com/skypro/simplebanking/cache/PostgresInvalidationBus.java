@@ -0,0 +1,320 @@
+package com.skypro.simplebanking.cache;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Broadcasts invalidations with PostgreSQL LISTEN/NOTIFY. Sending and listening each use a
+ * dedicated connection outside the pool; queued invalidations are packed into as few NOTIFY
+ * payloads as possible. Whenever messages may have been missed (reconnect, full queue) subscribers
+ * get an {@link CacheInvalidationType#ALL} invalidation.
+ *
+ * <p>Used when {@code app.cache.invalidation.bus} is {@code postgres}, or {@code auto} with a
+ * PostgreSQL datasource; otherwise {@link InMemoryInvalidationBus} is. The driver is only on the
+ * runtime classpath, so its notification API is looked up reflectively.
+ */
+@Component
+@ConditionalOnExpression(PostgresInvalidationBus.ENABLED)
+public class PostgresInvalidationBus implements InvalidationBus, InitializingBean, DisposableBean {
+  static final String ENABLED =
+      "'${app.cache.invalidation.bus:auto}' == 'postgres'"
+          + " or ('${app.cache.invalidation.bus:auto}' == 'auto'"
+          + " and '${spring.datasource.url:}'.startsWith('jdbc:postgresql:'))";
+  private static final Logger log = LoggerFactory.getLogger(PostgresInvalidationBus.class);
+  private static final String CHANNEL = "banking_cache_invalidation";
+  // NOTIFY payloads have to stay below 8000 bytes.
+  private static final int MAX_PAYLOAD_BYTES = 7000;
+  private static final int MAX_QUEUED = 100_000;
+  private static final int POLL_MILLIS = 500;
+  private static final long RECONNECT_MILLIS = 1000;
+
+  private final DataSourceProperties dataSourceProperties;
+  private final Class<?> pgConnection;
+  private final Method getNotifications;
+  private final Method getParameter;
+  private final BlockingQueue<CacheInvalidation> outbox = new LinkedBlockingQueue<>(MAX_QUEUED);
+  private final AtomicReference<String> lostFrom = new AtomicReference<>();
+  private final List<Consumer<CacheInvalidation>> subscribers = new CopyOnWriteArrayList<>();
+  private final Thread listener = new Thread(this::listen, "cache-invalidation-listener");
+  private final Thread sender = new Thread(this::send, "cache-invalidation-sender");
+  private volatile boolean running = true;
+
+  public PostgresInvalidationBus(DataSourceProperties dataSourceProperties)
+      throws ReflectiveOperationException {
+    this.dataSourceProperties = dataSourceProperties;
+    ClassLoader classLoader = PostgresInvalidationBus.class.getClassLoader();
+    this.pgConnection = Class.forName("org.postgresql.PGConnection", false, classLoader);
+    this.getNotifications = pgConnection.getMethod("getNotifications", int.class);
+    this.getParameter =
+        Class.forName("org.postgresql.PGNotification", false, classLoader)
+            .getMethod("getParameter");
+  }
+
+  @Override
+  public void publish(CacheInvalidation invalidation) {
+    if (!outbox.offer(invalidation)) {
+      lostFrom.compareAndSet(null, invalidation.getOrigin());
+    }
+  }
+
+  @Override
+  public void subscribe(Consumer<CacheInvalidation> subscriber) {
+    subscribers.add(subscriber);
+  }
+
+  @Override
+  public void afterPropertiesSet() {
+    listener.setDaemon(true);
+    sender.setDaemon(true);
+    listener.start();
+    sender.start();
+  }
+
+  @Override
+  public void destroy() throws InterruptedException {
+    running = false;
+    listener.interrupt();
+    sender.interrupt();
+    listener.join(RECONNECT_MILLIS);
+    sender.join(RECONNECT_MILLIS);
+  }
+
+  private void send() {
+    Connection connection = null;
+    List<CacheInvalidation> batch = new ArrayList<>();
+    while (running) {
+      try {
+        if (connection == null) {
+          connection = connect();
+        }
+        String origin = lostFrom.getAndSet(null);
+        if (origin != null) {
+          batch.add(
+              new CacheInvalidation(
+                  origin, CacheInvalidationType.ALL, "", System.currentTimeMillis()));
+        }
+        CacheInvalidation next = outbox.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (next != null) {
+          batch.add(next);
+          outbox.drainTo(batch);
+        }
+        for (String payload : encode(batch)) {
+          try (PreparedStatement statement =
+              connection.prepareStatement("select pg_notify(?, ?)")) {
+            statement.setString(1, CHANNEL);
+            statement.setString(2, payload);
+            statement.execute();
+          }
+        }
+        batch.clear();
+      } catch (SQLException e) {
+        log.warn("Could not publish cache invalidations, reconnecting", e);
+        if (!batch.isEmpty()) {
+          lostFrom.compareAndSet(null, batch.get(0).getOrigin());
+          batch.clear();
+        }
+        close(connection);
+        connection = null;
+        pause();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    close(connection);
+  }
+
+  private void listen() {
+    Connection connection = null;
+    while (running) {
+      try {
+        if (connection == null) {
+          connection = connect();
+          try (Statement statement = connection.createStatement()) {
+            statement.execute("LISTEN " + CHANNEL);
+          }
+          // Whatever was published while we were not listening is gone.
+          deliver(
+              new CacheInvalidation("", CacheInvalidationType.ALL, "", System.currentTimeMillis()));
+        }
+        Object[] notifications = poll(connection);
+        if (notifications != null) {
+          for (Object notification : notifications) {
+            List<CacheInvalidation> invalidations;
+            try {
+              invalidations = decode((String) invoke(getParameter, notification));
+            } catch (RuntimeException e) {
+              // Whatever the payload said is lost, so nothing cached can be trusted.
+              log.warn("Could not decode cache invalidation payload, invalidating all", e);
+              invalidations =
+                  List.of(
+                      new CacheInvalidation(
+                          "", CacheInvalidationType.ALL, "", System.currentTimeMillis()));
+            }
+            invalidations.forEach(this::deliver);
+          }
+        }
+      } catch (SQLException e) {
+        if (running) {
+          log.warn("Lost cache invalidation listener connection, reconnecting", e);
+        }
+        close(connection);
+        connection = null;
+        pause();
+      }
+    }
+    close(connection);
+  }
+
+  private Object[] poll(Connection connection) throws SQLException {
+    return (Object[]) invoke(getNotifications, connection.unwrap(pgConnection), POLL_MILLIS);
+  }
+
+  private static Object invoke(Method method, Object target, Object... arguments)
+      throws SQLException {
+    try {
+      return method.invoke(target, arguments);
+    } catch (InvocationTargetException e) {
+      if (e.getCause() instanceof SQLException) {
+        throw (SQLException) e.getCause();
+      }
+      throw new IllegalStateException(e.getCause());
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private void deliver(CacheInvalidation invalidation) {
+    for (Consumer<CacheInvalidation> subscriber : subscribers) {
+      try {
+        subscriber.accept(invalidation);
+      } catch (RuntimeException e) {
+        log.warn("Cache invalidation subscriber failed", e);
+      }
+    }
+  }
+
+  // Payload: the origin on the first line, then one "TYPE:publishedAtMillis:key" line each, with
+  // backslashes and newlines in the origin and keys escaped.
+  private static List<String> encode(List<CacheInvalidation> invalidations) {
+    List<String> payloads = new ArrayList<>();
+    StringBuilder payload = null;
+    String origin = null;
+    int payloadBytes = 0;
+    for (CacheInvalidation invalidation : invalidations) {
+      String line =
+          invalidation.getType()
+              + ":"
+              + invalidation.getPublishedAtMillis()
+              + ":"
+              + escape(invalidation.getKey());
+      int lineBytes = line.getBytes(StandardCharsets.UTF_8).length + 1;
+      if (lineBytes > MAX_PAYLOAD_BYTES / 2) {
+        // A key this long would not fit in a NOTIFY; invalidating everything is always correct.
+        line = CacheInvalidationType.ALL + ":" + invalidation.getPublishedAtMillis() + ":";
+        lineBytes = line.length() + 1;
+      }
+      if (payload == null
+          || !invalidation.getOrigin().equals(origin)
+          || payloadBytes + lineBytes > MAX_PAYLOAD_BYTES) {
+        if (payload != null) {
+          payloads.add(payload.toString());
+        }
+        origin = invalidation.getOrigin();
+        payload = new StringBuilder(escape(origin));
+        payloadBytes = payload.toString().getBytes(StandardCharsets.UTF_8).length;
+      }
+      payload.append('\n').append(line);
+      payloadBytes += lineBytes;
+    }
+    if (payload != null) {
+      payloads.add(payload.toString());
+    }
+    return payloads;
+  }
+
+  private static List<CacheInvalidation> decode(String payload) {
+    String[] lines = payload.split("\n");
+    String origin = unescape(lines[0]);
+    List<CacheInvalidation> invalidations = new ArrayList<>(lines.length - 1);
+    for (int i = 1; i < lines.length; i++) {
+      String line = lines[i];
+      int typeEnd = line.indexOf(':');
+      int timestampEnd = line.indexOf(':', typeEnd + 1);
+      invalidations.add(
+          new CacheInvalidation(
+              origin,
+              CacheInvalidationType.valueOf(line.substring(0, typeEnd)),
+              unescape(line.substring(timestampEnd + 1)),
+              Long.parseLong(line.substring(typeEnd + 1, timestampEnd))));
+    }
+    return invalidations;
+  }
+
+  private static String escape(String value) {
+    return value.replace("\\", "\\\\").replace("\n", "\\n");
+  }
+
+  private static String unescape(String value) {
+    if (value.indexOf('\\') < 0) {
+      return value;
+    }
+    StringBuilder unescaped = new StringBuilder(value.length());
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '\\' && i + 1 < value.length()) {
+        c = value.charAt(++i) == 'n' ? '\n' : value.charAt(i);
+      }
+      unescaped.append(c);
+    }
+    return unescaped.toString();
+  }
+
+  private Connection connect() throws SQLException {
+    return DriverManager.getConnection(
+        dataSourceProperties.determineUrl(),
+        dataSourceProperties.determineUsername(),
+        dataSourceProperties.determinePassword());
+  }
+
+  private static void close(Connection connection) {
+    if (connection == null) {
+      return;
+    }
+    try {
+      connection.close();
+    } catch (SQLException e) {
+      log.debug("Could not close cache invalidation connection", e);
+    }
+  }
+
+  private void pause() {
+    try {
+      Thread.sleep(RECONNECT_MILLIS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      running = false;
+    }
+  }
+}
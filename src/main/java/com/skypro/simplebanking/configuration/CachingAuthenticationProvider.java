@@ -0,0 +1,88 @@
+package com.skypro.simplebanking.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+  private final DaoAuthenticationProvider delegate;
+  private final CredentialCache credentialCache;
+  private final Timer cacheSuccesses;
+  private final Timer passwordSuccesses;
+  private final Timer passwordFailures;
+
+  public CachingAuthenticationProvider(
+      UserDetailsService userDetailsService,
+      PasswordEncoder passwordEncoder,
+      CredentialCache credentialCache,
+      MeterRegistry meterRegistry) {
+    this.delegate = new DaoAuthenticationProvider();
+    this.delegate.setUserDetailsService(userDetailsService);
+    this.delegate.setPasswordEncoder(passwordEncoder);
+    this.credentialCache = credentialCache;
+    this.cacheSuccesses = timer(meterRegistry, "cache", "success");
+    this.passwordSuccesses = timer(meterRegistry, "password", "success");
+    this.passwordFailures = timer(meterRegistry, "password", "failure");
+  }
+
+  @Override
+  public Authentication authenticate(Authentication authentication)
+      throws AuthenticationException {
+    if (authentication.getCredentials() == null) {
+      return delegate.authenticate(authentication);
+    }
+    String username = authentication.getName();
+    String password = authentication.getCredentials().toString();
+    long startedAt = System.nanoTime();
+    Optional<UserDetails> cached = credentialCache.get(username, password);
+    if (cached.isPresent()) {
+      UserDetails userDetails = cached.get();
+      UsernamePasswordAuthenticationToken result =
+          UsernamePasswordAuthenticationToken.authenticated(
+              userDetails, authentication.getCredentials(), userDetails.getAuthorities());
+      result.setDetails(authentication.getDetails());
+      record(cacheSuccesses, startedAt);
+      return result;
+    }
+    Authentication result;
+    try {
+      result = delegate.authenticate(authentication);
+    } catch (AuthenticationException e) {
+      record(passwordFailures, startedAt);
+      throw e;
+    }
+    record(passwordSuccesses, startedAt);
+    if (result.getPrincipal() instanceof UserDetails) {
+      credentialCache.put(username, password, (UserDetails) result.getPrincipal());
+    }
+    return result;
+  }
+
+  private static Timer timer(MeterRegistry meterRegistry, String source, String outcome) {
+    return Timer.builder("banking.auth")
+        .tag("source", source)
+        .tag("outcome", outcome)
+        .publishPercentileHistogram()
+        .register(meterRegistry);
+  }
+
+  private static void record(Timer timer, long startedAt) {
+    timer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public boolean supports(Class<?> authentication) {
+    return delegate.supports(authentication);
+  }
+}
@@ -0,0 +1,59 @@
+package com.skypro.simplebanking.configuration;
+
+import com.skypro.simplebanking.cache.BoundedTtlCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CredentialCache {
+  private final BoundedTtlCache<String, UserDetails> cache;
+  private final byte[] salt = new byte[32];
+
+  public CredentialCache(
+      @Value("${app.security.credential-cache.max-size}") int maxSize,
+      @Value("${app.security.credential-cache.ttl-seconds}") long ttlSeconds,
+      MeterRegistry meterRegistry) {
+    this.cache = new BoundedTtlCache<>(maxSize, ttlSeconds, TimeUnit.SECONDS);
+    this.cache.bindTo(meterRegistry, "banking.auth.credential.cache");
+    new SecureRandom().nextBytes(salt);
+  }
+
+  public Optional<UserDetails> get(String username, String password) {
+    return Optional.ofNullable(cache.get(key(username, password)));
+  }
+
+  public void put(String username, String password, UserDetails userDetails) {
+    cache.put(key(username, password), userDetails);
+  }
+
+  public void invalidate(String username) {
+    cache.invalidateIf((key, userDetails) -> userDetails.getUsername().equals(username));
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  private String key(String username, String password) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+    digest.update(salt);
+    digest.update(username.getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) 0);
+    digest.update(password.getBytes(StandardCharsets.UTF_8));
+    return Base64.getEncoder().encodeToString(digest.digest());
+  }
+}
@@ -21,7 +21,9 @@ public class SecurityConfiguration {
 
     @Bean
     public SecurityFilterChain httpSecurity(
-            HttpSecurity httpSecurity, AdminSecurityFilter adminSecurityFilter) throws Exception {
+            HttpSecurity httpSecurity,
+            AdminSecurityFilter adminSecurityFilter,
+            TokenSecurityFilter tokenSecurityFilter) throws Exception {
         return httpSecurity
                 .csrf()
                 .disable()
@@ -39,17 +41,26 @@ public class SecurityConfiguration {
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 .and()
                 .authorizeHttpRequests()
+                .antMatchers(HttpMethod.POST, "/auth/token")
+                .hasRole("USER")
                 .antMatchers(HttpMethod.POST, "/user/")
                 .hasRole("ADMIN")
+                .antMatchers("/admin/**")
+                .hasRole("ADMIN")
                 .antMatchers("/user/*")
                 .hasRole("USER")
                 .antMatchers("/account/**")
                 .hasRole("USER")
                 .antMatchers("/transfer/**")
                 .hasRole("USER")
+                .antMatchers("/actuator/health")
+                .permitAll()
+                .antMatchers("/actuator/**")
+                .hasRole("ADMIN")
                 .anyRequest()
                 .authenticated()
                 .and()
+                .addFilterBefore(tokenSecurityFilter, AnonymousAuthenticationFilter.class)
                 .addFilterBefore(adminSecurityFilter, AnonymousAuthenticationFilter.class)
                 .build();
     }
@@ -0,0 +1,56 @@
+package com.skypro.simplebanking.configuration;
+
+import com.skypro.simplebanking.service.AccessTokenService;
+import java.io.IOException;
+import java.util.Optional;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+@Component
+public class TokenSecurityFilter extends OncePerRequestFilter {
+  private static final String BEARER_PREFIX = "Bearer ";
+
+  private final AccessTokenService accessTokenService;
+
+  public TokenSecurityFilter(AccessTokenService accessTokenService) {
+    this.accessTokenService = accessTokenService;
+  }
+
+  @Override
+  protected void doFilterInternal(
+      @NonNull HttpServletRequest request,
+      @NonNull HttpServletResponse response,
+      @NonNull FilterChain filterChain)
+      throws ServletException, IOException {
+    Optional<UsernamePasswordAuthenticationToken> authenticatedUserDetails =
+        authenticateByBearerToken(request);
+    authenticatedUserDetails.ifPresent(
+        details -> {
+          SecurityContext context = SecurityContextHolder.createEmptyContext();
+          context.setAuthentication(details);
+          SecurityContextHolder.setContext(context);
+        });
+    filterChain.doFilter(request, response);
+  }
+
+  private Optional<UsernamePasswordAuthenticationToken> authenticateByBearerToken(
+      HttpServletRequest request) {
+    return Optional.ofNullable(request.getHeader(HttpHeaders.AUTHORIZATION))
+        .filter(header -> header.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length()))
+        .map(header -> header.substring(BEARER_PREFIX.length()).trim())
+        .flatMap(accessTokenService::verify)
+        .map(
+            userDetails ->
+                UsernamePasswordAuthenticationToken.authenticated(
+                    userDetails, null, userDetails.getAuthorities()));
+  }
+}
@@ -0,0 +1,41 @@
+package com.skypro.simplebanking.configuration;
+
+import com.skypro.simplebanking.entity.User;
+import com.skypro.simplebanking.event.UserCredentialsChangedEvent;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Component
+public class UserCredentialsListener {
+  private final CredentialCache credentialCache;
+  private final ApplicationEventPublisher eventPublisher;
+
+  public UserCredentialsListener(
+      CredentialCache credentialCache, ApplicationEventPublisher eventPublisher) {
+    this.credentialCache = credentialCache;
+    this.eventPublisher = eventPublisher;
+  }
+
+  @PostUpdate
+  @PostRemove
+  public void evictCredentials(User user) {
+    String username = user.getUsername();
+    credentialCache.invalidate(username);
+    eventPublisher.publishEvent(new UserCredentialsChangedEvent(username));
+    // A request authenticating between the flush and the commit still sees the old hash,
+    // so evict again once the new one is visible to everybody.
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              credentialCache.invalidate(username);
+            }
+          });
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package com.skypro.simplebanking.configuration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+
+/**
+ * Watches for virtual threads that stay pinned to their carrier (blocking inside {@code
+ * synchronized} or native code) longer than a threshold, using the JFR VirtualThreadPinned event.
+ * Each occurrence is counted; each distinct call site is logged once with its stack.
+ */
+public class VirtualThreadPinningMonitor implements InitializingBean, DisposableBean {
+  private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+  private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+  private static final int STACK_DEPTH = 12;
+  private static final int MAX_LOGGED_SITES = 100;
+
+  private final Set<String> loggedSites = ConcurrentHashMap.newKeySet();
+  private RecordingStream recording;
+  private Counter pinned;
+  private Timer pinnedTime;
+
+  @Value("${app.threads.virtual.pinning-threshold-millis}")
+  private long thresholdMillis;
+
+  @Autowired
+  public void setMeterRegistry(MeterRegistry meterRegistry) {
+    this.pinned = meterRegistry.counter("banking.threads.virtual.pinned");
+    this.pinnedTime = meterRegistry.timer("banking.threads.virtual.pinned.time");
+  }
+
+  @Override
+  public void afterPropertiesSet() {
+    recording = new RecordingStream();
+    recording
+        .enable(PINNED_EVENT)
+        .withThreshold(Duration.ofMillis(thresholdMillis))
+        .withStackTrace();
+    recording.onEvent(PINNED_EVENT, this::onPinned);
+    recording.startAsync();
+  }
+
+  @Override
+  public void destroy() {
+    recording.close();
+  }
+
+  private void onPinned(RecordedEvent event) {
+    pinned.increment();
+    pinnedTime.record(event.getDuration());
+    if (event.getStackTrace() == null || loggedSites.size() >= MAX_LOGGED_SITES) {
+      return;
+    }
+    String stack =
+        event.getStackTrace().getFrames().stream()
+            .limit(STACK_DEPTH)
+            .map(VirtualThreadPinningMonitor::describe)
+            .collect(Collectors.joining("\n\tat "));
+    if (loggedSites.add(stack)) {
+      log.warn(
+          "Virtual thread pinned for {} ms at\n\tat {}", event.getDuration().toMillis(), stack);
+    }
+  }
+
+  private static String describe(RecordedFrame frame) {
+    return frame.getMethod().getType().getName()
+        + "."
+        + frame.getMethod().getName()
+        + ":"
+        + frame.getLineNumber();
+  }
+}
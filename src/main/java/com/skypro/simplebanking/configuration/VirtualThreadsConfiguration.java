@@ -0,0 +1,54 @@
+package com.skypro.simplebanking.configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Runs Tomcat request handling, and with it every service call and transaction made on a request
+ * thread, on virtual threads; async MVC responses such as the NDJSON user stream use them too.
+ * Needs Java 21. The executor is looked up reflectively so the code still builds for the Java 17
+ * baseline; build with -Pjava21 to move the baseline itself.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.threads.virtual", havingValue = "true")
+public class VirtualThreadsConfiguration implements WebMvcConfigurer, DisposableBean {
+  private final ExecutorService executor = newVirtualThreadPerTaskExecutor();
+
+  @Bean
+  public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+    return protocolHandler -> protocolHandler.setExecutor(executor);
+  }
+
+  @Bean
+  public VirtualThreadPinningMonitor virtualThreadPinningMonitor() {
+    return new VirtualThreadPinningMonitor();
+  }
+
+  @Override
+  public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+    configurer.setTaskExecutor(new TaskExecutorAdapter(executor));
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdown();
+  }
+
+  private static ExecutorService newVirtualThreadPerTaskExecutor() {
+    try {
+      return (ExecutorService)
+          Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException(
+          "app.threads.virtual=true needs Java 21, running on " + Runtime.version(), e);
+    }
+  }
+}
@@ -3,17 +3,39 @@ package com.skypro.simplebanking.controller;
 import com.skypro.simplebanking.dto.AccountDTO;
 import com.skypro.simplebanking.dto.BalanceChangeRequest;
 import com.skypro.simplebanking.dto.BankingUserDetails;
+import com.skypro.simplebanking.dto.HistoricalBalanceDTO;
+import com.skypro.simplebanking.dto.LedgerPageDTO;
+import com.skypro.simplebanking.entity.IdempotencyRecord;
 import com.skypro.simplebanking.service.AccountService;
+import com.skypro.simplebanking.service.BalanceHistoryService;
+import com.skypro.simplebanking.service.IdempotencyService;
+import com.skypro.simplebanking.service.LedgerService;
+import java.time.Instant;
+import javax.validation.constraints.Size;
 import org.springframework.security.core.Authentication;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
 @RequestMapping("/account")
+@Validated
 public class AccountController {
+  private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
   private final AccountService accountService;
+  private final IdempotencyService idempotencyService;
+  private final LedgerService ledgerService;
+  private final BalanceHistoryService balanceHistoryService;
 
-  public AccountController(AccountService accountService) {
+  public AccountController(
+      AccountService accountService,
+      IdempotencyService idempotencyService,
+      LedgerService ledgerService,
+      BalanceHistoryService balanceHistoryService) {
     this.accountService = accountService;
+    this.idempotencyService = idempotencyService;
+    this.ledgerService = ledgerService;
+    this.balanceHistoryService = balanceHistoryService;
   }
 
   @GetMapping("/{id}")
@@ -22,19 +44,50 @@ public class AccountController {
     return accountService.getAccount(bankingUserDetails.getId(), accountId);
   }
 
+  @GetMapping("/{id}/transactions")
+  public LedgerPageDTO getAccountTransactions(Authentication authentication,
+                                              @PathVariable("id") Long accountId,
+                                              @RequestParam(value = "before", required = false) Long before,
+                                              @RequestParam(value = "limit", defaultValue = "50") int limit) {
+    BankingUserDetails bankingUserDetails = (BankingUserDetails) authentication.getPrincipal();
+    return ledgerService.getHistory(bankingUserDetails.getId(), accountId, before, limit);
+  }
+
+  @GetMapping("/{id}/balance")
+  public HistoricalBalanceDTO getAccountBalanceAt(Authentication authentication,
+                                                  @PathVariable("id") Long accountId,
+                                                  @RequestParam("at") Instant at) {
+    BankingUserDetails bankingUserDetails = (BankingUserDetails) authentication.getPrincipal();
+    return balanceHistoryService.getBalanceAt(bankingUserDetails.getId(), accountId, at);
+  }
+
   @PostMapping("/deposit/{id}")
   public AccountDTO depositToAccount(Authentication authentication,
                                      @PathVariable("id") Long accountId,
-                                     @RequestBody BalanceChangeRequest balanceChangeRequest){
+                                     @RequestBody BalanceChangeRequest balanceChangeRequest,
+                                     @RequestHeader(value = IDEMPOTENCY_KEY, required = false)
+                                     @Size(max = IdempotencyRecord.MAX_KEY_LENGTH) String idempotencyKey){
     BankingUserDetails bankingUserDetails = (BankingUserDetails) authentication.getPrincipal();
-    return accountService.depositToAccount(bankingUserDetails.getId(),accountId, balanceChangeRequest.getAmount());
+    return idempotencyService.executeBalanceChange(
+        bankingUserDetails.getId(),
+        idempotencyKey,
+        "deposit:" + accountId + ":" + balanceChangeRequest.getAmount(),
+        AccountDTO.class,
+        () -> accountService.depositToAccount(bankingUserDetails.getId(),accountId, balanceChangeRequest.getAmount()));
   }
 
   @PostMapping("/withdraw/{id}")
   public AccountDTO withdrawFromAccount(Authentication authentication,
                                      @PathVariable("id") Long accountId,
-                                     @RequestBody BalanceChangeRequest balanceChangeRequest){
+                                     @RequestBody BalanceChangeRequest balanceChangeRequest,
+                                     @RequestHeader(value = IDEMPOTENCY_KEY, required = false)
+                                     @Size(max = IdempotencyRecord.MAX_KEY_LENGTH) String idempotencyKey){
     BankingUserDetails bankingUserDetails = (BankingUserDetails) authentication.getPrincipal();
-    return accountService.withdrawFromAccount(bankingUserDetails.getId(),accountId, balanceChangeRequest.getAmount());
+    return idempotencyService.executeBalanceChange(
+        bankingUserDetails.getId(),
+        idempotencyKey,
+        "withdraw:" + accountId + ":" + balanceChangeRequest.getAmount(),
+        AccountDTO.class,
+        () -> accountService.withdrawFromAccount(bankingUserDetails.getId(),accountId, balanceChangeRequest.getAmount()));
   }
 }
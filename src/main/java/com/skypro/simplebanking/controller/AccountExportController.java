@@ -0,0 +1,100 @@
+package com.skypro.simplebanking.controller;
+
+import com.skypro.simplebanking.dto.AccountExportFormat;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.service.AccountExportService;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Admin-only export of all accounts with their owners, as CSV or NDJSON depending on the Accept
+ * header. The body is gzip-compressed when the client accepts it.
+ */
+@RestController
+@RequestMapping("/admin/export")
+public class AccountExportController {
+  private static final String TEXT_CSV_VALUE = "text/csv";
+  private static final int GZIP_BUFFER_SIZE = 1 << 16;
+
+  private final AccountExportService accountExportService;
+
+  public AccountExportController(AccountExportService accountExportService) {
+    this.accountExportService = accountExportService;
+  }
+
+  @GetMapping(value = "/accounts", produces = TEXT_CSV_VALUE)
+  public ResponseEntity<StreamingResponseBody> exportCsv(
+      @RequestParam(value = "currency", required = false) AccountCurrency currency,
+      @RequestParam(value = "minBalance", required = false) Long minBalance,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+    return export(AccountExportFormat.CSV, "accounts.csv", currency, minBalance, acceptEncoding);
+  }
+
+  @GetMapping(value = "/accounts", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> exportNdjson(
+      @RequestParam(value = "currency", required = false) AccountCurrency currency,
+      @RequestParam(value = "minBalance", required = false) Long minBalance,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+    return export(
+        AccountExportFormat.NDJSON, "accounts.ndjson", currency, minBalance, acceptEncoding);
+  }
+
+  private ResponseEntity<StreamingResponseBody> export(
+      AccountExportFormat format,
+      String filename,
+      AccountCurrency currency,
+      Long minBalance,
+      String acceptEncoding) {
+    boolean gzip = acceptsGzip(acceptEncoding);
+    ResponseEntity.BodyBuilder response =
+        ResponseEntity.ok()
+            .header(
+                HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    if (gzip) {
+      response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+    return response.body(
+        outputStream -> {
+          if (!gzip) {
+            accountExportService.export(format, currency, minBalance, outputStream);
+            return;
+          }
+          try (FastGzipOutputStream compressed = new FastGzipOutputStream(outputStream)) {
+            accountExportService.export(format, currency, minBalance, compressed);
+          }
+        });
+  }
+
+  private static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parts = coding.trim().split(";");
+      if (parts[0].trim().equalsIgnoreCase("gzip")) {
+        return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+      }
+    }
+    return false;
+  }
+
+  /** Favours throughput over ratio; the export is mostly digits and repeated names anyway. */
+  private static final class FastGzipOutputStream extends GZIPOutputStream {
+    private FastGzipOutputStream(OutputStream outputStream) throws IOException {
+      super(outputStream, GZIP_BUFFER_SIZE);
+      def.setLevel(Deflater.BEST_SPEED);
+    }
+  }
+}
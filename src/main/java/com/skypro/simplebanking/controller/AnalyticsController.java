@@ -0,0 +1,23 @@
+package com.skypro.simplebanking.controller;
+
+import com.skypro.simplebanking.analytics.AccountAnalytics;
+import com.skypro.simplebanking.dto.AnalyticsDTO;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/** Admin-only. Served from in-memory aggregates, so no request touches the accounts table. */
+@RestController
+@RequestMapping("/admin/analytics")
+public class AnalyticsController {
+  private final AccountAnalytics accountAnalytics;
+
+  public AnalyticsController(AccountAnalytics accountAnalytics) {
+    this.accountAnalytics = accountAnalytics;
+  }
+
+  @GetMapping
+  public AnalyticsDTO getAnalytics() {
+    return accountAnalytics.getAnalytics();
+  }
+}
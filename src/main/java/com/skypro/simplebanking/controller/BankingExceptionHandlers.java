@@ -1,34 +1,90 @@
 package com.skypro.simplebanking.controller;
 
 import com.skypro.simplebanking.exception.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import javax.validation.ConstraintViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
 @ControllerAdvice
 public class BankingExceptionHandlers {
+  private final MeterRegistry meterRegistry;
+
+  public BankingExceptionHandlers(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
   @ExceptionHandler(value = {AccountNotFoundException.class})
-  public ResponseEntity<?> handleAccountNotFound() {
-    return ResponseEntity.notFound().build();
+  public ResponseEntity<?> handleAccountNotFound(AccountNotFoundException exception) {
+    return count(exception, ResponseEntity.notFound().build());
+  }
+
+  @ExceptionHandler(value = {TransferNotFoundException.class})
+  public ResponseEntity<?> handleTransferNotFound(TransferNotFoundException exception) {
+    return count(exception, ResponseEntity.notFound().build());
   }
 
   @ExceptionHandler(value = {InsufficientFundsException.class})
   public ResponseEntity<?> handleInsufficientFunds(InsufficientFundsException exception) {
-    return ResponseEntity.badRequest().body(exception.getMessage());
+    return count(exception, ResponseEntity.badRequest().body(exception.getMessage()));
   }
 
   @ExceptionHandler(value = {UserAlreadyExistsException.class})
-  public ResponseEntity<?> handleUserAlreadyExists() {
-    return ResponseEntity.badRequest().build();
+  public ResponseEntity<?> handleUserAlreadyExists(UserAlreadyExistsException exception) {
+    return count(exception, ResponseEntity.badRequest().build());
   }
 
   @ExceptionHandler(value = {InvalidAmountException.class})
-  public ResponseEntity<?> handleInvalidAmount() {
-    return ResponseEntity.badRequest().body("Amount should be more than 0");
+  public ResponseEntity<?> handleInvalidAmount(InvalidAmountException exception) {
+    return count(exception, ResponseEntity.badRequest().body(exception.getMessage()));
   }
 
   @ExceptionHandler(value = {WrongCurrencyException.class})
-  public ResponseEntity<?> handleWrongCurrency() {
-    return ResponseEntity.badRequest().body("Account currencies should be same");
+  public ResponseEntity<?> handleWrongCurrency(WrongCurrencyException exception) {
+    return count(exception, ResponseEntity.badRequest().body(exception.getMessage()));
+  }
+
+  @ExceptionHandler(value = {OptimisticLockingFailureException.class})
+  public ResponseEntity<?> handleConcurrentModification(
+      OptimisticLockingFailureException exception) {
+    return count(
+        exception,
+        ResponseEntity.status(HttpStatus.CONFLICT).body("Account was modified concurrently"));
+  }
+
+  @ExceptionHandler(value = {IdempotencyKeyConflictException.class})
+  public ResponseEntity<?> handleIdempotencyKeyConflict(IdempotencyKeyConflictException exception) {
+    return count(exception, ResponseEntity.status(HttpStatus.CONFLICT).body(exception.getMessage()));
+  }
+
+  @ExceptionHandler(value = {BatchTransferRejectedException.class})
+  public ResponseEntity<?> handleBatchTransferRejected(BatchTransferRejectedException exception) {
+    return count(exception, ResponseEntity.status(HttpStatus.CONFLICT).body(exception.getResult()));
+  }
+
+  @ExceptionHandler(value = {UnsupportedIdempotencyKeyException.class})
+  public ResponseEntity<?> handleUnsupportedIdempotencyKey(
+      UnsupportedIdempotencyKeyException exception) {
+    return count(exception, ResponseEntity.badRequest().body(exception.getMessage()));
+  }
+
+  @ExceptionHandler(value = {ConstraintViolationException.class})
+  public ResponseEntity<?> handleConstraintViolation(ConstraintViolationException exception) {
+    return count(exception, ResponseEntity.badRequest().body(exception.getMessage()));
+  }
+
+  private ResponseEntity<?> count(Exception exception, ResponseEntity<?> response) {
+    meterRegistry
+        .counter(
+            "banking.errors",
+            "exception",
+            exception.getClass().getSimpleName(),
+            "status",
+            String.valueOf(response.getStatusCodeValue()))
+        .increment();
+    return response;
   }
 }
@@ -0,0 +1,31 @@
+package com.skypro.simplebanking.controller;
+
+import com.skypro.simplebanking.dto.ReconciliationReportDTO;
+import com.skypro.simplebanking.service.ReconciliationService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/** Admin-only. A run is started in the background and polled until it is no longer RUNNING. */
+@RestController
+@RequestMapping("/admin/reconciliation")
+public class ReconciliationController {
+  private final ReconciliationService reconciliationService;
+
+  public ReconciliationController(ReconciliationService reconciliationService) {
+    this.reconciliationService = reconciliationService;
+  }
+
+  @PostMapping
+  public ResponseEntity<ReconciliationReportDTO> startReconciliation() {
+    return ResponseEntity.accepted().body(reconciliationService.start());
+  }
+
+  @GetMapping
+  public ResponseEntity<ReconciliationReportDTO> getLatestReconciliation() {
+    ReconciliationReportDTO report = reconciliationService.getLatest();
+    return report == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(report);
+  }
+}
@@ -1,27 +1,129 @@
 package com.skypro.simplebanking.controller;
 
+import com.skypro.simplebanking.dto.AsyncTransferDTO;
 import com.skypro.simplebanking.dto.BankingUserDetails;
+import com.skypro.simplebanking.dto.BatchTransferRequest;
+import com.skypro.simplebanking.dto.BatchTransferResultDTO;
 import com.skypro.simplebanking.dto.TransferRequest;
+import com.skypro.simplebanking.entity.IdempotencyRecord;
+import com.skypro.simplebanking.exception.BatchTransferRejectedException;
+import com.skypro.simplebanking.service.AsyncTransferService;
+import com.skypro.simplebanking.service.IdempotencyService;
 import com.skypro.simplebanking.service.TransferService;
+import javax.validation.Valid;
+import javax.validation.constraints.Size;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
 @RequestMapping("/transfer")
+@Validated
 public class TransferController {
+  private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
   private final TransferService transferService;
+  private final IdempotencyService idempotencyService;
+  private final AsyncTransferService asyncTransferService;
 
-  public TransferController(TransferService transferService) {
+  public TransferController(
+      TransferService transferService,
+      IdempotencyService idempotencyService,
+      AsyncTransferService asyncTransferService) {
     this.transferService = transferService;
+    this.idempotencyService = idempotencyService;
+    this.asyncTransferService = asyncTransferService;
   }
 
   @PostMapping
   public void transfer(
-      Authentication authentication, @RequestBody TransferRequest transferRequest) {
+      Authentication authentication,
+      @RequestBody TransferRequest transferRequest,
+      @RequestHeader(value = IDEMPOTENCY_KEY, required = false)
+          @Size(max = IdempotencyRecord.MAX_KEY_LENGTH)
+          String idempotencyKey) {
+    BankingUserDetails bankingUserDetails = (BankingUserDetails) authentication.getPrincipal();
+    idempotencyService.executeBalanceChange(
+        bankingUserDetails.getId(),
+        idempotencyKey,
+        "transfer:" + describe(transferRequest),
+        Void.class,
+        () -> {
+          transferService.transfer(bankingUserDetails.getId(), transferRequest);
+          return null;
+        });
+  }
+
+  @PostMapping("/batch")
+  public BatchTransferResultDTO transferBatch(
+      Authentication authentication,
+      @RequestBody @Valid BatchTransferRequest batchTransferRequest,
+      @RequestHeader(value = IDEMPOTENCY_KEY, required = false)
+          @Size(max = IdempotencyRecord.MAX_KEY_LENGTH)
+          String idempotencyKey) {
+    BankingUserDetails bankingUserDetails = (BankingUserDetails) authentication.getPrincipal();
+    StringBuilder request = new StringBuilder("batch:").append(batchTransferRequest.getMode());
+    for (TransferRequest transferRequest : batchTransferRequest.getTransfers()) {
+      request.append(';').append(describe(transferRequest));
+    }
+    return idempotencyService.executeBalanceChange(
+        bankingUserDetails.getId(),
+        idempotencyKey,
+        request.toString(),
+        BatchTransferResultDTO.class,
+        () -> {
+          BatchTransferResultDTO result =
+              transferService.transferBatch(
+                  bankingUserDetails.getId(),
+                  batchTransferRequest.getTransfers(),
+                  batchTransferRequest.getMode());
+          // Thrown inside the action so that a rejected batch, like any failure, is not recorded
+          // under its Idempotency-Key and runs again when retried.
+          if (!result.isCommitted()) {
+            throw new BatchTransferRejectedException(result);
+          }
+          return result;
+        });
+  }
+
+  @PostMapping("/async")
+  public ResponseEntity<AsyncTransferDTO> submitTransfer(
+      Authentication authentication,
+      @RequestBody TransferRequest transferRequest,
+      @RequestHeader(value = IDEMPOTENCY_KEY, required = false)
+          @Size(max = IdempotencyRecord.MAX_KEY_LENGTH)
+          String idempotencyKey) {
+    BankingUserDetails bankingUserDetails = (BankingUserDetails) authentication.getPrincipal();
+    AsyncTransferDTO transfer =
+        idempotencyService.execute(
+            bankingUserDetails.getId(),
+            idempotencyKey,
+            "async:" + describe(transferRequest),
+            AsyncTransferDTO.class,
+            () -> asyncTransferService.submit(bankingUserDetails.getId(), transferRequest));
+    return ResponseEntity.accepted().body(transfer);
+  }
+
+  @GetMapping("/{id}")
+  public AsyncTransferDTO getTransfer(Authentication authentication, @PathVariable long id) {
     BankingUserDetails bankingUserDetails = (BankingUserDetails) authentication.getPrincipal();
-    transferService.transfer(bankingUserDetails.getId(), transferRequest);
+    return asyncTransferService.getTransfer(bankingUserDetails.getId(), id);
+  }
+
+  private static String describe(TransferRequest transferRequest) {
+    return transferRequest.getFromAccountId()
+        + ":"
+        + transferRequest.getToUserId()
+        + ":"
+        + transferRequest.getToAccountId()
+        + ":"
+        + transferRequest.getAmount();
   }
 }
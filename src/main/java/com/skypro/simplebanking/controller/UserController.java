@@ -1,5 +1,7 @@
 package com.skypro.simplebanking.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.skypro.simplebanking.dto.BankingUserDetails;
 import com.skypro.simplebanking.dto.CreateUserRequest;
 import com.skypro.simplebanking.dto.ListUserDTO;
@@ -7,27 +9,50 @@ import com.skypro.simplebanking.dto.UserDTO;
 import javax.validation.Valid;
 
 import com.skypro.simplebanking.service.UserService;
+import org.springframework.http.MediaType;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
 @RequestMapping("/user")
 public class UserController {
   private final UserService userService;
+  private final ObjectMapper objectMapper;
 
-  public UserController(UserService userService) {
+  public UserController(UserService userService, ObjectMapper objectMapper) {
     this.userService = userService;
+    this.objectMapper = objectMapper;
   }
 
   @PostMapping
   public UserDTO createUser(@RequestBody @Valid CreateUserRequest userRequest) {
     return userService.createUser(userRequest.getUsername(), userRequest.getPassword());
   }
-  @GetMapping("/list")
-  public List<ListUserDTO> getAllUsers(){
-    return userService.listUsers();
+  @GetMapping(value = "/list", produces = MediaType.APPLICATION_JSON_VALUE)
+  public List<ListUserDTO> getAllUsers(@RequestParam(value = "afterId", defaultValue = "0") long afterId,
+                                       @RequestParam(value = "limit", defaultValue = "100") int limit){
+    return userService.listUsers(afterId, limit);
+  }
+  @GetMapping(value = "/list", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public StreamingResponseBody streamAllUsers(@RequestParam(value = "afterId", defaultValue = "0") long afterId){
+    return outputStream -> {
+      try (JsonGenerator lines = objectMapper.getFactory().createGenerator(outputStream)) {
+        lines.setRootValueSeparator(null);
+        userService.streamUsers(afterId, user -> {
+          try {
+            lines.writeObject(user);
+            lines.writeRaw('\n');
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+      }
+    };
   }
   @GetMapping("/me")
   public UserDTO getMyProfile(Authentication authentication){
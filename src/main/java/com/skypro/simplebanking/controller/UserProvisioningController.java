@@ -0,0 +1,104 @@
+package com.skypro.simplebanking.controller;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skypro.simplebanking.dto.BulkUserImportDTO;
+import com.skypro.simplebanking.dto.CreateUserRequest;
+import com.skypro.simplebanking.service.UserProvisioningService;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Admin-only bulk onboarding. The body is read as it arrives, either as CSV lines of {@code
+ * username,password} with an optional header, or as one {@link CreateUserRequest} JSON object per
+ * line.
+ */
+@RestController
+@RequestMapping("/admin/users")
+public class UserProvisioningController {
+  private static final String TEXT_CSV_VALUE = "text/csv";
+
+  private final UserProvisioningService userProvisioningService;
+  private final ObjectMapper objectMapper;
+
+  public UserProvisioningController(
+      UserProvisioningService userProvisioningService, ObjectMapper objectMapper) {
+    this.userProvisioningService = userProvisioningService;
+    this.objectMapper = objectMapper;
+  }
+
+  @PostMapping(value = "/bulk", consumes = TEXT_CSV_VALUE)
+  public BulkUserImportDTO importCsv(InputStream body) {
+    BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+    return userProvisioningService.importUsers(new CsvUsers(reader));
+  }
+
+  @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+  public BulkUserImportDTO importNdjson(InputStream body) throws IOException {
+    try (MappingIterator<CreateUserRequest> users =
+        objectMapper.readerFor(CreateUserRequest.class).readValues(body)) {
+      return userProvisioningService.importUsers(users);
+    }
+  }
+
+  @GetMapping("/bulk")
+  public List<BulkUserImportDTO> listImports() {
+    return userProvisioningService.listImports();
+  }
+
+  private static final class CsvUsers implements Iterator<CreateUserRequest> {
+    private final BufferedReader reader;
+    private boolean firstLine = true;
+    private String line;
+
+    private CsvUsers(BufferedReader reader) {
+      this.reader = reader;
+    }
+
+    @Override
+    public boolean hasNext() {
+      try {
+        while (line == null) {
+          String next = reader.readLine();
+          if (next == null) {
+            return false;
+          }
+          boolean header = firstLine && next.trim().equalsIgnoreCase("username,password");
+          firstLine = false;
+          if (!header && !next.isBlank()) {
+            line = next;
+          }
+        }
+        return true;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    public CreateUserRequest next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      // Usernames cannot contain a comma; everything after the first one is the password.
+      int comma = line.indexOf(',');
+      CreateUserRequest request = new CreateUserRequest();
+      request.setUsername((comma < 0 ? line : line.substring(0, comma)).trim());
+      request.setPassword(comma < 0 ? null : line.substring(comma + 1));
+      line = null;
+      return request;
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package com.skypro.simplebanking.dto;
+
+public class AccessTokenDTO {
+  private final String token;
+  private final long expiresAt;
+
+  public AccessTokenDTO(String token, long expiresAt) {
+    this.token = token;
+    this.expiresAt = expiresAt;
+  }
+
+  public String getToken() {
+    return token;
+  }
+
+  public long getExpiresAt() {
+    return expiresAt;
+  }
+}
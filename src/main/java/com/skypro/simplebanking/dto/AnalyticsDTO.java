@@ -0,0 +1,22 @@
+package com.skypro.simplebanking.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public class AnalyticsDTO {
+  private final List<CurrencyAnalyticsDTO> currencies;
+  private final Instant rebuiltAt;
+
+  public AnalyticsDTO(List<CurrencyAnalyticsDTO> currencies, Instant rebuiltAt) {
+    this.currencies = currencies;
+    this.rebuiltAt = rebuiltAt;
+  }
+
+  public List<CurrencyAnalyticsDTO> getCurrencies() {
+    return currencies;
+  }
+
+  public Instant getRebuiltAt() {
+    return rebuiltAt;
+  }
+}
@@ -0,0 +1,55 @@
+package com.skypro.simplebanking.dto;
+
+import com.skypro.simplebanking.entity.PendingTransfer;
+import com.skypro.simplebanking.entity.PendingTransferStatus;
+import java.time.Instant;
+
+public class AsyncTransferDTO {
+  private final long id;
+  private final PendingTransferStatus status;
+  private final String failureReason;
+  private final Instant createdAt;
+  private final Instant processedAt;
+
+  public AsyncTransferDTO(
+      long id,
+      PendingTransferStatus status,
+      String failureReason,
+      Instant createdAt,
+      Instant processedAt) {
+    this.id = id;
+    this.status = status;
+    this.failureReason = failureReason;
+    this.createdAt = createdAt;
+    this.processedAt = processedAt;
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public PendingTransferStatus getStatus() {
+    return status;
+  }
+
+  public String getFailureReason() {
+    return failureReason;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+
+  public Instant getProcessedAt() {
+    return processedAt;
+  }
+
+  public static AsyncTransferDTO from(PendingTransfer transfer) {
+    return new AsyncTransferDTO(
+        transfer.getId(),
+        transfer.getStatus(),
+        transfer.getFailureReason(),
+        transfer.getCreatedAt(),
+        transfer.getProcessedAt());
+  }
+}
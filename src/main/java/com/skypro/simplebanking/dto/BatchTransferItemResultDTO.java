@@ -0,0 +1,25 @@
+package com.skypro.simplebanking.dto;
+
+public class BatchTransferItemResultDTO {
+  private final int index;
+  private final BatchTransferItemStatus status;
+  private final String error;
+
+  public BatchTransferItemResultDTO(int index, BatchTransferItemStatus status, String error) {
+    this.index = index;
+    this.status = status;
+    this.error = error;
+  }
+
+  public int getIndex() {
+    return index;
+  }
+
+  public BatchTransferItemStatus getStatus() {
+    return status;
+  }
+
+  public String getError() {
+    return error;
+  }
+}
@@ -0,0 +1,6 @@
+package com.skypro.simplebanking.dto;
+
+public enum BatchTransferMode {
+  ALL_OR_NOTHING,
+  BEST_EFFORT
+}
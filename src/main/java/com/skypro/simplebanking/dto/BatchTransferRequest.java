@@ -0,0 +1,36 @@
+package com.skypro.simplebanking.dto;
+
+import java.util.List;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+public class BatchTransferRequest {
+  /**
+   * Every account in a batch is locked at once, so the size bounds the locks one request holds;
+   * two accounts per transfer also keep the locking query below PostgreSQL's 32767 parameters.
+   */
+  public static final int MAX_TRANSFERS = 10_000;
+
+  @NotNull private BatchTransferMode mode = BatchTransferMode.ALL_OR_NOTHING;
+
+  @NotEmpty
+  @Size(max = MAX_TRANSFERS)
+  private List<@NotNull TransferRequest> transfers = List.of();
+
+  public BatchTransferMode getMode() {
+    return mode;
+  }
+
+  public void setMode(BatchTransferMode mode) {
+    this.mode = mode;
+  }
+
+  public List<TransferRequest> getTransfers() {
+    return transfers;
+  }
+
+  public void setTransfers(List<TransferRequest> transfers) {
+    this.transfers = transfers;
+  }
+}
@@ -0,0 +1,34 @@
+package com.skypro.simplebanking.dto;
+
+import java.util.List;
+
+public class BatchTransferResultDTO {
+  private final boolean committed;
+  private final int applied;
+  private final int rejected;
+  private final List<BatchTransferItemResultDTO> items;
+
+  public BatchTransferResultDTO(
+      boolean committed, int applied, int rejected, List<BatchTransferItemResultDTO> items) {
+    this.committed = committed;
+    this.applied = applied;
+    this.rejected = rejected;
+    this.items = items;
+  }
+
+  public boolean isCommitted() {
+    return committed;
+  }
+
+  public int getApplied() {
+    return applied;
+  }
+
+  public int getRejected() {
+    return rejected;
+  }
+
+  public List<BatchTransferItemResultDTO> getItems() {
+    return items;
+  }
+}
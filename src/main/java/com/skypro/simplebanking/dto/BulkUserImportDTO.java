@@ -0,0 +1,72 @@
+package com.skypro.simplebanking.dto;
+
+import java.time.Instant;
+
+public class BulkUserImportDTO {
+  private final long id;
+  private final BulkUserImportStatus status;
+  private final long read;
+  private final long created;
+  private final long skipped;
+  private final long rejected;
+  private final String failureReason;
+  private final Instant startedAt;
+  private final Instant finishedAt;
+
+  public BulkUserImportDTO(
+      long id,
+      BulkUserImportStatus status,
+      long read,
+      long created,
+      long skipped,
+      long rejected,
+      String failureReason,
+      Instant startedAt,
+      Instant finishedAt) {
+    this.id = id;
+    this.status = status;
+    this.read = read;
+    this.created = created;
+    this.skipped = skipped;
+    this.rejected = rejected;
+    this.failureReason = failureReason;
+    this.startedAt = startedAt;
+    this.finishedAt = finishedAt;
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public BulkUserImportStatus getStatus() {
+    return status;
+  }
+
+  public long getRead() {
+    return read;
+  }
+
+  public long getCreated() {
+    return created;
+  }
+
+  public long getSkipped() {
+    return skipped;
+  }
+
+  public long getRejected() {
+    return rejected;
+  }
+
+  public String getFailureReason() {
+    return failureReason;
+  }
+
+  public Instant getStartedAt() {
+    return startedAt;
+  }
+
+  public Instant getFinishedAt() {
+    return finishedAt;
+  }
+}
@@ -0,0 +1,45 @@
+package com.skypro.simplebanking.dto;
+
+import com.skypro.simplebanking.entity.AccountCurrency;
+import java.util.List;
+
+public class CurrencyAnalyticsDTO {
+  private final AccountCurrency currency;
+  private final long accounts;
+  private final long balance;
+  private final List<AccountDTO> topBalances;
+  private final List<TransferVolumeDTO> transfersPerMinute;
+
+  public CurrencyAnalyticsDTO(
+      AccountCurrency currency,
+      long accounts,
+      long balance,
+      List<AccountDTO> topBalances,
+      List<TransferVolumeDTO> transfersPerMinute) {
+    this.currency = currency;
+    this.accounts = accounts;
+    this.balance = balance;
+    this.topBalances = topBalances;
+    this.transfersPerMinute = transfersPerMinute;
+  }
+
+  public AccountCurrency getCurrency() {
+    return currency;
+  }
+
+  public long getAccounts() {
+    return accounts;
+  }
+
+  public long getBalance() {
+    return balance;
+  }
+
+  public List<AccountDTO> getTopBalances() {
+    return topBalances;
+  }
+
+  public List<TransferVolumeDTO> getTransfersPerMinute() {
+    return transfersPerMinute;
+  }
+}
@@ -0,0 +1,34 @@
+package com.skypro.simplebanking.dto;
+
+import com.skypro.simplebanking.entity.AccountCurrency;
+import java.time.Instant;
+
+public class HistoricalBalanceDTO {
+  private final long id;
+  private final long amount;
+  private final AccountCurrency currency;
+  private final Instant at;
+
+  public HistoricalBalanceDTO(long id, long amount, AccountCurrency currency, Instant at) {
+    this.id = id;
+    this.amount = amount;
+    this.currency = currency;
+    this.at = at;
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public long getAmount() {
+    return amount;
+  }
+
+  public AccountCurrency getCurrency() {
+    return currency;
+  }
+
+  public Instant getAt() {
+    return at;
+  }
+}
@@ -0,0 +1,51 @@
+package com.skypro.simplebanking.dto;
+
+import com.skypro.simplebanking.entity.LedgerEntry;
+import com.skypro.simplebanking.entity.LedgerEntryType;
+import java.time.Instant;
+
+public class LedgerEntryDTO {
+  private final long id;
+  private final long amount;
+  private final LedgerEntryType type;
+  private final Long counterpartyAccountId;
+  private final Instant createdAt;
+
+  public LedgerEntryDTO(
+      long id, long amount, LedgerEntryType type, Long counterpartyAccountId, Instant createdAt) {
+    this.id = id;
+    this.amount = amount;
+    this.type = type;
+    this.counterpartyAccountId = counterpartyAccountId;
+    this.createdAt = createdAt;
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public long getAmount() {
+    return amount;
+  }
+
+  public LedgerEntryType getType() {
+    return type;
+  }
+
+  public Long getCounterpartyAccountId() {
+    return counterpartyAccountId;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+
+  public static LedgerEntryDTO from(LedgerEntry entry) {
+    return new LedgerEntryDTO(
+        entry.getId(),
+        entry.getAmount(),
+        entry.getType(),
+        entry.getCounterpartyAccountId(),
+        entry.getCreatedAt());
+  }
+}
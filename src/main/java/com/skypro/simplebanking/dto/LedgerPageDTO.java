@@ -0,0 +1,21 @@
+package com.skypro.simplebanking.dto;
+
+import java.util.List;
+
+public class LedgerPageDTO {
+  private final List<LedgerEntryDTO> entries;
+  private final Long nextCursor;
+
+  public LedgerPageDTO(List<LedgerEntryDTO> entries, Long nextCursor) {
+    this.entries = entries;
+    this.nextCursor = nextCursor;
+  }
+
+  public List<LedgerEntryDTO> getEntries() {
+    return entries;
+  }
+
+  public Long getNextCursor() {
+    return nextCursor;
+  }
+}
@@ -0,0 +1,81 @@
+package com.skypro.simplebanking.dto;
+
+import com.skypro.simplebanking.entity.AccountCurrency;
+
+public class ReconciliationCurrencyDTO {
+  private final AccountCurrency currency;
+  private final long accounts;
+  private final long balance;
+  private final long created;
+  private final long deposited;
+  private final long withdrawn;
+  private final long transferredIn;
+  private final long transferredOut;
+  private final long convertedIn;
+  private final long convertedOut;
+
+  public ReconciliationCurrencyDTO(
+      AccountCurrency currency,
+      long accounts,
+      long balance,
+      long created,
+      long deposited,
+      long withdrawn,
+      long transferredIn,
+      long transferredOut,
+      long convertedIn,
+      long convertedOut) {
+    this.currency = currency;
+    this.accounts = accounts;
+    this.balance = balance;
+    this.created = created;
+    this.deposited = deposited;
+    this.withdrawn = withdrawn;
+    this.transferredIn = transferredIn;
+    this.transferredOut = transferredOut;
+    this.convertedIn = convertedIn;
+    this.convertedOut = convertedOut;
+  }
+
+  public AccountCurrency getCurrency() {
+    return currency;
+  }
+
+  public long getAccounts() {
+    return accounts;
+  }
+
+  public long getBalance() {
+    return balance;
+  }
+
+  public long getCreated() {
+    return created;
+  }
+
+  public long getDeposited() {
+    return deposited;
+  }
+
+  public long getWithdrawn() {
+    return withdrawn;
+  }
+
+  public long getTransferredIn() {
+    return transferredIn;
+  }
+
+  public long getTransferredOut() {
+    return transferredOut;
+  }
+
+  /** The part of {@link #getTransferredIn()} credited from accounts in another currency. */
+  public long getConvertedIn() {
+    return convertedIn;
+  }
+
+  /** The part of {@link #getTransferredOut()} debited for accounts in another currency. */
+  public long getConvertedOut() {
+    return convertedOut;
+  }
+}
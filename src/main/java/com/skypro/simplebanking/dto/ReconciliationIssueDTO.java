@@ -0,0 +1,53 @@
+package com.skypro.simplebanking.dto;
+
+import com.skypro.simplebanking.entity.AccountCurrency;
+
+public class ReconciliationIssueDTO {
+  private final Long accountId;
+  private final AccountCurrency currency;
+  private final AccountCurrency counterpartyCurrency;
+  private final ReconciliationIssueType type;
+  private final long balance;
+  private final long expectedBalance;
+
+  public ReconciliationIssueDTO(
+      Long accountId,
+      AccountCurrency currency,
+      AccountCurrency counterpartyCurrency,
+      ReconciliationIssueType type,
+      long balance,
+      long expectedBalance) {
+    this.accountId = accountId;
+    this.currency = currency;
+    this.counterpartyCurrency = counterpartyCurrency;
+    this.type = type;
+    this.balance = balance;
+    this.expectedBalance = expectedBalance;
+  }
+
+  /** Null for an issue that is not about a single account. */
+  public Long getAccountId() {
+    return accountId;
+  }
+
+  public AccountCurrency getCurrency() {
+    return currency;
+  }
+
+  /** The target currency of a {@link ReconciliationIssueType#TRANSFER_IMBALANCE}, else null. */
+  public AccountCurrency getCounterpartyCurrency() {
+    return counterpartyCurrency;
+  }
+
+  public ReconciliationIssueType getType() {
+    return type;
+  }
+
+  public long getBalance() {
+    return balance;
+  }
+
+  public long getExpectedBalance() {
+    return expectedBalance;
+  }
+}
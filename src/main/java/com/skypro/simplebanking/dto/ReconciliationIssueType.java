@@ -0,0 +1,12 @@
+package com.skypro.simplebanking.dto;
+
+public enum ReconciliationIssueType {
+  NEGATIVE_BALANCE,
+  LEDGER_MISMATCH,
+  /**
+   * Transfers between two currencies whose debit and credit legs do not match in number or, within
+   * one currency, in amount. Reported without an account, with the credited amount as the balance
+   * and the debited one as the expected balance.
+   */
+  TRANSFER_IMBALANCE
+}
@@ -0,0 +1,87 @@
+package com.skypro.simplebanking.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public class ReconciliationReportDTO {
+  private final long id;
+  private final ReconciliationStatus status;
+  private final long rangesDone;
+  private final long rangesTotal;
+  private final long accountsChecked;
+  private final List<ReconciliationCurrencyDTO> currencies;
+  private final long issueCount;
+  private final List<ReconciliationIssueDTO> issues;
+  private final String failureReason;
+  private final Instant startedAt;
+  private final Instant finishedAt;
+
+  public ReconciliationReportDTO(
+      long id,
+      ReconciliationStatus status,
+      long rangesDone,
+      long rangesTotal,
+      long accountsChecked,
+      List<ReconciliationCurrencyDTO> currencies,
+      long issueCount,
+      List<ReconciliationIssueDTO> issues,
+      String failureReason,
+      Instant startedAt,
+      Instant finishedAt) {
+    this.id = id;
+    this.status = status;
+    this.rangesDone = rangesDone;
+    this.rangesTotal = rangesTotal;
+    this.accountsChecked = accountsChecked;
+    this.currencies = currencies;
+    this.issueCount = issueCount;
+    this.issues = issues;
+    this.failureReason = failureReason;
+    this.startedAt = startedAt;
+    this.finishedAt = finishedAt;
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public ReconciliationStatus getStatus() {
+    return status;
+  }
+
+  public long getRangesDone() {
+    return rangesDone;
+  }
+
+  public long getRangesTotal() {
+    return rangesTotal;
+  }
+
+  public long getAccountsChecked() {
+    return accountsChecked;
+  }
+
+  public List<ReconciliationCurrencyDTO> getCurrencies() {
+    return currencies;
+  }
+
+  public long getIssueCount() {
+    return issueCount;
+  }
+
+  public List<ReconciliationIssueDTO> getIssues() {
+    return issues;
+  }
+
+  public String getFailureReason() {
+    return failureReason;
+  }
+
+  public Instant getStartedAt() {
+    return startedAt;
+  }
+
+  public Instant getFinishedAt() {
+    return finishedAt;
+  }
+}
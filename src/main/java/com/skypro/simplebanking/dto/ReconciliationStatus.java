@@ -0,0 +1,7 @@
+package com.skypro.simplebanking.dto;
+
+public enum ReconciliationStatus {
+  RUNNING,
+  COMPLETED,
+  FAILED
+}
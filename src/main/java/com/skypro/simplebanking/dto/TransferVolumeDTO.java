@@ -0,0 +1,27 @@
+package com.skypro.simplebanking.dto;
+
+import java.time.Instant;
+
+public class TransferVolumeDTO {
+  private final Instant minute;
+  private final long transfers;
+  private final long amount;
+
+  public TransferVolumeDTO(Instant minute, long transfers, long amount) {
+    this.minute = minute;
+    this.transfers = transfers;
+    this.amount = amount;
+  }
+
+  public Instant getMinute() {
+    return minute;
+  }
+
+  public long getTransfers() {
+    return transfers;
+  }
+
+  public long getAmount() {
+    return amount;
+  }
+}
@@ -1,7 +1,9 @@
 package com.skypro.simplebanking.dto;
 
+import com.skypro.simplebanking.entity.Account;
 import com.skypro.simplebanking.entity.User;
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class UserDTO {
@@ -28,9 +30,13 @@ public class UserDTO {
   }
 
   public static UserDTO from(User user) {
+    return from(user, AccountDTO::from);
+  }
+
+  public static UserDTO from(User user, Function<Account, AccountDTO> accountMapper) {
     return new UserDTO(
         user.getId(),
         user.getUsername(),
-        user.getAccounts().stream().map(AccountDTO::from).collect(Collectors.toList()));
+        user.getAccounts().stream().map(accountMapper).collect(Collectors.toList()));
   }
 }
@@ -0,0 +1,146 @@
+package com.skypro.simplebanking.engine;
+
+import com.skypro.simplebanking.entity.AccountCurrency;
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from account id to balance, owner and currency, kept in parallel primitive
+ * arrays so that a lookup or an update allocates nothing. Balances changed since the last {@link
+ * #drainDirty()} are tracked for checkpointing. Not thread-safe; slots are only valid until the
+ * next insert.
+ */
+final class AccountTable {
+  private static final AccountCurrency[] CURRENCIES = AccountCurrency.values();
+  private static final long NO_ID = 0;
+
+  private long[] ids;
+  private long[] balances;
+  private long[] owners;
+  private byte[] currencies;
+  private boolean[] dirty;
+  private int mask;
+  private int size;
+  private long[] dirtyIds = new long[64];
+  private int dirtyCount;
+
+  AccountTable(int expectedSize) {
+    allocate(Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1);
+  }
+
+  int size() {
+    return size;
+  }
+
+  /** Returns the slot of the account, or -1 when it is not in the table. */
+  int find(long accountId) {
+    for (int slot = hash(accountId) & mask; ; slot = (slot + 1) & mask) {
+      if (ids[slot] == accountId) {
+        return slot;
+      }
+      if (ids[slot] == NO_ID) {
+        return -1;
+      }
+    }
+  }
+
+  /** Adds the account unless it is already there; the existing entry wins. */
+  void putIfAbsent(long accountId, long ownerId, AccountCurrency currency, long balance) {
+    if (find(accountId) >= 0) {
+      return;
+    }
+    if ((size + 1) * 2 > ids.length) {
+      resize();
+    }
+    int slot = hash(accountId) & mask;
+    while (ids[slot] != NO_ID) {
+      slot = (slot + 1) & mask;
+    }
+    ids[slot] = accountId;
+    balances[slot] = balance;
+    owners[slot] = ownerId;
+    currencies[slot] = (byte) currency.ordinal();
+    size++;
+  }
+
+  long balance(int slot) {
+    return balances[slot];
+  }
+
+  long owner(int slot) {
+    return owners[slot];
+  }
+
+  AccountCurrency currency(int slot) {
+    return CURRENCIES[currencies[slot]];
+  }
+
+  void setBalance(int slot, long balance) {
+    balances[slot] = balance;
+    markDirty(slot);
+  }
+
+  void markDirty(long accountId) {
+    int slot = find(accountId);
+    if (slot >= 0) {
+      markDirty(slot);
+    }
+  }
+
+  /** Returns the ids of the accounts changed since the previous call and forgets them. */
+  long[] drainDirty() {
+    long[] drained = Arrays.copyOf(dirtyIds, dirtyCount);
+    for (long accountId : drained) {
+      dirty[find(accountId)] = false;
+    }
+    dirtyCount = 0;
+    return drained;
+  }
+
+  private void markDirty(int slot) {
+    if (dirty[slot]) {
+      return;
+    }
+    dirty[slot] = true;
+    if (dirtyCount == dirtyIds.length) {
+      dirtyIds = Arrays.copyOf(dirtyIds, dirtyCount * 2);
+    }
+    dirtyIds[dirtyCount++] = ids[slot];
+  }
+
+  private void resize() {
+    long[] oldIds = ids;
+    long[] oldBalances = balances;
+    long[] oldOwners = owners;
+    byte[] oldCurrencies = currencies;
+    boolean[] oldDirty = dirty;
+    allocate(oldIds.length * 2);
+    for (int oldSlot = 0; oldSlot < oldIds.length; oldSlot++) {
+      if (oldIds[oldSlot] == NO_ID) {
+        continue;
+      }
+      int slot = hash(oldIds[oldSlot]) & mask;
+      while (ids[slot] != NO_ID) {
+        slot = (slot + 1) & mask;
+      }
+      ids[slot] = oldIds[oldSlot];
+      balances[slot] = oldBalances[oldSlot];
+      owners[slot] = oldOwners[oldSlot];
+      currencies[slot] = oldCurrencies[oldSlot];
+      dirty[slot] = oldDirty[oldSlot];
+    }
+  }
+
+  private void allocate(int capacity) {
+    ids = new long[capacity];
+    balances = new long[capacity];
+    owners = new long[capacity];
+    currencies = new byte[capacity];
+    dirty = new boolean[capacity];
+    mask = capacity - 1;
+  }
+
+  private static int hash(long accountId) {
+    long mixed = accountId * 0x9E3779B97F4A7C15L;
+    return (int) (mixed ^ (mixed >>> 32));
+  }
+}
@@ -0,0 +1,643 @@
+package com.skypro.simplebanking.engine;
+
+import com.skypro.simplebanking.dto.AccountDTO;
+import com.skypro.simplebanking.dto.TransferRequest;
+import com.skypro.simplebanking.entity.Account;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.entity.BalanceEngineCheckpoint;
+import com.skypro.simplebanking.entity.LedgerEntry;
+import com.skypro.simplebanking.entity.LedgerEntryType;
+import com.skypro.simplebanking.exception.AccountNotFoundException;
+import com.skypro.simplebanking.exception.InsufficientFundsException;
+import com.skypro.simplebanking.exception.InvalidAmountException;
+import com.skypro.simplebanking.exception.WrongCurrencyException;
+import com.skypro.simplebanking.repository.BalanceEngineCheckpointRepository;
+import com.skypro.simplebanking.repository.LedgerEntryRepository;
+import com.skypro.simplebanking.service.ExchangeRates;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Optional in-memory owner of every account balance ({@code app.accounts.engine.enabled}). All
+ * changes run under one lock against an {@link AccountTable}: each is appended to the {@link
+ * WriteAheadLog} and applied to the table, so the next change builds on it, and is acknowledged
+ * once the log has been synced. Every {@code app.accounts.engine.checkpoint-interval-millis} the
+ * changed balances and their ledger entries are written to the database in one transaction
+ * together with the last sequence they cover, and the log segments before it are deleted. On
+ * startup the accounts table is loaded and the log is replayed from that sequence.
+ *
+ * <p>If a sync fails the engine stops: it rejects every further read and change and writes no
+ * more checkpoints, so no change that was not acknowledged reaches the database from this process.
+ * A change whose sync failed may still be in the log and be replayed on restart; as with any
+ * failed commit, the caller cannot know its outcome.
+ *
+ * <p>While enabled this node must be the only writer of balances, and the ledger and the database
+ * balances trail the engine by up to one checkpoint interval. A change is durable in the log before
+ * the surrounding database transaction commits, so a failed commit does not undo it. Queued
+ * transfers are therefore logged with their pending transfer id: one that is handed in again after
+ * its batch rolled back is reported as applied without moving money a second time, and the
+ * checkpoint that covers it marks it completed. Idempotency-Key records have no such link, which
+ * is why {@link com.skypro.simplebanking.service.IdempotencyService} refuses keys for balance
+ * changes while the engine is enabled.
+ */
+@Component
+public class BalanceEngine implements InitializingBean, DisposableBean {
+  private static final int CHECKPOINT_ID = 1;
+  private static final int FETCH_SIZE = 1000;
+  private static final Logger log = LoggerFactory.getLogger(BalanceEngine.class);
+  private static final String FOLD_SLOTS =
+      "UPDATE accounts SET amount = amount + (SELECT COALESCE(SUM(s.amount), 0)"
+          + " FROM account_balance_slots s WHERE s.account_id = accounts.id)"
+          + " WHERE id IN (SELECT account_id FROM account_balance_slots WHERE amount <> 0)";
+  private static final String CLEAR_SLOTS =
+      "UPDATE account_balance_slots SET amount = 0 WHERE amount <> 0";
+  private static final String LOAD_ACCOUNTS =
+      "SELECT id, user_id, account_currency, amount FROM accounts";
+  private static final String LOAD_ACCOUNT = LOAD_ACCOUNTS + " WHERE id = ?";
+  private static final String WRITE_BALANCE =
+      "UPDATE accounts SET amount = ?, version = version + 1 WHERE id = ?";
+  private static final String COMPLETE_PENDING_TRANSFER =
+      "UPDATE pending_transfers SET status = 'COMPLETED', processed_at = ?"
+          + " WHERE id = ? AND status = 'PENDING'";
+
+  private final boolean enabled;
+  private final JdbcTemplate jdbcTemplate;
+  private final LedgerEntryRepository ledgerEntryRepository;
+  private final BalanceEngineCheckpointRepository checkpointRepository;
+  private final ExchangeRates exchangeRates;
+  private final TransactionTemplate transactionTemplate;
+  private final Path walDirectory;
+  private final int segmentBytes;
+  private final Timer checkpoints;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final ReentrantLock checkpointLock = new ReentrantLock();
+  private final WalRecord record = new WalRecord();
+  private final AccountTable accounts = new AccountTable(1024);
+  private List<LedgerEntry> pendingEntries = new ArrayList<>();
+  // Queued transfers logged since the last checkpoint, which marks them completed.
+  private final Set<Long> appliedPendingTransfers = new HashSet<>();
+  private WriteAheadLog wal;
+  private long checkpointedSequence;
+  private volatile boolean failed;
+
+  public BalanceEngine(
+      @Value("${app.accounts.engine.enabled}") boolean enabled,
+      @Value("${app.accounts.engine.wal-directory}") String walDirectory,
+      @Value("${app.accounts.engine.wal-segment-size-mb}") int segmentSizeMb,
+      DataSource dataSource,
+      LedgerEntryRepository ledgerEntryRepository,
+      BalanceEngineCheckpointRepository checkpointRepository,
+      ExchangeRates exchangeRates,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry) {
+    this.enabled = enabled;
+    this.walDirectory = Path.of(walDirectory);
+    this.segmentBytes = segmentSizeMb << 20;
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+    this.ledgerEntryRepository = ledgerEntryRepository;
+    this.checkpointRepository = checkpointRepository;
+    this.exchangeRates = exchangeRates;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.checkpoints = meterRegistry.timer("banking.engine.checkpoint");
+    Gauge.builder("banking.engine.accounts", accounts, AccountTable::size)
+        .register(meterRegistry);
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  @Override
+  public void afterPropertiesSet() throws IOException {
+    if (!enabled) {
+      return;
+    }
+    // Hot-account slots are folded into the account rows; the engine has no use for them.
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          jdbcTemplate.update(FOLD_SLOTS);
+          jdbcTemplate.update(CLEAR_SLOTS);
+        });
+    checkpointedSequence =
+        checkpointRepository
+            .findById(CHECKPOINT_ID)
+            .map(BalanceEngineCheckpoint::getLastSequence)
+            .orElse(0L);
+    transactionTemplate.executeWithoutResult(
+        status ->
+            jdbcTemplate.query(
+                LOAD_ACCOUNTS,
+                rs -> {
+                  accounts.putIfAbsent(
+                      rs.getLong("id"),
+                      rs.getLong("user_id"),
+                      AccountCurrency.values()[rs.getInt("account_currency")],
+                      rs.getLong("amount"));
+                }));
+    wal = new WriteAheadLog(walDirectory, segmentBytes);
+    long lastSequence = wal.replay(checkpointedSequence, this::redo);
+    wal.start(lastSequence + 1);
+    log.info(
+        "Balance engine loaded {} accounts and replayed {} log records",
+        accounts.size(),
+        lastSequence - checkpointedSequence);
+  }
+
+  @Override
+  public void destroy() throws IOException {
+    if (!enabled) {
+      return;
+    }
+    checkpoint();
+    wal.close();
+  }
+
+  public AccountDTO getAccount(long userId, long accountId) {
+    ensureLoaded(accountId);
+    lock.lock();
+    try {
+      checkRunning();
+      int slot = ownedSlot(userId, accountId);
+      return new AccountDTO(accountId, accounts.balance(slot), accounts.currency(slot));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** The account with its balance as held by the engine. */
+  public AccountDTO describe(Account account) {
+    lock.lock();
+    try {
+      checkRunning();
+      int slot = accounts.find(account.getId());
+      return slot < 0
+          ? AccountDTO.from(account)
+          : new AccountDTO(account.getId(), accounts.balance(slot), accounts.currency(slot));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public AccountDTO deposit(long userId, long accountId, long amount) {
+    if (amount < 0) {
+      throw new InvalidAmountException();
+    }
+    ensureLoaded(accountId);
+    AccountDTO account;
+    long sequence;
+    lock.lock();
+    try {
+      checkRunning();
+      int slot = ownedSlot(userId, accountId);
+      long balance = Math.addExact(accounts.balance(slot), amount);
+      sequence = log(WalRecord.DEPOSIT, accountId, 0, 0, amount, balance, 0, 0);
+      accounts.setBalance(slot, balance);
+      account = new AccountDTO(accountId, balance, accounts.currency(slot));
+    } finally {
+      lock.unlock();
+    }
+    wal.awaitDurable(sequence);
+    return account;
+  }
+
+  public AccountDTO withdraw(long userId, long accountId, long amount) {
+    if (amount < 0) {
+      throw new InvalidAmountException();
+    }
+    ensureLoaded(accountId);
+    AccountDTO account;
+    long sequence;
+    lock.lock();
+    try {
+      checkRunning();
+      int slot = ownedSlot(userId, accountId);
+      if (accounts.balance(slot) < amount) {
+        throw new InsufficientFundsException(
+            "Cannot withdraw " + amount + " " + accounts.currency(slot).name());
+      }
+      long balance = accounts.balance(slot) - amount;
+      sequence = log(WalRecord.WITHDRAWAL, accountId, 0, amount, 0, balance, 0, 0);
+      accounts.setBalance(slot, balance);
+      account = new AccountDTO(accountId, balance, accounts.currency(slot));
+    } finally {
+      lock.unlock();
+    }
+    wal.awaitDurable(sequence);
+    return account;
+  }
+
+  /**
+   * Applies the transfers in order, transfer i on behalf of {@code senderIds[i]}. Returns the
+   * business failure of each transfer, or null where it was applied; with {@code allOrNothing}
+   * nothing is applied unless every transfer can be. Once they are durable, the applied ones are
+   * passed to {@code onApplied} in order.
+   *
+   * <p>{@code pendingTransferIds}, when given, are the queued transfers being applied. One that was
+   * already logged is reported as applied again but neither changes balances nor reaches {@code
+   * onApplied}.
+   */
+  public RuntimeException[] transfer(
+      long[] senderIds,
+      List<TransferRequest> transfers,
+      long[] pendingTransferIds,
+      boolean allOrNothing,
+      AppliedTransferHandler onApplied) {
+    for (TransferRequest transfer : transfers) {
+      ensureLoaded(transfer.getFromAccountId());
+      ensureLoaded(transfer.getToAccountId());
+    }
+    int count = transfers.size();
+    RuntimeException[] failures = new RuntimeException[count];
+    boolean[] repeated = new boolean[count];
+    long[] credited = new long[count];
+    long[] sourceBalances = new long[count];
+    long[] destinationBalances = new long[count];
+    AccountCurrency[] sourceCurrencies = new AccountCurrency[count];
+    AccountCurrency[] destinationCurrencies = new AccountCurrency[count];
+    long sequence = -1;
+    lock.lock();
+    try {
+      checkRunning();
+      Map<Long, Long> balances = new HashMap<>();
+      boolean rejected = false;
+      for (int index = 0; index < count; index++) {
+        TransferRequest transfer = transfers.get(index);
+        if (pendingTransferIds != null
+            && appliedPendingTransfers.contains(pendingTransferIds[index])) {
+          repeated[index] = true;
+          continue;
+        }
+        try {
+          credited[index] = plan(balances, senderIds[index], transfer);
+          sourceBalances[index] = balances.get(transfer.getFromAccountId());
+          destinationBalances[index] = balances.get(transfer.getToAccountId());
+          sourceCurrencies[index] = accounts.currency(accounts.find(transfer.getFromAccountId()));
+          destinationCurrencies[index] =
+              accounts.currency(accounts.find(transfer.getToAccountId()));
+        } catch (AccountNotFoundException
+            | InvalidAmountException
+            | WrongCurrencyException
+            | InsufficientFundsException e) {
+          failures[index] = e;
+          rejected = true;
+        }
+      }
+      if (rejected && allOrNothing) {
+        return failures;
+      }
+      for (int index = 0; index < count; index++) {
+        if (failures[index] == null && !repeated[index]) {
+          TransferRequest transfer = transfers.get(index);
+          sequence =
+              log(
+                  WalRecord.TRANSFER,
+                  transfer.getFromAccountId(),
+                  transfer.getToAccountId(),
+                  transfer.getAmount(),
+                  credited[index],
+                  sourceBalances[index],
+                  destinationBalances[index],
+                  pendingTransferIds == null ? 0 : pendingTransferIds[index]);
+        }
+      }
+      balances.forEach(
+          (accountId, balance) -> accounts.setBalance(accounts.find(accountId), balance));
+    } finally {
+      lock.unlock();
+    }
+    if (sequence >= 0) {
+      wal.awaitDurable(sequence);
+    }
+    for (int index = 0; index < count; index++) {
+      if (failures[index] == null && !repeated[index]) {
+        onApplied.applied(
+            index,
+            sourceCurrencies[index],
+            sourceBalances[index],
+            destinationCurrencies[index],
+            credited[index],
+            destinationBalances[index]);
+      }
+    }
+    return failures;
+  }
+
+  @Scheduled(fixedDelayString = "${app.accounts.engine.checkpoint-interval-millis}")
+  public void checkpoint() {
+    if (!enabled || stopped()) {
+      return;
+    }
+    checkpointLock.lock();
+    try {
+      checkpoints.record(this::writeCheckpoint);
+    } finally {
+      checkpointLock.unlock();
+    }
+  }
+
+  private void writeCheckpoint() {
+    long sequence;
+    long[] accountIds;
+    long[] balances;
+    List<LedgerEntry> entries;
+    Set<Long> completed;
+    List<Path> segments;
+    lock.lock();
+    try {
+      sequence = wal.lastSequence();
+      if (sequence == checkpointedSequence) {
+        return;
+      }
+      segments = wal.rotate();
+      accountIds = accounts.drainDirty();
+      balances = new long[accountIds.length];
+      for (int index = 0; index < accountIds.length; index++) {
+        balances[index] = accounts.balance(accounts.find(accountIds[index]));
+      }
+      entries = pendingEntries;
+      pendingEntries = new ArrayList<>();
+      completed = Set.copyOf(appliedPendingTransfers);
+    } catch (IOException e) {
+      failed = true;
+      log.error("Could not rotate the balance engine log, no longer accepting changes", e);
+      return;
+    } finally {
+      lock.unlock();
+    }
+    try {
+      transactionTemplate.executeWithoutResult(
+          status -> {
+            jdbcTemplate.batchUpdate(
+                WRITE_BALANCE,
+                new BatchPreparedStatementSetter() {
+                  @Override
+                  public void setValues(PreparedStatement statement, int index)
+                      throws SQLException {
+                    statement.setLong(1, balances[index]);
+                    statement.setLong(2, accountIds[index]);
+                  }
+
+                  @Override
+                  public int getBatchSize() {
+                    return accountIds.length;
+                  }
+                });
+            ledgerEntryRepository.saveAll(entries);
+            Timestamp processedAt = Timestamp.from(Instant.now());
+            jdbcTemplate.batchUpdate(
+                COMPLETE_PENDING_TRANSFER,
+                completed,
+                FETCH_SIZE,
+                (statement, pendingTransferId) -> {
+                  statement.setTimestamp(1, processedAt);
+                  statement.setLong(2, pendingTransferId);
+                });
+            BalanceEngineCheckpoint checkpoint = new BalanceEngineCheckpoint();
+            checkpoint.setId(CHECKPOINT_ID);
+            checkpoint.setLastSequence(sequence);
+            checkpoint.setCreatedAt(Instant.now());
+            checkpointRepository.save(checkpoint);
+          });
+    } catch (RuntimeException e) {
+      log.warn("Balance engine checkpoint failed, retrying with the next one", e);
+      entries.forEach(entry -> entry.setId(null));
+      lock.lock();
+      try {
+        for (long accountId : accountIds) {
+          accounts.markDirty(accountId);
+        }
+        entries.addAll(pendingEntries);
+        pendingEntries = entries;
+      } finally {
+        lock.unlock();
+      }
+      return;
+    }
+    lock.lock();
+    try {
+      checkpointedSequence = sequence;
+      // Their rows are no longer pending, so no worker hands them in again.
+      appliedPendingTransfers.removeAll(completed);
+      wal.delete(segments);
+    } catch (IOException e) {
+      log.warn("Could not delete checkpointed log segments", e);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private long plan(Map<Long, Long> balances, long senderId, TransferRequest transfer) {
+    long amount = transfer.getAmount();
+    if (amount < 0) {
+      throw new InvalidAmountException();
+    }
+    int source = ownedSlot(senderId, transfer.getFromAccountId());
+    int destination = ownedSlot(transfer.getToUserId(), transfer.getToAccountId());
+    long credited =
+        exchangeRates.convert(amount, accounts.currency(source), accounts.currency(destination));
+    long available =
+        balances.getOrDefault(transfer.getFromAccountId(), accounts.balance(source));
+    if (available < amount) {
+      throw new InsufficientFundsException(
+          "Cannot withdraw " + amount + " " + accounts.currency(source).name());
+    }
+    // A transfer to the source account itself is credited on top of the debit.
+    long destinationBalance =
+        transfer.getToAccountId() == transfer.getFromAccountId()
+            ? available - amount
+            : balances.getOrDefault(transfer.getToAccountId(), accounts.balance(destination));
+    if (destinationBalance > Long.MAX_VALUE - credited) {
+      throw new InvalidAmountException("Amount is too large for the destination account");
+    }
+    balances.put(transfer.getFromAccountId(), available - amount);
+    balances.put(transfer.getToAccountId(), destinationBalance + credited);
+    return credited;
+  }
+
+  private long log(
+      byte type,
+      long accountId,
+      long counterpartyAccountId,
+      long debited,
+      long credited,
+      long balance,
+      long counterpartyBalance,
+      long pendingTransferId) {
+    record.set(
+        type,
+        accountId,
+        counterpartyAccountId,
+        debited,
+        credited,
+        balance,
+        counterpartyBalance,
+        pendingTransferId);
+    record.timestampMicros = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+    long sequence;
+    try {
+      sequence = wal.append(record);
+    } catch (IOException | RuntimeException e) {
+      failed = true;
+      throw new IllegalStateException("Could not append to the balance engine log", e);
+    }
+    addLedgerEntries(record);
+    if (pendingTransferId != 0) {
+      appliedPendingTransfers.add(pendingTransferId);
+    }
+    return sequence;
+  }
+
+  private void redo(WalRecord replayed) {
+    setReplayedBalance(replayed.accountId, replayed.balance);
+    if (replayed.type == WalRecord.TRANSFER) {
+      setReplayedBalance(replayed.counterpartyAccountId, replayed.counterpartyBalance);
+    }
+    addLedgerEntries(replayed);
+    if (replayed.pendingTransferId != 0) {
+      appliedPendingTransfers.add(replayed.pendingTransferId);
+    }
+  }
+
+  private void setReplayedBalance(long accountId, long balance) {
+    int slot = accounts.find(accountId);
+    if (slot >= 0) {
+      accounts.setBalance(slot, balance);
+    }
+  }
+
+  private void addLedgerEntries(WalRecord change) {
+    Instant createdAt = Instant.EPOCH.plus(change.timestampMicros, ChronoUnit.MICROS);
+    switch (change.type) {
+      case WalRecord.DEPOSIT:
+        pendingEntries.add(
+            ledgerEntry(
+                change.accountId, change.credited, LedgerEntryType.DEPOSIT, null, createdAt));
+        break;
+      case WalRecord.WITHDRAWAL:
+        pendingEntries.add(
+            ledgerEntry(
+                change.accountId, -change.debited, LedgerEntryType.WITHDRAWAL, null, createdAt));
+        break;
+      default:
+        pendingEntries.add(
+            ledgerEntry(
+                change.accountId,
+                -change.debited,
+                LedgerEntryType.TRANSFER_OUT,
+                change.counterpartyAccountId,
+                createdAt));
+        pendingEntries.add(
+            ledgerEntry(
+                change.counterpartyAccountId,
+                change.credited,
+                LedgerEntryType.TRANSFER_IN,
+                change.accountId,
+                createdAt));
+    }
+  }
+
+  private static LedgerEntry ledgerEntry(
+      long accountId,
+      long amount,
+      LedgerEntryType type,
+      Long counterpartyAccountId,
+      Instant createdAt) {
+    LedgerEntry entry = new LedgerEntry();
+    entry.setAccountId(accountId);
+    entry.setAmount(amount);
+    entry.setType(type);
+    entry.setCounterpartyAccountId(counterpartyAccountId);
+    entry.setCreatedAt(createdAt);
+    return entry;
+  }
+
+  private int ownedSlot(long userId, long accountId) {
+    int slot = accounts.find(accountId);
+    if (slot < 0 || accounts.owner(slot) != userId) {
+      throw new AccountNotFoundException();
+    }
+    return slot;
+  }
+
+  /** Accounts created after startup are read from the database the first time they are used. */
+  private void ensureLoaded(long accountId) {
+    lock.lock();
+    try {
+      if (accounts.find(accountId) >= 0) {
+        return;
+      }
+    } finally {
+      lock.unlock();
+    }
+    jdbcTemplate.query(
+        LOAD_ACCOUNT,
+        rs -> {
+          lock.lock();
+          try {
+            accounts.putIfAbsent(
+                rs.getLong("id"),
+                rs.getLong("user_id"),
+                AccountCurrency.values()[rs.getInt("account_currency")],
+                rs.getLong("amount"));
+          } finally {
+            lock.unlock();
+          }
+        },
+        accountId);
+  }
+
+  private void checkRunning() {
+    if (stopped()) {
+      throw new IllegalStateException("Balance engine stopped after a write-ahead log failure");
+    }
+  }
+
+  private boolean stopped() {
+    if (!failed && wal.hasFailed()) {
+      failed = true;
+      log.error("Balance engine log sync failed, no longer accepting changes");
+    }
+    return failed;
+  }
+
+  /** Receives a transfer applied by {@link #transfer}, with the balances it left behind. */
+  @FunctionalInterface
+  public interface AppliedTransferHandler {
+    void applied(
+        int index,
+        AccountCurrency sourceCurrency,
+        long sourceBalance,
+        AccountCurrency destinationCurrency,
+        long credited,
+        long destinationBalance);
+  }
+}
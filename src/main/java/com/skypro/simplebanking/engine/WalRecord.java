@@ -0,0 +1,44 @@
+package com.skypro.simplebanking.engine;
+
+/**
+ * One balance change as written to the {@link WriteAheadLog}: what happened, for the ledger, and
+ * the resulting balances, so replay only has to set them. Mutable and reused to keep the write
+ * path free of allocations.
+ */
+final class WalRecord {
+  static final byte DEPOSIT = 1;
+  static final byte WITHDRAWAL = 2;
+  static final byte TRANSFER = 3;
+
+  long sequence;
+  long timestampMicros;
+  byte type;
+  long accountId;
+  long counterpartyAccountId;
+  long debited;
+  long credited;
+  long balance;
+  long counterpartyBalance;
+  /** The queued transfer a TRANSFER applies, or 0. */
+  long pendingTransferId;
+
+  WalRecord set(
+      byte type,
+      long accountId,
+      long counterpartyAccountId,
+      long debited,
+      long credited,
+      long balance,
+      long counterpartyBalance,
+      long pendingTransferId) {
+    this.type = type;
+    this.accountId = accountId;
+    this.counterpartyAccountId = counterpartyAccountId;
+    this.debited = debited;
+    this.credited = credited;
+    this.balance = balance;
+    this.counterpartyBalance = counterpartyBalance;
+    this.pendingTransferId = pendingTransferId;
+    return this;
+  }
+}
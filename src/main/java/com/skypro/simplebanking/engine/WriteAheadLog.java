@@ -0,0 +1,323 @@
+package com.skypro.simplebanking.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of fixed-size {@link WalRecord}s in memory-mapped segment files named after
+ * their first sequence. Appending only copies bytes into the mapping; a flusher thread forces the
+ * segment to disk and every record appended before the force started becomes durable at once, so
+ * concurrent writers share one sync (group commit). A segment is rotated once full or for a
+ * checkpoint, so replay reads each one up to its first missing or damaged record and stops at the
+ * first break in the sequence, since nothing after it was ever acknowledged. A failed sync fails
+ * the log for good: no record appended after the last successful sync is acknowledged any more.
+ *
+ * <p>{@link #append}, {@link #rotate} and {@link #start} must be called by one thread at a time.
+ */
+final class WriteAheadLog implements Closeable {
+  static final int RECORD_SIZE = 81;
+
+  private static final int MAGIC = 0x57414C32;
+  private static final int CHECKSUMMED_BYTES = RECORD_SIZE - Integer.BYTES;
+  private static final String PREFIX = "wal-";
+  private static final String SUFFIX = ".log";
+
+  private final Path directory;
+  private final int segmentBytes;
+  private final ByteBuffer scratch = ByteBuffer.allocate(RECORD_SIZE);
+  private final CRC32 crc = new CRC32();
+  private final List<Path> closedSegments = new ArrayList<>();
+  private final ReentrantLock flushLock = new ReentrantLock();
+  private final Condition appendedCondition = flushLock.newCondition();
+  private final Condition durableCondition = flushLock.newCondition();
+  private final Thread flusher = new Thread(this::flush, "balance-engine-wal-flusher");
+  private FileChannel channel;
+  private Path currentPath;
+  private MappedByteBuffer segment;
+  private long nextSequence;
+  private long appended;
+  private long durable;
+  private volatile Throwable failure;
+  private volatile boolean closed;
+
+  WriteAheadLog(Path directory, int segmentBytes) throws IOException {
+    this.directory = Files.createDirectories(directory);
+    this.segmentBytes = Math.max(RECORD_SIZE, segmentBytes - segmentBytes % RECORD_SIZE);
+    flusher.setDaemon(true);
+  }
+
+  /**
+   * Hands every valid record with a sequence above {@code afterSequence} to {@code handler}, in
+   * order, and returns the highest sequence found. The segments read are deleted by the next
+   * {@link #rotate()} caller once they are covered by a checkpoint.
+   */
+  long replay(long afterSequence, Consumer<WalRecord> handler) throws IOException {
+    WalRecord record = new WalRecord();
+    long lastSequence = afterSequence;
+    long previous = -1;
+    for (Path path : existingSegments()) {
+      closedSegments.add(path);
+      try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+        ByteBuffer buffer = file.map(FileChannel.MapMode.READ_ONLY, 0, file.size());
+        while (buffer.remaining() >= RECORD_SIZE && read(buffer, record)) {
+          if (previous >= 0 && record.sequence != previous + 1) {
+            return lastSequence;
+          }
+          previous = record.sequence;
+          if (record.sequence > afterSequence) {
+            handler.accept(record);
+            lastSequence = record.sequence;
+          }
+        }
+      }
+    }
+    return lastSequence;
+  }
+
+  /** Opens a fresh segment whose first record gets {@code firstSequence}, and starts syncing. */
+  void start(long firstSequence) throws IOException {
+    nextSequence = firstSequence;
+    appended = firstSequence - 1;
+    durable = firstSequence - 1;
+    openSegment();
+    flusher.start();
+  }
+
+  /** Writes the record, assigning it the next sequence, and returns that sequence. */
+  long append(WalRecord record) throws IOException {
+    if (segment.remaining() < RECORD_SIZE) {
+      rotate();
+    }
+    record.sequence = nextSequence++;
+    scratch.clear();
+    scratch
+        .putInt(MAGIC)
+        .putLong(record.sequence)
+        .putLong(record.timestampMicros)
+        .put(record.type)
+        .putLong(record.accountId)
+        .putLong(record.counterpartyAccountId)
+        .putLong(record.debited)
+        .putLong(record.credited)
+        .putLong(record.balance)
+        .putLong(record.counterpartyBalance)
+        .putLong(record.pendingTransferId);
+    crc.reset();
+    crc.update(scratch.array(), 0, CHECKSUMMED_BYTES);
+    scratch.putInt((int) crc.getValue());
+    segment.put(scratch.array(), 0, RECORD_SIZE);
+    flushLock.lock();
+    try {
+      appended = record.sequence;
+      appendedCondition.signal();
+    } finally {
+      flushLock.unlock();
+    }
+    return record.sequence;
+  }
+
+  /** Blocks until the record with {@code sequence} has been forced to disk. */
+  void awaitDurable(long sequence) {
+    flushLock.lock();
+    try {
+      while (durable < sequence) {
+        if (failure != null) {
+          throw new IllegalStateException("Write-ahead log sync failed", failure);
+        }
+        durableCondition.await();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for the write-ahead log", e);
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  /**
+   * Forces and closes the current segment and continues in a new one. Returns the segments that
+   * now hold only records below the next sequence, for deletion once those are checkpointed.
+   */
+  List<Path> rotate() throws IOException {
+    MappedByteBuffer previous = segment;
+    long previousSequence = nextSequence - 1;
+    try {
+      previous.force();
+    } catch (RuntimeException e) {
+      fail(e);
+      throw new IOException("Could not sync the write-ahead log", e);
+    }
+    flushLock.lock();
+    try {
+      // Writers already told that their sync failed must not see their records turn durable.
+      if (failure != null) {
+        throw new IOException("Write-ahead log sync failed", failure);
+      }
+      durable = Math.max(durable, previousSequence);
+      durableCondition.signalAll();
+    } finally {
+      flushLock.unlock();
+    }
+    channel.close();
+    openSegment();
+    return List.copyOf(closedSegments);
+  }
+
+  /** Whether a sync has failed; nothing appended since then is ever acknowledged. */
+  boolean hasFailed() {
+    return failure != null;
+  }
+
+  long lastSequence() {
+    return nextSequence - 1;
+  }
+
+  void delete(List<Path> segments) throws IOException {
+    for (Path path : segments) {
+      Files.deleteIfExists(path);
+      closedSegments.remove(path);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    flusher.interrupt();
+    if (segment != null) {
+      segment.force();
+      channel.close();
+    }
+  }
+
+  private void openSegment() throws IOException {
+    Path path = directory.resolve(String.format("%s%019d%s", PREFIX, nextSequence, SUFFIX));
+    // A segment of that name can only exist if it holds no valid record, so it is reused.
+    FileChannel opened =
+        FileChannel.open(
+            path,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+    MappedByteBuffer mapped;
+    try {
+      mapped = opened.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+      // Forcing the mapping only writes its pages: the file's new size and its directory entry
+      // have to be durable before any record in it is acknowledged, or a crash loses the segment.
+      opened.force(true);
+      try (FileChannel parent = FileChannel.open(directory, StandardOpenOption.READ)) {
+        parent.force(true);
+      }
+    } catch (IOException | RuntimeException e) {
+      opened.close();
+      throw e;
+    }
+    closedSegments.remove(path);
+    if (channel != null) {
+      closedSegments.add(currentPath);
+    }
+    channel = opened;
+    currentPath = path;
+    flushLock.lock();
+    try {
+      segment = mapped;
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  private void flush() {
+    while (!closed) {
+      MappedByteBuffer target;
+      long sequence;
+      flushLock.lock();
+      try {
+        while (appended == durable) {
+          appendedCondition.await();
+        }
+        target = segment;
+        sequence = appended;
+      } catch (InterruptedException e) {
+        return;
+      } finally {
+        flushLock.unlock();
+      }
+      try {
+        target.force();
+      } catch (RuntimeException e) {
+        fail(e);
+        return;
+      }
+      flushLock.lock();
+      try {
+        if (failure == null) {
+          durable = Math.max(durable, sequence);
+        }
+        durableCondition.signalAll();
+      } finally {
+        flushLock.unlock();
+      }
+    }
+  }
+
+  /** Fails the log as a failed sync does. */
+  void fail(Throwable error) {
+    flushLock.lock();
+    try {
+      if (failure == null) {
+        failure = error;
+      }
+      durableCondition.signalAll();
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  private boolean read(ByteBuffer buffer, WalRecord record) {
+    int start = buffer.position();
+    if (buffer.getInt() != MAGIC) {
+      return false;
+    }
+    record.sequence = buffer.getLong();
+    record.timestampMicros = buffer.getLong();
+    record.type = buffer.get();
+    record.accountId = buffer.getLong();
+    record.counterpartyAccountId = buffer.getLong();
+    record.debited = buffer.getLong();
+    record.credited = buffer.getLong();
+    record.balance = buffer.getLong();
+    record.counterpartyBalance = buffer.getLong();
+    record.pendingTransferId = buffer.getLong();
+    int checksum = buffer.getInt();
+    crc.reset();
+    crc.update(buffer.slice(start, CHECKSUMMED_BYTES));
+    return checksum == (int) crc.getValue();
+  }
+
+  private List<Path> existingSegments() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files
+          .filter(
+              path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+              })
+          .sorted()
+          .collect(Collectors.toList());
+    }
+  }
+}
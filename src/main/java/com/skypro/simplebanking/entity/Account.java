@@ -5,15 +5,26 @@ import javax.persistence.*;
 @Entity
 @Table(name = "accounts")
 public class Account {
+  /** Ids handed out per sequence call, here and by bulk provisioning. */
+  public static final int ID_ALLOCATION_SIZE = 500;
+  /** Balance every account starts with; it has no ledger entry. */
+  public static final long INITIAL_AMOUNT = 1L;
+
   @Id
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account-sequence")
-  @SequenceGenerator(name = "account-sequence", sequenceName = "account_sequence")
+  @SequenceGenerator(
+      name = "account-sequence",
+      sequenceName = "account_sequence",
+      allocationSize = ID_ALLOCATION_SIZE)
   private Long id;
 
   private AccountCurrency accountCurrency;
   private Long amount;
 
-  @ManyToOne(optional = false)
+  @Version
+  private Long version;
+
+  @ManyToOne(optional = false, fetch = FetchType.LAZY)
   @JoinColumn(nullable = false, updatable = false, name = "user_id")
   private User user;
 
@@ -41,6 +52,14 @@ public class Account {
     this.amount = amount;
   }
 
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setVersion(Long version) {
+    this.version = version;
+  }
+
   public User getUser() {
     return user;
   }
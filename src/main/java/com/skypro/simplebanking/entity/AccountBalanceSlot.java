@@ -0,0 +1,57 @@
+package com.skypro.simplebanking.entity;
+
+import javax.persistence.*;
+
+@Entity
+@Table(
+    name = "account_balance_slots",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"account_id", "slot"}))
+public class AccountBalanceSlot {
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account-balance-slot-sequence")
+  @SequenceGenerator(
+      name = "account-balance-slot-sequence",
+      sequenceName = "account_balance_slot_sequence")
+  private Long id;
+
+  @Column(name = "account_id", nullable = false, updatable = false)
+  private Long accountId;
+
+  @Column(nullable = false, updatable = false)
+  private int slot;
+
+  @Column(nullable = false)
+  private Long amount;
+
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public Long getAccountId() {
+    return accountId;
+  }
+
+  public void setAccountId(Long accountId) {
+    this.accountId = accountId;
+  }
+
+  public int getSlot() {
+    return slot;
+  }
+
+  public void setSlot(int slot) {
+    this.slot = slot;
+  }
+
+  public Long getAmount() {
+    return amount;
+  }
+
+  public void setAmount(Long amount) {
+    this.amount = amount;
+  }
+}
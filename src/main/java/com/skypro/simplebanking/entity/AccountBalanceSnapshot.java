@@ -0,0 +1,76 @@
+package com.skypro.simplebanking.entity;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+import javax.persistence.*;
+
+/** Balance of an account including every ledger entry created at or before {@code takenAt}. */
+@Entity
+@IdClass(AccountBalanceSnapshot.Key.class)
+@Table(name = "account_balance_snapshots")
+public class AccountBalanceSnapshot {
+  @Id
+  @Column(name = "account_id", nullable = false, updatable = false)
+  private Long accountId;
+
+  @Id
+  @Column(name = "taken_at", nullable = false, updatable = false)
+  private Instant takenAt;
+
+  @Column(nullable = false, updatable = false)
+  private Long balance;
+
+  public Long getAccountId() {
+    return accountId;
+  }
+
+  public void setAccountId(Long accountId) {
+    this.accountId = accountId;
+  }
+
+  public Instant getTakenAt() {
+    return takenAt;
+  }
+
+  public void setTakenAt(Instant takenAt) {
+    this.takenAt = takenAt;
+  }
+
+  public Long getBalance() {
+    return balance;
+  }
+
+  public void setBalance(Long balance) {
+    this.balance = balance;
+  }
+
+  public static class Key implements Serializable {
+    private Long accountId;
+    private Instant takenAt;
+
+    public Key() {}
+
+    public Key(Long accountId, Instant takenAt) {
+      this.accountId = accountId;
+      this.takenAt = takenAt;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (this == other) {
+        return true;
+      }
+      if (!(other instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) other;
+      return Objects.equals(accountId, key.accountId) && Objects.equals(takenAt, key.takenAt);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(accountId, takenAt);
+    }
+  }
+}
@@ -0,0 +1,30 @@
+package com.skypro.simplebanking.entity;
+
+import java.time.Instant;
+import javax.persistence.*;
+
+/** Point up to which ledger entries have been folded into balance snapshots. */
+@Entity
+@Table(name = "account_snapshot_progress")
+public class AccountSnapshotProgress {
+  @Id private Integer id;
+
+  @Column(name = "taken_until", nullable = false)
+  private Instant takenUntil;
+
+  public Integer getId() {
+    return id;
+  }
+
+  public void setId(Integer id) {
+    this.id = id;
+  }
+
+  public Instant getTakenUntil() {
+    return takenUntil;
+  }
+
+  public void setTakenUntil(Instant takenUntil) {
+    this.takenUntil = takenUntil;
+  }
+}
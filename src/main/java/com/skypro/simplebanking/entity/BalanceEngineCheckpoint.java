@@ -0,0 +1,41 @@
+package com.skypro.simplebanking.entity;
+
+import java.time.Instant;
+import javax.persistence.*;
+
+/** Last write-ahead log sequence whose effects are in the accounts and ledger tables. */
+@Entity
+@Table(name = "balance_engine_checkpoints")
+public class BalanceEngineCheckpoint {
+  @Id private Integer id;
+
+  @Column(name = "last_sequence", nullable = false)
+  private Long lastSequence;
+
+  @Column(name = "created_at", nullable = false)
+  private Instant createdAt;
+
+  public Integer getId() {
+    return id;
+  }
+
+  public void setId(Integer id) {
+    this.id = id;
+  }
+
+  public Long getLastSequence() {
+    return lastSequence;
+  }
+
+  public void setLastSequence(Long lastSequence) {
+    this.lastSequence = lastSequence;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+
+  public void setCreatedAt(Instant createdAt) {
+    this.createdAt = createdAt;
+  }
+}
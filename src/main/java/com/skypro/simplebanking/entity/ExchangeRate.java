@@ -0,0 +1,58 @@
+package com.skypro.simplebanking.entity;
+
+import javax.persistence.*;
+
+/** Units of the target currency per unit of the source currency, scaled by 1 000 000. */
+@Entity
+@Table(
+    name = "exchange_rates",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"source_currency", "target_currency"}))
+public class ExchangeRate {
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "exchange-rate-sequence")
+  @SequenceGenerator(name = "exchange-rate-sequence", sequenceName = "exchange_rate_sequence")
+  private Long id;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "source_currency", nullable = false)
+  private AccountCurrency sourceCurrency;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "target_currency", nullable = false)
+  private AccountCurrency targetCurrency;
+
+  @Column(name = "rate_micros", nullable = false)
+  private Long rateMicros;
+
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public AccountCurrency getSourceCurrency() {
+    return sourceCurrency;
+  }
+
+  public void setSourceCurrency(AccountCurrency sourceCurrency) {
+    this.sourceCurrency = sourceCurrency;
+  }
+
+  public AccountCurrency getTargetCurrency() {
+    return targetCurrency;
+  }
+
+  public void setTargetCurrency(AccountCurrency targetCurrency) {
+    this.targetCurrency = targetCurrency;
+  }
+
+  public Long getRateMicros() {
+    return rateMicros;
+  }
+
+  public void setRateMicros(Long rateMicros) {
+    this.rateMicros = rateMicros;
+  }
+}
@@ -0,0 +1,83 @@
+package com.skypro.simplebanking.entity;
+
+import java.time.Instant;
+import javax.persistence.*;
+
+@Entity
+@Table(
+    name = "idempotency_records",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "idempotency_key"}),
+    indexes = @Index(columnList = "created_at"))
+public class IdempotencyRecord {
+  public static final int MAX_KEY_LENGTH = 255;
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "idempotency-record-sequence")
+  @SequenceGenerator(
+      name = "idempotency-record-sequence",
+      sequenceName = "idempotency_record_sequence")
+  private Long id;
+
+  @Column(name = "user_id", nullable = false)
+  private Long userId;
+
+  @Column(name = "idempotency_key", nullable = false, length = MAX_KEY_LENGTH)
+  private String idempotencyKey;
+
+  @Column(nullable = false, length = 64)
+  private String fingerprint;
+
+  @Column(columnDefinition = "text")
+  private String response;
+
+  @Column(name = "created_at", nullable = false)
+  private Instant createdAt;
+
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public Long getUserId() {
+    return userId;
+  }
+
+  public void setUserId(Long userId) {
+    this.userId = userId;
+  }
+
+  public String getIdempotencyKey() {
+    return idempotencyKey;
+  }
+
+  public void setIdempotencyKey(String idempotencyKey) {
+    this.idempotencyKey = idempotencyKey;
+  }
+
+  public String getFingerprint() {
+    return fingerprint;
+  }
+
+  public void setFingerprint(String fingerprint) {
+    this.fingerprint = fingerprint;
+  }
+
+  public String getResponse() {
+    return response;
+  }
+
+  public void setResponse(String response) {
+    this.response = response;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+
+  public void setCreatedAt(Instant createdAt) {
+    this.createdAt = createdAt;
+  }
+}
@@ -0,0 +1,85 @@
+package com.skypro.simplebanking.entity;
+
+import java.time.Instant;
+import javax.persistence.*;
+
+@Entity
+@Table(
+    name = "ledger_entries",
+    indexes = {
+      @Index(name = "ledger_entries_account_id_id_idx", columnList = "account_id, id"),
+      @Index(
+          name = "ledger_entries_account_id_created_at_idx",
+          columnList = "account_id, created_at"),
+      @Index(name = "ledger_entries_created_at_idx", columnList = "created_at")
+    })
+public class LedgerEntry {
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger-entry-sequence")
+  @SequenceGenerator(name = "ledger-entry-sequence", sequenceName = "ledger_entry_sequence")
+  private Long id;
+
+  @Column(name = "account_id", nullable = false, updatable = false)
+  private Long accountId;
+
+  @Column(nullable = false, updatable = false)
+  private Long amount;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, updatable = false)
+  private LedgerEntryType type;
+
+  @Column(name = "counterparty_account_id", updatable = false)
+  private Long counterpartyAccountId;
+
+  @Column(name = "created_at", nullable = false, updatable = false)
+  private Instant createdAt;
+
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public Long getAccountId() {
+    return accountId;
+  }
+
+  public void setAccountId(Long accountId) {
+    this.accountId = accountId;
+  }
+
+  public Long getAmount() {
+    return amount;
+  }
+
+  public void setAmount(Long amount) {
+    this.amount = amount;
+  }
+
+  public LedgerEntryType getType() {
+    return type;
+  }
+
+  public void setType(LedgerEntryType type) {
+    this.type = type;
+  }
+
+  public Long getCounterpartyAccountId() {
+    return counterpartyAccountId;
+  }
+
+  public void setCounterpartyAccountId(Long counterpartyAccountId) {
+    this.counterpartyAccountId = counterpartyAccountId;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+
+  public void setCreatedAt(Instant createdAt) {
+    this.createdAt = createdAt;
+  }
+}
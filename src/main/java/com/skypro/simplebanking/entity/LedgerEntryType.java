@@ -0,0 +1,8 @@
+package com.skypro.simplebanking.entity;
+
+public enum LedgerEntryType {
+  DEPOSIT,
+  WITHDRAWAL,
+  TRANSFER_IN,
+  TRANSFER_OUT
+}
@@ -0,0 +1,126 @@
+package com.skypro.simplebanking.entity;
+
+import java.time.Instant;
+import javax.persistence.*;
+
+@Entity
+@Table(
+    name = "pending_transfers",
+    indexes = {
+      @Index(name = "pending_transfers_status_id_idx", columnList = "status, id"),
+      @Index(name = "pending_transfers_processed_at_idx", columnList = "processed_at")
+    })
+public class PendingTransfer {
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pending-transfer-sequence")
+  @SequenceGenerator(name = "pending-transfer-sequence", sequenceName = "pending_transfer_sequence")
+  private Long id;
+
+  @Column(name = "user_id", nullable = false, updatable = false)
+  private Long userId;
+
+  @Column(name = "from_account_id", nullable = false, updatable = false)
+  private Long fromAccountId;
+
+  @Column(name = "to_user_id", nullable = false, updatable = false)
+  private Long toUserId;
+
+  @Column(name = "to_account_id", nullable = false, updatable = false)
+  private Long toAccountId;
+
+  @Column(nullable = false, updatable = false)
+  private Long amount;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private PendingTransferStatus status;
+
+  @Column(name = "failure_reason")
+  private String failureReason;
+
+  @Column(name = "created_at", nullable = false, updatable = false)
+  private Instant createdAt;
+
+  @Column(name = "processed_at")
+  private Instant processedAt;
+
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public Long getUserId() {
+    return userId;
+  }
+
+  public void setUserId(Long userId) {
+    this.userId = userId;
+  }
+
+  public Long getFromAccountId() {
+    return fromAccountId;
+  }
+
+  public void setFromAccountId(Long fromAccountId) {
+    this.fromAccountId = fromAccountId;
+  }
+
+  public Long getToUserId() {
+    return toUserId;
+  }
+
+  public void setToUserId(Long toUserId) {
+    this.toUserId = toUserId;
+  }
+
+  public Long getToAccountId() {
+    return toAccountId;
+  }
+
+  public void setToAccountId(Long toAccountId) {
+    this.toAccountId = toAccountId;
+  }
+
+  public Long getAmount() {
+    return amount;
+  }
+
+  public void setAmount(Long amount) {
+    this.amount = amount;
+  }
+
+  public PendingTransferStatus getStatus() {
+    return status;
+  }
+
+  public void setStatus(PendingTransferStatus status) {
+    this.status = status;
+  }
+
+  public String getFailureReason() {
+    return failureReason;
+  }
+
+  public void setFailureReason(String failureReason) {
+    this.failureReason = failureReason;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+
+  public void setCreatedAt(Instant createdAt) {
+    this.createdAt = createdAt;
+  }
+
+  public Instant getProcessedAt() {
+    return processedAt;
+  }
+
+  public void setProcessedAt(Instant processedAt) {
+    this.processedAt = processedAt;
+  }
+}
@@ -0,0 +1,9 @@
+package com.skypro.simplebanking.entity;
+
+public enum PendingTransferStatus {
+  PENDING,
+  COMPLETED,
+  REJECTED,
+  /** Could not be applied for a reason other than the transfer itself being invalid. */
+  FAILED
+}
@@ -1,16 +1,26 @@
 package com.skypro.simplebanking.entity;
 
+import com.skypro.simplebanking.configuration.UserCredentialsListener;
 import javax.persistence.*;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
 @Entity
-@Table(name = "users")
+@Table(
+    name = "users",
+    uniqueConstraints = @UniqueConstraint(name = "users_username_key", columnNames = "username"))
+@EntityListeners(UserCredentialsListener.class)
 public class User {
+  /** Ids handed out per sequence call, here and by bulk provisioning. */
+  public static final int ID_ALLOCATION_SIZE = 500;
+
   @Id
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user-generator")
-  @SequenceGenerator(name = "user-generator", sequenceName = "user_sequence")
+  @SequenceGenerator(
+      name = "user-generator",
+      sequenceName = "user_sequence",
+      allocationSize = ID_ALLOCATION_SIZE)
   private Long id;
   private String username;
   private String password;
@@ -0,0 +1,27 @@
+package com.skypro.simplebanking.event;
+
+import com.skypro.simplebanking.entity.LedgerEntryType;
+
+public class AccountBalanceChangedEvent {
+  private final long accountId;
+  private final long amount;
+  private final LedgerEntryType type;
+
+  public AccountBalanceChangedEvent(long accountId, long amount, LedgerEntryType type) {
+    this.accountId = accountId;
+    this.amount = amount;
+    this.type = type;
+  }
+
+  public long getAccountId() {
+    return accountId;
+  }
+
+  public long getAmount() {
+    return amount;
+  }
+
+  public LedgerEntryType getType() {
+    return type;
+  }
+}
@@ -0,0 +1,13 @@
+package com.skypro.simplebanking.event;
+
+public class UserCredentialsChangedEvent {
+  private final String username;
+
+  public UserCredentialsChangedEvent(String username) {
+    this.username = username;
+  }
+
+  public String getUsername() {
+    return username;
+  }
+}
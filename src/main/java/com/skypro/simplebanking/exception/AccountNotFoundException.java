@@ -1,3 +1,7 @@
 package com.skypro.simplebanking.exception;
 
-public class AccountNotFoundException extends RuntimeException {}
+public class AccountNotFoundException extends RuntimeException {
+  public AccountNotFoundException() {
+    super("Account not found");
+  }
+}
@@ -0,0 +1,17 @@
+package com.skypro.simplebanking.exception;
+
+import com.skypro.simplebanking.dto.BatchTransferResultDTO;
+
+/** An all-or-nothing batch with an invalid transfer, so none of its transfers was applied. */
+public class BatchTransferRejectedException extends RuntimeException {
+  private final BatchTransferResultDTO result;
+
+  public BatchTransferRejectedException(BatchTransferResultDTO result) {
+    super("Batch was not applied: " + result.getRejected() + " transfers were rejected");
+    this.result = result;
+  }
+
+  public BatchTransferResultDTO getResult() {
+    return result;
+  }
+}
@@ -0,0 +1,7 @@
+package com.skypro.simplebanking.exception;
+
+public class IdempotencyKeyConflictException extends RuntimeException {
+  public IdempotencyKeyConflictException(String message) {
+    super(message);
+  }
+}
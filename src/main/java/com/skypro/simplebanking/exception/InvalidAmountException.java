@@ -1,3 +1,11 @@
 package com.skypro.simplebanking.exception;
 
-public class InvalidAmountException extends RuntimeException {}
+public class InvalidAmountException extends RuntimeException {
+  public InvalidAmountException() {
+    super("Amount should be more than 0");
+  }
+
+  public InvalidAmountException(String message) {
+    super(message);
+  }
+}
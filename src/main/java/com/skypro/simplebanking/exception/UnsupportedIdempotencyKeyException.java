@@ -0,0 +1,7 @@
+package com.skypro.simplebanking.exception;
+
+public class UnsupportedIdempotencyKeyException extends RuntimeException {
+  public UnsupportedIdempotencyKeyException(String message) {
+    super(message);
+  }
+}
@@ -1,3 +1,11 @@
 package com.skypro.simplebanking.exception;
 
-public class WrongCurrencyException extends RuntimeException{}
+public class WrongCurrencyException extends RuntimeException {
+  public WrongCurrencyException() {
+    super("Account currencies should be same");
+  }
+
+  public WrongCurrencyException(String message) {
+    super(message);
+  }
+}
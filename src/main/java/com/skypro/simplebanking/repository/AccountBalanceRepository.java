@@ -0,0 +1,18 @@
+package com.skypro.simplebanking.repository;
+
+import com.skypro.simplebanking.dto.AccountDTO;
+import java.util.Optional;
+
+public interface AccountBalanceRepository {
+  /**
+   * Adds {@code amount} to the account in a single UPDATE and returns the resulting state, or an
+   * empty result if the user has no such account.
+   */
+  Optional<AccountDTO> addToBalance(long userId, long accountId, long amount);
+
+  /**
+   * Subtracts {@code amount} in a single UPDATE guarded by {@code amount >= :amount}. An empty
+   * result means either that the account does not exist or that its balance is too low.
+   */
+  Optional<AccountDTO> subtractFromBalance(long userId, long accountId, long amount);
+}
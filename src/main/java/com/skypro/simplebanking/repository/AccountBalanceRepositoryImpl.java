@@ -0,0 +1,82 @@
+package com.skypro.simplebanking.repository;
+
+import com.skypro.simplebanking.dto.AccountDTO;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import java.sql.DatabaseMetaData;
+import java.util.List;
+import java.util.Optional;
+import javax.sql.DataSource;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+public class AccountBalanceRepositoryImpl implements AccountBalanceRepository {
+  private static final String ADD =
+      "UPDATE accounts SET amount = amount + :amount, version = version + 1"
+          + " WHERE id = :accountId AND user_id = :userId";
+  private static final String SUBTRACT =
+      "UPDATE accounts SET amount = amount - :amount, version = version + 1"
+          + " WHERE id = :accountId AND user_id = :userId AND amount >= :amount";
+  private static final String RETURNING = " RETURNING id, amount, account_currency";
+  private static final String SELECT =
+      "SELECT id, amount, account_currency FROM accounts WHERE id = :accountId";
+  private static final RowMapper<AccountDTO> ACCOUNT_MAPPER =
+      (rs, rowNum) ->
+          new AccountDTO(
+              rs.getLong("id"),
+              rs.getLong("amount"),
+              AccountCurrency.values()[rs.getInt("account_currency")]);
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+  private final DataSource dataSource;
+  private volatile Boolean supportsReturning;
+
+  public AccountBalanceRepositoryImpl(
+      NamedParameterJdbcTemplate jdbcTemplate, DataSource dataSource) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.dataSource = dataSource;
+  }
+
+  @Override
+  public Optional<AccountDTO> addToBalance(long userId, long accountId, long amount) {
+    return update(ADD, userId, accountId, amount);
+  }
+
+  @Override
+  public Optional<AccountDTO> subtractFromBalance(long userId, long accountId, long amount) {
+    return update(SUBTRACT, userId, accountId, amount);
+  }
+
+  private Optional<AccountDTO> update(String sql, long userId, long accountId, long amount) {
+    MapSqlParameterSource parameters =
+        new MapSqlParameterSource()
+            .addValue("userId", userId)
+            .addValue("accountId", accountId)
+            .addValue("amount", amount);
+    if (supportsReturning()) {
+      List<AccountDTO> updated = jdbcTemplate.query(sql + RETURNING, parameters, ACCOUNT_MAPPER);
+      return updated.stream().findFirst();
+    }
+    if (jdbcTemplate.update(sql, parameters) == 0) {
+      return Optional.empty();
+    }
+    return jdbcTemplate.query(SELECT, parameters, ACCOUNT_MAPPER).stream().findFirst();
+  }
+
+  private boolean supportsReturning() {
+    Boolean supported = supportsReturning;
+    if (supported == null) {
+      try {
+        String product =
+            JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        supported = "PostgreSQL".equals(product);
+      } catch (MetaDataAccessException e) {
+        supported = false;
+      }
+      supportsReturning = supported;
+    }
+    return supported;
+  }
+}
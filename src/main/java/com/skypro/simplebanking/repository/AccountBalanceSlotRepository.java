@@ -0,0 +1,42 @@
+package com.skypro.simplebanking.repository;
+
+import com.skypro.simplebanking.entity.AccountBalanceSlot;
+import java.util.List;
+import javax.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AccountBalanceSlotRepository extends JpaRepository<AccountBalanceSlot, Long> {
+  @Query("select s.slot from AccountBalanceSlot s where s.accountId = :accountId")
+  List<Integer> findSlotsByAccountId(@Param("accountId") Long accountId);
+
+  @Modifying
+  @Query(
+      "update AccountBalanceSlot s set s.amount = s.amount + :amount"
+          + " where s.accountId = :accountId and s.slot = :slot")
+  int credit(
+      @Param("accountId") Long accountId, @Param("slot") int slot, @Param("amount") long amount);
+
+  @Modifying
+  @Query(
+      "update AccountBalanceSlot s set s.amount = s.amount - :amount"
+          + " where s.accountId = :accountId and s.slot = :slot and s.amount >= :amount")
+  int debit(
+      @Param("accountId") Long accountId, @Param("slot") int slot, @Param("amount") long amount);
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select s from AccountBalanceSlot s where s.accountId = :accountId order by s.slot")
+  List<AccountBalanceSlot> findByAccountIdForUpdate(@Param("accountId") Long accountId);
+
+  @Query(
+      value =
+          "SELECT a.amount + COALESCE((SELECT SUM(s.amount) FROM account_balance_slots s"
+              + " WHERE s.account_id = a.id), 0) FROM accounts a WHERE a.id = :accountId",
+      nativeQuery = true)
+  long totalBalance(@Param("accountId") Long accountId);
+}
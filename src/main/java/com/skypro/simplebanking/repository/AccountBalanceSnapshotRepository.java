@@ -0,0 +1,18 @@
+package com.skypro.simplebanking.repository;
+
+import com.skypro.simplebanking.entity.AccountBalanceSnapshot;
+import java.time.Instant;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AccountBalanceSnapshotRepository
+    extends JpaRepository<AccountBalanceSnapshot, AccountBalanceSnapshot.Key>,
+        AccountBalanceSnapshotWriter {
+  Optional<AccountBalanceSnapshot> findFirstByAccountIdAndTakenAtLessThanEqualOrderByTakenAtDesc(
+      Long accountId, Instant at);
+
+  Optional<AccountBalanceSnapshot> findFirstByAccountIdAndTakenAtGreaterThanOrderByTakenAtAsc(
+      Long accountId, Instant at);
+}
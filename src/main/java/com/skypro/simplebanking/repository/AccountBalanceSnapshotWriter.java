@@ -0,0 +1,18 @@
+package com.skypro.simplebanking.repository;
+
+import java.time.Instant;
+
+public interface AccountBalanceSnapshotWriter {
+  /**
+   * Writes a snapshot at {@code takenAt} for every account with ledger entries created after
+   * {@code after} and up to {@code takenAt}, from its latest snapshot plus those entries. Returns
+   * the number of snapshots written.
+   */
+  int snapshotChangedAccounts(Instant after, Instant takenAt);
+
+  /**
+   * Writes a snapshot at {@code takenAt} for every account that has none yet, from its current
+   * balance minus the ledger entries created after {@code takenAt}. Returns the number written.
+   */
+  int snapshotNewAccounts(Instant takenAt);
+}
@@ -0,0 +1,46 @@
+package com.skypro.simplebanking.repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import javax.sql.DataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public class AccountBalanceSnapshotWriterImpl implements AccountBalanceSnapshotWriter {
+  private static final String SNAPSHOT_CHANGED_ACCOUNTS =
+      "INSERT INTO account_balance_snapshots (account_id, taken_at, balance)"
+          + " SELECT d.account_id, ?, s.balance + d.delta"
+          + " FROM (SELECT account_id, SUM(amount) AS delta FROM ledger_entries"
+          + " WHERE created_at > ? AND created_at <= ? GROUP BY account_id) d"
+          + " JOIN account_balance_snapshots s ON s.account_id = d.account_id"
+          + " WHERE s.taken_at = (SELECT MAX(m.taken_at) FROM account_balance_snapshots m"
+          + " WHERE m.account_id = d.account_id)";
+  // One statement, so the balance and the entries subtracted from it are read consistently.
+  private static final String SNAPSHOT_NEW_ACCOUNTS =
+      "INSERT INTO account_balance_snapshots (account_id, taken_at, balance)"
+          + " SELECT a.id, ?, a.amount"
+          + " + COALESCE((SELECT SUM(s.amount) FROM account_balance_slots s"
+          + " WHERE s.account_id = a.id), 0)"
+          + " - COALESCE((SELECT SUM(l.amount) FROM ledger_entries l"
+          + " WHERE l.account_id = a.id AND l.created_at > ?), 0)"
+          + " FROM accounts a WHERE NOT EXISTS (SELECT 1 FROM account_balance_snapshots s"
+          + " WHERE s.account_id = a.id)";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public AccountBalanceSnapshotWriterImpl(DataSource dataSource) {
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+  }
+
+  @Override
+  public int snapshotChangedAccounts(Instant after, Instant takenAt) {
+    Timestamp cutoff = Timestamp.from(takenAt);
+    return jdbcTemplate.update(
+        SNAPSHOT_CHANGED_ACCOUNTS, cutoff, Timestamp.from(after), cutoff);
+  }
+
+  @Override
+  public int snapshotNewAccounts(Instant takenAt) {
+    Timestamp cutoff = Timestamp.from(takenAt);
+    return jdbcTemplate.update(SNAPSHOT_NEW_ACCOUNTS, cutoff, cutoff);
+  }
+}
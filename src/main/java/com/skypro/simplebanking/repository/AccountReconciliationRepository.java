@@ -0,0 +1,53 @@
+package com.skypro.simplebanking.repository;
+
+import com.skypro.simplebanking.entity.AccountCurrency;
+
+public interface AccountReconciliationRepository {
+  /**
+   * Streams every account with an id in {@code [fromId, toId)}, in id order, together with its
+   * balance including hot-account slots and the sums of its ledger entries per type. Rows are
+   * fetched through a cursor, so this must run inside a transaction to keep memory flat.
+   */
+  void streamLedgerTotals(long fromId, long toId, LedgerTotalsHandler handler);
+
+  /**
+   * Streams the transfer legs in the ledger summed per pair of source and target currency: the
+   * amount debited in the source currency and credited in the target one, with the number of
+   * legs on each side.
+   */
+  void streamTransferTotals(TransferTotalsHandler handler);
+
+  /**
+   * Exports the snapshot of the current transaction so other transactions can read the same data,
+   * or returns null if the database cannot. The transaction must stay open while it is in use.
+   */
+  String exportSnapshot();
+
+  /** Makes the current transaction read the exported snapshot; must be its first statement. */
+  void importSnapshot(String snapshotId);
+
+  @FunctionalInterface
+  interface LedgerTotalsHandler {
+    /** Withdrawals and outgoing transfers are passed as the positive amounts taken out. */
+    void accept(
+        long accountId,
+        AccountCurrency currency,
+        long balance,
+        long deposited,
+        long withdrawn,
+        long transferredIn,
+        long transferredOut);
+  }
+
+  @FunctionalInterface
+  interface TransferTotalsHandler {
+    /** Debited amounts are passed as the positive amounts taken out of the source accounts. */
+    void accept(
+        AccountCurrency fromCurrency,
+        AccountCurrency toCurrency,
+        long debits,
+        long debited,
+        long credits,
+        long credited);
+  }
+}
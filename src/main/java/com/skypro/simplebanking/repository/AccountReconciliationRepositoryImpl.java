@@ -0,0 +1,116 @@
+package com.skypro.simplebanking.repository;
+
+import com.skypro.simplebanking.entity.AccountCurrency;
+import java.sql.DatabaseMetaData;
+import javax.sql.DataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+public class AccountReconciliationRepositoryImpl implements AccountReconciliationRepository {
+  private static final int FETCH_SIZE = 1000;
+  // One statement per range, so each balance is read consistently with its own entries.
+  private static final String LEDGER_TOTALS =
+      "SELECT a.id, a.account_currency, a.amount + COALESCE((SELECT SUM(s.amount)"
+          + " FROM account_balance_slots s WHERE s.account_id = a.id), 0) AS balance,"
+          + " COALESCE(SUM(CASE WHEN l.type = 'DEPOSIT' THEN l.amount END), 0) AS deposited,"
+          + " COALESCE(SUM(CASE WHEN l.type = 'WITHDRAWAL' THEN -l.amount END), 0) AS withdrawn,"
+          + " COALESCE(SUM(CASE WHEN l.type = 'TRANSFER_IN' THEN l.amount END), 0)"
+          + " AS transferred_in,"
+          + " COALESCE(SUM(CASE WHEN l.type = 'TRANSFER_OUT' THEN -l.amount END), 0)"
+          + " AS transferred_out"
+          + " FROM accounts a LEFT JOIN ledger_entries l ON l.account_id = a.id"
+          + " WHERE a.id >= ? AND a.id < ?"
+          + " GROUP BY a.id, a.account_currency, a.amount ORDER BY a.id";
+  // A debit leg is on the source account, a credit leg on the target one.
+  private static final String TRANSFER_TOTALS =
+      "SELECT CASE WHEN l.type = 'TRANSFER_OUT' THEN a.account_currency"
+          + " ELSE c.account_currency END AS from_currency,"
+          + " CASE WHEN l.type = 'TRANSFER_OUT' THEN c.account_currency"
+          + " ELSE a.account_currency END AS to_currency,"
+          + " COUNT(CASE WHEN l.type = 'TRANSFER_OUT' THEN 1 END) AS debits,"
+          + " COALESCE(SUM(CASE WHEN l.type = 'TRANSFER_OUT' THEN -l.amount END), 0) AS debited,"
+          + " COUNT(CASE WHEN l.type = 'TRANSFER_IN' THEN 1 END) AS credits,"
+          + " COALESCE(SUM(CASE WHEN l.type = 'TRANSFER_IN' THEN l.amount END), 0) AS credited"
+          + " FROM ledger_entries l JOIN accounts a ON a.id = l.account_id"
+          + " JOIN accounts c ON c.id = l.counterparty_account_id"
+          + " WHERE l.type IN ('TRANSFER_IN', 'TRANSFER_OUT')"
+          + " GROUP BY 1, 2";
+
+  private final DataSource dataSource;
+  private final JdbcTemplate jdbcTemplate;
+  private volatile Boolean supportsSnapshots;
+
+  public AccountReconciliationRepositoryImpl(DataSource dataSource) {
+    this.dataSource = dataSource;
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+  }
+
+  @Override
+  public void streamLedgerTotals(long fromId, long toId, LedgerTotalsHandler handler) {
+    AccountCurrency[] currencies = AccountCurrency.values();
+    jdbcTemplate.query(
+        LEDGER_TOTALS,
+        rs -> {
+          handler.accept(
+              rs.getLong("id"),
+              currencies[rs.getInt("account_currency")],
+              rs.getLong("balance"),
+              rs.getLong("deposited"),
+              rs.getLong("withdrawn"),
+              rs.getLong("transferred_in"),
+              rs.getLong("transferred_out"));
+        },
+        fromId,
+        toId);
+  }
+
+  @Override
+  public void streamTransferTotals(TransferTotalsHandler handler) {
+    AccountCurrency[] currencies = AccountCurrency.values();
+    jdbcTemplate.query(
+        TRANSFER_TOTALS,
+        rs -> {
+          handler.accept(
+              currencies[rs.getInt("from_currency")],
+              currencies[rs.getInt("to_currency")],
+              rs.getLong("debits"),
+              rs.getLong("debited"),
+              rs.getLong("credits"),
+              rs.getLong("credited"));
+        });
+  }
+
+  @Override
+  public String exportSnapshot() {
+    if (!supportsSnapshots()) {
+      return null;
+    }
+    return jdbcTemplate.queryForObject("SELECT pg_export_snapshot()", String.class);
+  }
+
+  @Override
+  public void importSnapshot(String snapshotId) {
+    // The id comes from pg_export_snapshot() and SET cannot take a bind parameter.
+    if (!snapshotId.matches("[0-9A-Fa-f-]+")) {
+      throw new IllegalArgumentException("Invalid snapshot id " + snapshotId);
+    }
+    jdbcTemplate.execute("SET TRANSACTION SNAPSHOT '" + snapshotId + "'");
+  }
+
+  private boolean supportsSnapshots() {
+    Boolean supported = supportsSnapshots;
+    if (supported == null) {
+      try {
+        String product =
+            JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        supported = "PostgreSQL".equals(product);
+      } catch (MetaDataAccessException e) {
+        supported = false;
+      }
+      supportsSnapshots = supported;
+    }
+    return supported;
+  }
+}
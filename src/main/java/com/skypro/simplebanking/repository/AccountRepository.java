@@ -1,11 +1,40 @@
 package com.skypro.simplebanking.repository;
 
 import com.skypro.simplebanking.entity.Account;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import javax.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface AccountRepository extends JpaRepository<Account, Long> {
+public interface AccountRepository
+    extends JpaRepository<Account, Long>,
+        AccountBalanceRepository,
+        AccountReconciliationRepository {
   Optional<Account> getAccountByUser_IdAndId(Long userId, Long accountId);
+
+  boolean existsByUser_IdAndId(Long userId, Long accountId);
+
+  @Query(
+      "select a.accountCurrency from Account a where a.user.id = :userId and a.id = :accountId")
+  Optional<AccountCurrency> findCurrencyByUserIdAndId(
+      @Param("userId") Long userId, @Param("accountId") Long accountId);
+
+  List<Account> findAllByIdInOrderById(Collection<Long> ids);
+
+  @Query("select min(a.id) from Account a")
+  Optional<Long> findMinId();
+
+  @Query("select max(a.id) from Account a")
+  Optional<Long> findMaxId();
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select a from Account a where a.id in :ids order by a.id")
+  List<Account> findAllByIdInOrderByIdForUpdate(@Param("ids") Collection<Long> ids);
 }
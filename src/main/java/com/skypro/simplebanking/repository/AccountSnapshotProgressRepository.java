@@ -0,0 +1,18 @@
+package com.skypro.simplebanking.repository;
+
+import com.skypro.simplebanking.entity.AccountSnapshotProgress;
+import java.util.Optional;
+import javax.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AccountSnapshotProgressRepository
+    extends JpaRepository<AccountSnapshotProgress, Integer> {
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select p from AccountSnapshotProgress p where p.id = :id")
+  Optional<AccountSnapshotProgress> findByIdForUpdate(@Param("id") Integer id);
+}
@@ -0,0 +1,9 @@
+package com.skypro.simplebanking.repository;
+
+import com.skypro.simplebanking.entity.BalanceEngineCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BalanceEngineCheckpointRepository
+    extends JpaRepository<BalanceEngineCheckpoint, Integer> {}
@@ -0,0 +1,8 @@
+package com.skypro.simplebanking.repository;
+
+import com.skypro.simplebanking.entity.ExchangeRate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ExchangeRateRepository extends JpaRepository<ExchangeRate, Long> {}
@@ -0,0 +1,19 @@
+package com.skypro.simplebanking.repository;
+
+import com.skypro.simplebanking.entity.IdempotencyRecord;
+import java.time.Instant;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+  Optional<IdempotencyRecord> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+
+  @Modifying
+  @Query("delete from IdempotencyRecord r where r.createdAt < :cutoff")
+  int deleteCreatedBefore(@Param("cutoff") Instant cutoff);
+}
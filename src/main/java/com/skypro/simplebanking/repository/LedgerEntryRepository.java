@@ -0,0 +1,29 @@
+package com.skypro.simplebanking.repository;
+
+import com.skypro.simplebanking.entity.LedgerEntry;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+  List<LedgerEntry> findByAccountIdAndIdLessThanOrderByIdDesc(
+      Long accountId, Long beforeId, Pageable pageable);
+
+  @Query(
+      "select coalesce(sum(e.amount), 0) from LedgerEntry e where e.accountId = :accountId"
+          + " and e.createdAt > :after and e.createdAt <= :upTo")
+  long sumAmounts(
+      @Param("accountId") Long accountId,
+      @Param("after") Instant after,
+      @Param("upTo") Instant upTo);
+
+  @Query(
+      "select coalesce(sum(e.amount), 0) from LedgerEntry e where e.accountId = :accountId"
+          + " and e.createdAt > :after")
+  long sumAmountsAfter(@Param("accountId") Long accountId, @Param("after") Instant after);
+}
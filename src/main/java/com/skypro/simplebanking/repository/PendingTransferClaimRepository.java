@@ -0,0 +1,13 @@
+package com.skypro.simplebanking.repository;
+
+import com.skypro.simplebanking.entity.PendingTransfer;
+import java.util.List;
+
+public interface PendingTransferClaimRepository {
+  /**
+   * Locks and returns up to {@code limit} of the oldest pending transfers whose source account id
+   * is {@code lane} modulo {@code lanes}. On PostgreSQL rows already claimed by another worker are
+   * skipped rather than waited for.
+   */
+  List<PendingTransfer> claimPending(int lane, int lanes, int limit);
+}
@@ -0,0 +1,53 @@
+package com.skypro.simplebanking.repository;
+
+import com.skypro.simplebanking.entity.PendingTransfer;
+import java.sql.DatabaseMetaData;
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.sql.DataSource;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+public class PendingTransferClaimRepositoryImpl implements PendingTransferClaimRepository {
+  // On PostgreSQL this only reads pending_transfers_pending_idx, see PostgresIndexes.
+  private static final String CLAIM =
+      "SELECT * FROM pending_transfers WHERE status = 'PENDING'"
+          + " AND MOD(from_account_id, :lanes) = :lane ORDER BY id LIMIT :limit FOR UPDATE";
+  private static final String SKIP_LOCKED = " SKIP LOCKED";
+
+  @PersistenceContext private EntityManager entityManager;
+  private final DataSource dataSource;
+  private volatile Boolean supportsSkipLocked;
+
+  public PendingTransferClaimRepositoryImpl(DataSource dataSource) {
+    this.dataSource = dataSource;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public List<PendingTransfer> claimPending(int lane, int lanes, int limit) {
+    String sql = supportsSkipLocked() ? CLAIM + SKIP_LOCKED : CLAIM;
+    return entityManager
+        .createNativeQuery(sql, PendingTransfer.class)
+        .setParameter("lane", lane)
+        .setParameter("lanes", lanes)
+        .setParameter("limit", limit)
+        .getResultList();
+  }
+
+  private boolean supportsSkipLocked() {
+    Boolean supported = supportsSkipLocked;
+    if (supported == null) {
+      try {
+        String product =
+            JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        supported = "PostgreSQL".equals(product);
+      } catch (MetaDataAccessException e) {
+        supported = false;
+      }
+      supportsSkipLocked = supported;
+    }
+    return supported;
+  }
+}
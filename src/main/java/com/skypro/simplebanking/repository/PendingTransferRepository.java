@@ -0,0 +1,30 @@
+package com.skypro.simplebanking.repository;
+
+import com.skypro.simplebanking.entity.PendingTransfer;
+import com.skypro.simplebanking.entity.PendingTransferStatus;
+import java.time.Instant;
+import java.util.Optional;
+import javax.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PendingTransferRepository
+    extends JpaRepository<PendingTransfer, Long>, PendingTransferClaimRepository {
+  Optional<PendingTransfer> findByIdAndUserId(Long id, Long userId);
+
+  long countByStatus(PendingTransferStatus status);
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select t from PendingTransfer t where t.id = :id")
+  Optional<PendingTransfer> findByIdForUpdate(@Param("id") Long id);
+
+  /** Pending transfers have no processing time, so only processed ones are deleted. */
+  @Modifying
+  @Query("delete from PendingTransfer t where t.processedAt < :cutoff")
+  int deleteProcessedBefore(@Param("cutoff") Instant cutoff);
+}
@@ -0,0 +1,29 @@
+package com.skypro.simplebanking.repository;
+
+import com.skypro.simplebanking.dto.ListUserDTO;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import java.util.function.Consumer;
+
+public interface UserListingRepository {
+  /**
+   * Reads users with id greater than {@code afterId} together with their accounts through a
+   * single forward-only cursor, handing each user to {@code consumer} as soon as all of its rows
+   * have been read. Must be called inside a transaction so the driver can fetch in chunks.
+   */
+  void streamUsersWithAccounts(long afterId, Consumer<ListUserDTO> consumer);
+
+  /**
+   * Streams every account with its owner, ordered by user and account id, optionally only those
+   * in {@code currency} and holding at least {@code minBalance} including hot-account slots. Rows
+   * are handed over straight from the cursor, so this must run inside a transaction.
+   */
+  void streamAccountsForExport(
+      AccountCurrency currency, Long minBalance, AccountExportHandler handler);
+
+  @FunctionalInterface
+  interface AccountExportHandler {
+    /** {@code username} is the same instance for all accounts of one user. */
+    void accept(
+        long userId, String username, long accountId, AccountCurrency currency, long balance);
+  }
+}
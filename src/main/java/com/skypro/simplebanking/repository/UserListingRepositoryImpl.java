@@ -0,0 +1,109 @@
+package com.skypro.simplebanking.repository;
+
+import com.skypro.simplebanking.dto.ListAccountDTO;
+import com.skypro.simplebanking.dto.ListUserDTO;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import javax.sql.DataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public class UserListingRepositoryImpl implements UserListingRepository {
+  private static final int FETCH_SIZE = 1000;
+  private static final String USERS_WITH_ACCOUNTS =
+      "SELECT u.id AS user_id, u.username, a.id AS account_id, a.account_currency"
+          + " FROM users u LEFT JOIN accounts a ON a.user_id = u.id"
+          + " WHERE u.id > ? ORDER BY u.id, a.id";
+  private static final String ACCOUNTS_FOR_EXPORT =
+      "SELECT u.id AS user_id, u.username, a.id AS account_id, a.account_currency,"
+          + " a.amount + COALESCE((SELECT SUM(s.amount) FROM account_balance_slots s"
+          + " WHERE s.account_id = a.id), 0) AS balance"
+          + " FROM users u JOIN accounts a ON a.user_id = u.id";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public UserListingRepositoryImpl(DataSource dataSource) {
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+  }
+
+  @Override
+  public void streamUsersWithAccounts(long afterId, Consumer<ListUserDTO> consumer) {
+    UserRowGroup group = new UserRowGroup(consumer);
+    jdbcTemplate.query(
+        USERS_WITH_ACCOUNTS,
+        rs -> {
+          long userId = rs.getLong("user_id");
+          if (group.userId != userId) {
+            group.emit();
+            group.userId = userId;
+            group.username = rs.getString("username");
+            group.accounts = new ArrayList<>(AccountCurrency.values().length);
+          }
+          long accountId = rs.getLong("account_id");
+          if (!rs.wasNull()) {
+            group.accounts.add(
+                new ListAccountDTO(
+                    accountId, AccountCurrency.values()[rs.getInt("account_currency")]));
+          }
+        },
+        afterId);
+    group.emit();
+  }
+
+  @Override
+  public void streamAccountsForExport(
+      AccountCurrency currency, Long minBalance, AccountExportHandler handler) {
+    AccountCurrency[] currencies = AccountCurrency.values();
+    List<Object> arguments = new ArrayList<>(2);
+    StringBuilder sql = new StringBuilder("SELECT * FROM (").append(ACCOUNTS_FOR_EXPORT);
+    if (currency != null) {
+      sql.append(" WHERE a.account_currency = ?");
+      arguments.add(currency.ordinal());
+    }
+    sql.append(") e");
+    if (minBalance != null) {
+      sql.append(" WHERE e.balance >= ?");
+      arguments.add(minBalance);
+    }
+    sql.append(" ORDER BY e.user_id, e.account_id");
+    long[] userId = {Long.MIN_VALUE};
+    String[] username = new String[1];
+    jdbcTemplate.query(
+        sql.toString(),
+        rs -> {
+          long rowUserId = rs.getLong("user_id");
+          // The username is materialized once per user, not once per account.
+          if (rowUserId != userId[0]) {
+            userId[0] = rowUserId;
+            username[0] = rs.getString("username");
+          }
+          handler.accept(
+              rowUserId,
+              username[0],
+              rs.getLong("account_id"),
+              currencies[rs.getInt("account_currency")],
+              rs.getLong("balance"));
+        },
+        arguments.toArray());
+  }
+
+  private static final class UserRowGroup {
+    private final Consumer<ListUserDTO> consumer;
+    private long userId = Long.MIN_VALUE;
+    private String username;
+    private List<ListAccountDTO> accounts;
+
+    private UserRowGroup(Consumer<ListUserDTO> consumer) {
+      this.consumer = consumer;
+    }
+
+    private void emit() {
+      if (accounts != null) {
+        consumer.accept(new ListUserDTO(userId, username, accounts));
+        accounts = null;
+      }
+    }
+  }
+}
@@ -0,0 +1,14 @@
+package com.skypro.simplebanking.repository;
+
+import com.skypro.simplebanking.entity.User;
+import java.util.List;
+
+public interface UserProvisioningRepository {
+  /**
+   * Inserts the users, whose passwords are already hashed, together with one account per currency
+   * using JDBC batches. Ids are taken from the entity sequences a block at a time and set on the
+   * given users. A user whose username is already taken is skipped, even when another transaction
+   * takes it concurrently; returns the users that were inserted, in the given order.
+   */
+  List<User> insertWithDefaultAccounts(List<User> users);
+}
@@ -0,0 +1,139 @@
+package com.skypro.simplebanking.repository;
+
+import com.skypro.simplebanking.entity.Account;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.entity.User;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.sql.DataSource;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+public class UserProvisioningRepositoryImpl implements UserProvisioningRepository {
+  // Both skip a taken username; the unique constraint decides when two imports race.
+  private static final String INSERT_USER =
+      "INSERT INTO users (id, username, password) VALUES (?, ?, ?)"
+          + " ON CONFLICT (username) DO NOTHING";
+  private static final String INSERT_USER_IF_ABSENT =
+      "INSERT INTO users (id, username, password) SELECT ?, ?, ?"
+          + " WHERE NOT EXISTS (SELECT 1 FROM users WHERE username = ?)";
+  // The ids were just allocated, so a row with one of them was inserted by this batch.
+  private static final String INSERTED_IDS = "SELECT id FROM users WHERE id IN (:ids)";
+  private static final String INSERT_ACCOUNT =
+      "INSERT INTO accounts (id, account_currency, amount, version, user_id)"
+          + " VALUES (?, ?, ?, 0, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+  private final DataSource dataSource;
+  private volatile Boolean postgres;
+
+  public UserProvisioningRepositoryImpl(DataSource dataSource) {
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    this.dataSource = dataSource;
+  }
+
+  @Override
+  public List<User> insertWithDefaultAccounts(List<User> users) {
+    if (users.isEmpty()) {
+      return List.of();
+    }
+    AccountCurrency[] currencies = AccountCurrency.values();
+    long[] userIds = allocateIds("user_sequence", User.ID_ALLOCATION_SIZE, users.size());
+    for (int index = 0; index < users.size(); index++) {
+      users.get(index).setId(userIds[index]);
+    }
+    boolean postgres = isPostgres();
+    jdbcTemplate.batchUpdate(
+        postgres ? INSERT_USER : INSERT_USER_IF_ABSENT,
+        users,
+        users.size(),
+        (statement, user) -> {
+          statement.setLong(1, user.getId());
+          statement.setString(2, user.getUsername());
+          statement.setString(3, user.getPassword());
+          if (!postgres) {
+            statement.setString(4, user.getUsername());
+          }
+        });
+    // Update counts cannot tell skipped rows apart once the driver rewrites the batch.
+    List<Long> ids = Arrays.stream(userIds).boxed().collect(Collectors.toList());
+    Set<Long> inserted =
+        new HashSet<>(
+            namedParameterJdbcTemplate.queryForList(INSERTED_IDS, Map.of("ids", ids), Long.class));
+    List<User> created = new ArrayList<>(inserted.size());
+    for (User user : users) {
+      if (inserted.contains(user.getId())) {
+        created.add(user);
+      }
+    }
+    if (created.isEmpty()) {
+      return created;
+    }
+    long[] accountIds =
+        allocateIds(
+            "account_sequence", Account.ID_ALLOCATION_SIZE, created.size() * currencies.length);
+    jdbcTemplate.batchUpdate(
+        INSERT_ACCOUNT,
+        new BatchPreparedStatementSetter() {
+          @Override
+          public void setValues(PreparedStatement statement, int index) throws SQLException {
+            statement.setLong(1, accountIds[index]);
+            statement.setInt(2, currencies[index % currencies.length].ordinal());
+            statement.setLong(3, Account.INITIAL_AMOUNT);
+            statement.setLong(4, created.get(index / currencies.length).getId());
+          }
+
+          @Override
+          public int getBatchSize() {
+            return accountIds.length;
+          }
+        });
+    return created;
+  }
+
+  /**
+   * Takes ids the way Hibernate's pooled optimizer does: each sequence value is the top of a block
+   * of {@code allocationSize} ids, so these never collide with ids assigned through JPA.
+   */
+  private long[] allocateIds(String sequence, int allocationSize, int count) {
+    String nextValue =
+        isPostgres() ? "SELECT nextval('" + sequence + "')" : "VALUES NEXT VALUE FOR " + sequence;
+    long[] ids = new long[count];
+    int filled = 0;
+    while (filled < count) {
+      Long high = jdbcTemplate.queryForObject(nextValue, Long.class);
+      for (long id = Math.max(1, high - allocationSize + 1); id <= high && filled < count; id++) {
+        ids[filled++] = id;
+      }
+    }
+    return ids;
+  }
+
+  private boolean isPostgres() {
+    Boolean detected = postgres;
+    if (detected == null) {
+      try {
+        String product =
+            JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        detected = "PostgreSQL".equals(product);
+      } catch (MetaDataAccessException e) {
+        detected = false;
+      }
+      postgres = detected;
+    }
+    return detected;
+  }
+}
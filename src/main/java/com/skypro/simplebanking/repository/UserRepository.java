@@ -1,11 +1,28 @@
 package com.skypro.simplebanking.repository;
 
 import com.skypro.simplebanking.entity.User;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository
+    extends JpaRepository<User, Long>, UserListingRepository, UserProvisioningRepository {
   Optional<User> findByUsername(String username);
+
+  @Query("select u.id from User u where u.id > :afterId order by u.id")
+  List<Long> findIdsAfter(@Param("afterId") long afterId, Pageable pageable);
+
+  @QueryHints(@QueryHint(name = "hibernate.query.passDistinctThrough", value = "false"))
+  @Query(
+      "select distinct u from User u left join fetch u.accounts"
+          + " where u.id in :ids order by u.id")
+  List<User> findAllWithAccountsByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,96 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.dto.AccessTokenDTO;
+import com.skypro.simplebanking.dto.BankingUserDetails;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.Optional;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Issues and verifies HMAC-SHA256 signed tokens of the form {@code payload.signature}, where the
+ * payload is {@code userId:expiresAt:username}. Verification needs no database access.
+ */
+@Service
+public class AccessTokenService {
+  private static final String ALGORITHM = "HmacSHA256";
+  private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+  private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+  private final SecretKeySpec key;
+  private final long ttlSeconds;
+  private final Clock clock;
+  private final ThreadLocal<Mac> macs;
+
+  public AccessTokenService(
+      @Value("${app.security.token.secret}") String secret,
+      @Value("${app.security.token.ttl-seconds}") long ttlSeconds) {
+    this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    this.ttlSeconds = ttlSeconds;
+    this.clock = Clock.systemUTC();
+    this.macs = ThreadLocal.withInitial(this::newMac);
+  }
+
+  public AccessTokenDTO issue(BankingUserDetails userDetails) {
+    long expiresAt = clock.instant().getEpochSecond() + ttlSeconds;
+    String payload = userDetails.getId() + ":" + expiresAt + ":" + userDetails.getUsername();
+    byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+    String token =
+        ENCODER.encodeToString(payloadBytes) + "." + ENCODER.encodeToString(sign(payloadBytes));
+    return new AccessTokenDTO(token, expiresAt);
+  }
+
+  public Optional<BankingUserDetails> verify(String token) {
+    int separator = token.indexOf('.');
+    if (separator <= 0) {
+      return Optional.empty();
+    }
+    byte[] payloadBytes;
+    byte[] signature;
+    try {
+      payloadBytes = DECODER.decode(token.substring(0, separator));
+      signature = DECODER.decode(token.substring(separator + 1));
+    } catch (IllegalArgumentException e) {
+      return Optional.empty();
+    }
+    if (!MessageDigest.isEqual(sign(payloadBytes), signature)) {
+      return Optional.empty();
+    }
+    String[] claims = new String(payloadBytes, StandardCharsets.UTF_8).split(":", 3);
+    if (claims.length != 3) {
+      return Optional.empty();
+    }
+    try {
+      long id = Long.parseLong(claims[0]);
+      long expiresAt = Long.parseLong(claims[1]);
+      if (expiresAt <= clock.instant().getEpochSecond()) {
+        return Optional.empty();
+      }
+      return Optional.of(new BankingUserDetails(id, claims[2], "****", false));
+    } catch (NumberFormatException e) {
+      return Optional.empty();
+    }
+  }
+
+  private byte[] sign(byte[] payload) {
+    Mac mac = macs.get();
+    mac.reset();
+    return mac.doFinal(payload);
+  }
+
+  private Mac newMac() {
+    try {
+      Mac mac = Mac.getInstance(ALGORITHM);
+      mac.init(key);
+      return mac;
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
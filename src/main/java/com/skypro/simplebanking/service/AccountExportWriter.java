@@ -0,0 +1,10 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.repository.UserListingRepository.AccountExportHandler;
+import java.io.IOException;
+
+/** Encodes export rows as they arrive; I/O errors surface as {@code UncheckedIOException}. */
+interface AccountExportWriter extends AccountExportHandler {
+  /** Completes the document and flushes it, leaving the underlying stream open. */
+  void finish() throws IOException;
+}
@@ -0,0 +1,138 @@
+package com.skypro.simplebanking.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Optional single-writer lanes for balance changes. Every account id hashes to one of N lanes, and
+ * each lane is a single thread, so operations on the same hot account queue in memory instead of
+ * each holding a pooled connection while it waits for the row lock. Work that touches several
+ * lanes is handed from lane to lane in ascending lane order and runs on the highest one; a lane
+ * only ever waits for a higher lane, so two transfers can never wait for each other.
+ *
+ * <p>With {@code app.accounts.lanes.count=0} (the default) work runs on the calling thread. Work
+ * requested inside a caller's transaction, such as an Idempotency-Key request that records its
+ * outcome in the same transaction, also runs inline because the transaction cannot follow it onto
+ * a lane thread.
+ */
+@Component
+public class AccountLanes implements DisposableBean {
+  private static final ThreadLocal<Boolean> ON_LANE = ThreadLocal.withInitial(() -> false);
+
+  private final List<ThreadPoolExecutor> lanes;
+
+  public AccountLanes(
+      @Value("${app.accounts.lanes.count}") int laneCount, MeterRegistry meterRegistry) {
+    List<ThreadPoolExecutor> executors = new ArrayList<>(Math.max(0, laneCount));
+    for (int lane = 0; lane < laneCount; lane++) {
+      String name = "account-lane-" + lane;
+      executors.add(
+          new ThreadPoolExecutor(
+              1,
+              1,
+              0,
+              TimeUnit.MILLISECONDS,
+              new LinkedBlockingQueue<>(),
+              task -> {
+                Thread thread =
+                    new Thread(
+                        () -> {
+                          ON_LANE.set(true);
+                          task.run();
+                        },
+                        name);
+                thread.setDaemon(true);
+                return thread;
+              }));
+    }
+    this.lanes = List.copyOf(executors);
+    Gauge.builder("banking.accounts.lanes.queued", this, AccountLanes::queued)
+        .register(meterRegistry);
+  }
+
+  public boolean isEnabled() {
+    return !lanes.isEmpty();
+  }
+
+  public <T> T execute(Collection<Long> accountIds, Supplier<T> action) {
+    if (!isEnabled()
+        || ON_LANE.get()
+        || TransactionSynchronizationManager.isActualTransactionActive()) {
+      return action.get();
+    }
+    TreeSet<Integer> laneIndexes = new TreeSet<>();
+    for (Long accountId : accountIds) {
+      laneIndexes.add(laneOf(accountId));
+    }
+    return await(submit(new ArrayList<>(laneIndexes), 0, action));
+  }
+
+  public void execute(Collection<Long> accountIds, Runnable action) {
+    execute(
+        accountIds,
+        () -> {
+          action.run();
+          return null;
+        });
+  }
+
+  @Override
+  public void destroy() {
+    lanes.forEach(ExecutorService::shutdownNow);
+  }
+
+  private <T> Future<T> submit(List<Integer> laneIndexes, int position, Supplier<T> action) {
+    ExecutorService lane = lanes.get(laneIndexes.get(position));
+    if (position == laneIndexes.size() - 1) {
+      return lane.submit(action::get);
+    }
+    // This lane stays occupied until the higher lanes have run the action, which is what keeps
+    // other work for its accounts from interleaving.
+    return lane.submit(() -> await(submit(laneIndexes, position + 1, action)));
+  }
+
+  private int laneOf(long accountId) {
+    return Math.floorMod(Long.hashCode(accountId * 0x9E3779B97F4A7C15L), lanes.size());
+  }
+
+  private double queued() {
+    long queued = 0;
+    for (ThreadPoolExecutor lane : lanes) {
+      queued += lane.getQueue().size();
+    }
+    return queued;
+  }
+
+  private static <T> T await(Future<T> future) {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      if (cause instanceof Error error) {
+        throw error;
+      }
+      throw new IllegalStateException(cause);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for an account lane", e);
+    }
+  }
+}
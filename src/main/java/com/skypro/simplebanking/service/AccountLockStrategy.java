@@ -0,0 +1,6 @@
+package com.skypro.simplebanking.service;
+
+public enum AccountLockStrategy {
+  PESSIMISTIC,
+  OPTIMISTIC
+}
@@ -1,86 +1,197 @@
 package com.skypro.simplebanking.service;
 
+import com.skypro.simplebanking.analytics.AccountAnalytics;
+import com.skypro.simplebanking.analytics.AnalyticsUpdate;
+import com.skypro.simplebanking.cache.AccountBalanceCache;
 import com.skypro.simplebanking.dto.AccountDTO;
+import com.skypro.simplebanking.engine.BalanceEngine;
 import com.skypro.simplebanking.entity.Account;
 import com.skypro.simplebanking.entity.AccountCurrency;
 import com.skypro.simplebanking.entity.User;
 import com.skypro.simplebanking.exception.AccountNotFoundException;
 import com.skypro.simplebanking.exception.InsufficientFundsException;
 import com.skypro.simplebanking.exception.InvalidAmountException;
-import com.skypro.simplebanking.exception.WrongCurrencyException;
 import com.skypro.simplebanking.repository.AccountRepository;
+import io.micrometer.core.annotation.Timed;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
+@Timed(value = "banking.service", histogram = true)
 public class AccountService {
   private final AccountRepository accountRepository;
+  private final AccountLanes accountLanes;
+  private final BalanceTransactionExecutor transactionExecutor;
+  private final HotAccountBalances hotAccountBalances;
+  private final LedgerService ledgerService;
+  private final AccountBalanceCache accountBalanceCache;
+  private final BalanceEngine balanceEngine;
+  private final AccountAnalytics accountAnalytics;
+  private final TransactionTemplate readOnlyTransaction;
 
-  public AccountService(AccountRepository accountRepository) {
+  public AccountService(
+      AccountRepository accountRepository,
+      AccountLanes accountLanes,
+      BalanceTransactionExecutor transactionExecutor,
+      HotAccountBalances hotAccountBalances,
+      LedgerService ledgerService,
+      AccountBalanceCache accountBalanceCache,
+      BalanceEngine balanceEngine,
+      AccountAnalytics accountAnalytics,
+      PlatformTransactionManager transactionManager) {
     this.accountRepository = accountRepository;
+    this.accountLanes = accountLanes;
+    this.transactionExecutor = transactionExecutor;
+    this.hotAccountBalances = hotAccountBalances;
+    this.ledgerService = ledgerService;
+    this.accountBalanceCache = accountBalanceCache;
+    this.balanceEngine = balanceEngine;
+    this.accountAnalytics = accountAnalytics;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
   }
 
   @Transactional(propagation = Propagation.MANDATORY)
   public void createDefaultAccounts(User user) {
     user.setAccounts(new ArrayList<>());
+    AnalyticsUpdate update = accountAnalytics.update();
     for (AccountCurrency currency : AccountCurrency.values()) {
       Account account = new Account();
       account.setUser(user);
       account.setAccountCurrency(currency);
-      account.setAmount(1L);
+      account.setAmount(Account.INITIAL_AMOUNT);
       user.getAccounts().add(account);
       accountRepository.save(account);
+      update.accountsCreated(currency, 1);
     }
+    update.apply();
   }
 
-  @Transactional(readOnly = true)
   public AccountDTO getAccount(long userId, Long accountId) {
-    return accountRepository
-        .getAccountByUser_IdAndId(userId, accountId)
-        .map(AccountDTO::from)
-        .orElseThrow(AccountNotFoundException::new);
+    if (balanceEngine.isEnabled()) {
+      return balanceEngine.getAccount(userId, accountId);
+    }
+    return accountBalanceCache.get(
+        userId,
+        accountId,
+        () ->
+            readOnlyTransaction.execute(
+                status ->
+                    accountRepository
+                        .getAccountByUser_IdAndId(userId, accountId)
+                        .map(hotAccountBalances::describe)
+                        .orElseThrow(AccountNotFoundException::new)));
+  }
+
+  public AccountDTO toDTO(Account account) {
+    if (balanceEngine.isEnabled()) {
+      return balanceEngine.describe(account);
+    }
+    return hotAccountBalances.describe(account);
   }
 
-  @Transactional
-  public void validateCurrency(long sourceAccount, long destinationAccount) {
-    Account acc1 =
-        accountRepository.findById(sourceAccount).orElseThrow(AccountNotFoundException::new);
-    Account acc2 =
-        accountRepository.findById(destinationAccount).orElseThrow(AccountNotFoundException::new);
-    if (!acc1.getAccountCurrency().equals(acc2.getAccountCurrency())){
-      throw new WrongCurrencyException();
+  @Transactional(propagation = Propagation.MANDATORY)
+  public Map<Long, Account> loadAccountsForUpdate(Collection<Long> accountIds) {
+    List<Account> loaded =
+        transactionExecutor.getLockStrategy() == AccountLockStrategy.PESSIMISTIC
+            ? accountRepository.findAllByIdInOrderByIdForUpdate(accountIds)
+            : accountRepository.findAllByIdInOrderById(accountIds);
+    Map<Long, Account> accounts = new LinkedHashMap<>();
+    for (Account account : loaded) {
+      accounts.put(account.getId(), account);
     }
+    return accounts;
   }
 
-  @Transactional
   public AccountDTO depositToAccount(long userId, Long accountId, long amount) {
     if (amount < 0) {
       throw new InvalidAmountException();
     }
-    Account account =
-        accountRepository
-            .getAccountByUser_IdAndId(userId, accountId)
-            .orElseThrow(AccountNotFoundException::new);
-    account.setAmount(account.getAmount() + amount);
-    return AccountDTO.from(account);
+    if (balanceEngine.isEnabled()) {
+      AccountDTO account = balanceEngine.deposit(userId, accountId, amount);
+      recordChange(account, amount).applyNow();
+      return account;
+    }
+    AccountDTO account =
+        accountLanes.execute(List.of(accountId), () -> applyDeposit(userId, accountId, amount));
+    recordChange(account, amount).apply();
+    return account;
   }
 
-  @Transactional
   public AccountDTO withdrawFromAccount(long id, Long accountId, long amount) {
     if (amount < 0) {
       throw new InvalidAmountException();
     }
-    Account account =
-        accountRepository
-            .getAccountByUser_IdAndId(id, accountId)
-            .orElseThrow(AccountNotFoundException::new);
-    if (account.getAmount() < amount) {
-      throw new InsufficientFundsException(
-          "Cannot withdraw " + amount + " " + account.getAccountCurrency().name());
+    if (balanceEngine.isEnabled()) {
+      AccountDTO account = balanceEngine.withdraw(id, accountId, amount);
+      recordChange(account, -amount).applyNow();
+      return account;
+    }
+    AccountDTO account =
+        accountLanes.execute(List.of(accountId), () -> applyWithdrawal(id, accountId, amount));
+    recordChange(account, -amount).apply();
+    return account;
+  }
+
+  /**
+   * Applied by the caller: the balance transaction has committed by now unless it joined one of
+   * the caller's, such as an Idempotency-Key record, which then decides.
+   */
+  private AnalyticsUpdate recordChange(AccountDTO account, long delta) {
+    return accountAnalytics
+        .update()
+        .balanceChanged(account.getCurrency(), delta)
+        .balance(account.getId(), account.getCurrency(), account.getAmount());
+  }
+
+  private AccountDTO applyDeposit(long userId, Long accountId, long amount) {
+    if (hotAccountBalances.isHot(accountId)) {
+      return transactionExecutor.execute(
+          () -> hotAccountBalances.deposit(userId, accountId, amount));
+    }
+    return transactionExecutor.execute(
+        () -> {
+          AccountDTO account =
+              accountRepository
+                  .addToBalance(userId, accountId, amount)
+                  .orElseThrow(AccountNotFoundException::new);
+          ledgerService.recordDeposit(accountId, amount);
+          return account;
+        });
+  }
+
+  private AccountDTO applyWithdrawal(long id, Long accountId, long amount) {
+    if (hotAccountBalances.isHot(accountId)) {
+      // Runs its fast and slow path through transactionExecutor itself.
+      return hotAccountBalances.withdraw(id, accountId, amount);
     }
-    account.setAmount(account.getAmount() - amount);
-    return AccountDTO.from(account);
+    return transactionExecutor.execute(
+        () -> {
+          AccountDTO account =
+              accountRepository
+                  .subtractFromBalance(id, accountId, amount)
+                  .orElseThrow(() -> withdrawalRejected(id, accountId, amount));
+          ledgerService.recordWithdrawal(accountId, amount);
+          return account;
+        });
+  }
+
+  private RuntimeException withdrawalRejected(long userId, Long accountId, long amount) {
+    // The conditional UPDATE matched nothing: either the account is not there or it is short.
+    return accountRepository
+        .getAccountByUser_IdAndId(userId, accountId)
+        .<RuntimeException>map(
+            account ->
+                new InsufficientFundsException(
+                    "Cannot withdraw " + amount + " " + account.getAccountCurrency().name()))
+        .orElseGet(AccountNotFoundException::new);
   }
 }
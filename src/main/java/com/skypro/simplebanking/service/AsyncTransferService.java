@@ -0,0 +1,231 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.dto.AsyncTransferDTO;
+import com.skypro.simplebanking.dto.TransferRequest;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.entity.PendingTransfer;
+import com.skypro.simplebanking.entity.PendingTransferStatus;
+import com.skypro.simplebanking.exception.AccountNotFoundException;
+import com.skypro.simplebanking.exception.InvalidAmountException;
+import com.skypro.simplebanking.exception.TransferNotFoundException;
+import com.skypro.simplebanking.exception.WrongCurrencyException;
+import com.skypro.simplebanking.repository.AccountRepository;
+import com.skypro.simplebanking.repository.PendingTransferRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Transfers accepted now and applied later. Submission only checks what can be checked without
+ * locking (ownership, currencies, amount) and stores the transfer in the pending_transfers outbox;
+ * {@link PendingTransferWorkers} drain it in micro-batches, each applied in one transaction.
+ * Processed transfers can be looked up for {@code app.transfers.async.retention-seconds} and are
+ * then deleted, so the outbox only grows with the backlog.
+ */
+@Service
+public class AsyncTransferService {
+  private static final String FAILURE_REASON = "Transfer could not be applied";
+  private static final Logger log = LoggerFactory.getLogger(AsyncTransferService.class);
+
+  private final PendingTransferRepository pendingTransferRepository;
+  private final AccountRepository accountRepository;
+  private final TransferService transferService;
+  private final BalanceTransactionExecutor transactionExecutor;
+  private final ExchangeRates exchangeRates;
+  private final int batchSize;
+  private final long retentionSeconds;
+  private final AtomicLong queueDepth = new AtomicLong();
+  private final DistributionSummary batchSizes;
+  private final Timer drainLatency;
+  private final Counter failedTransfers;
+  private volatile Runnable submissionListener = () -> {};
+
+  public AsyncTransferService(
+      PendingTransferRepository pendingTransferRepository,
+      AccountRepository accountRepository,
+      TransferService transferService,
+      BalanceTransactionExecutor transactionExecutor,
+      ExchangeRates exchangeRates,
+      MeterRegistry meterRegistry,
+      @Value("${app.transfers.async.batch-size}") int batchSize,
+      @Value("${app.transfers.async.retention-seconds}") long retentionSeconds) {
+    this.pendingTransferRepository = pendingTransferRepository;
+    this.accountRepository = accountRepository;
+    this.transferService = transferService;
+    this.transactionExecutor = transactionExecutor;
+    this.exchangeRates = exchangeRates;
+    this.batchSize = batchSize;
+    this.retentionSeconds = retentionSeconds;
+    meterRegistry.gauge("banking.transfers.async.queue.depth", queueDepth);
+    this.batchSizes =
+        DistributionSummary.builder("banking.transfers.async.batch.size")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    this.drainLatency =
+        Timer.builder("banking.transfers.async.drain.latency")
+            .description("Time from submission to the transfer being applied or rejected")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    this.failedTransfers = meterRegistry.counter("banking.transfers.async.failed");
+  }
+
+  @Transactional
+  public AsyncTransferDTO submit(long userId, TransferRequest transferRequest) {
+    if (transferRequest.getAmount() < 0) {
+      throw new InvalidAmountException();
+    }
+    AccountCurrency sourceCurrency =
+        accountRepository
+            .findCurrencyByUserIdAndId(userId, transferRequest.getFromAccountId())
+            .orElseThrow(AccountNotFoundException::new);
+    AccountCurrency destinationCurrency =
+        accountRepository
+            .findCurrencyByUserIdAndId(
+                transferRequest.getToUserId(), transferRequest.getToAccountId())
+            .orElseThrow(AccountNotFoundException::new);
+    if (!exchangeRates.supports(sourceCurrency, destinationCurrency)) {
+      throw new WrongCurrencyException(
+          "No exchange rate from " + sourceCurrency + " to " + destinationCurrency);
+    }
+    PendingTransfer transfer = new PendingTransfer();
+    transfer.setUserId(userId);
+    transfer.setFromAccountId(transferRequest.getFromAccountId());
+    transfer.setToUserId(transferRequest.getToUserId());
+    transfer.setToAccountId(transferRequest.getToAccountId());
+    transfer.setAmount(transferRequest.getAmount());
+    transfer.setStatus(PendingTransferStatus.PENDING);
+    transfer.setCreatedAt(Instant.now());
+    pendingTransferRepository.save(transfer);
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            submissionListener.run();
+          }
+        });
+    return AsyncTransferDTO.from(transfer);
+  }
+
+  @Transactional(readOnly = true)
+  public AsyncTransferDTO getTransfer(long userId, long transferId) {
+    return pendingTransferRepository
+        .findByIdAndUserId(transferId, userId)
+        .map(AsyncTransferDTO::from)
+        .orElseThrow(TransferNotFoundException::new);
+  }
+
+  /**
+   * Claims up to one batch of pending transfers whose source account falls in {@code lane} and
+   * applies them in a single transaction. Returns how many were claimed.
+   *
+   * <p>Invalid transfers are rejected inside the batch. Any other non-transient failure rolls the
+   * whole batch back and would fail the same way on every retry, stalling the lane, so the batch is
+   * then applied one transfer per transaction and the transfer that still fails is marked {@link
+   * PendingTransferStatus#FAILED}.
+   */
+  public int drain(int lane, int lanes) {
+    List<PendingTransfer> drained;
+    try {
+      drained = transactionExecutor.execute(() -> claimAndApply(lane, lanes, batchSize, null));
+    } catch (RuntimeException e) {
+      if (isTransient(e)) {
+        throw e;
+      }
+      log.warn("Pending transfer batch in lane {} failed, applying it one by one", lane, e);
+      drained = drainOneByOne(lane, lanes);
+    }
+    if (!drained.isEmpty()) {
+      batchSizes.record(drained.size());
+      for (PendingTransfer transfer : drained) {
+        drainLatency.record(Duration.between(transfer.getCreatedAt(), transfer.getProcessedAt()));
+      }
+    }
+    return drained.size();
+  }
+
+  private List<PendingTransfer> claimAndApply(int lane, int lanes, int limit, long[] claimedIds) {
+    List<PendingTransfer> claimed = pendingTransferRepository.claimPending(lane, lanes, limit);
+    if (claimedIds != null && !claimed.isEmpty()) {
+      claimedIds[0] = claimed.get(0).getId();
+    }
+    if (!claimed.isEmpty()) {
+      transferService.applyQueued(claimed);
+    }
+    return claimed;
+  }
+
+  private List<PendingTransfer> drainOneByOne(int lane, int lanes) {
+    List<PendingTransfer> drained = new ArrayList<>(batchSize);
+    for (int attempt = 0; attempt < batchSize; attempt++) {
+      long[] claimedId = {0};
+      List<PendingTransfer> claimed;
+      try {
+        claimed = transactionExecutor.execute(() -> claimAndApply(lane, lanes, 1, claimedId));
+      } catch (RuntimeException e) {
+        if (isTransient(e) || claimedId[0] == 0) {
+          throw e;
+        }
+        log.error("Pending transfer {} cannot be applied, marking it failed", claimedId[0], e);
+        drained.addAll(transactionExecutor.execute(() -> markFailed(claimedId[0])));
+        continue;
+      }
+      if (claimed.isEmpty()) {
+        break;
+      }
+      drained.addAll(claimed);
+    }
+    return drained;
+  }
+
+  private List<PendingTransfer> markFailed(long transferId) {
+    PendingTransfer transfer =
+        pendingTransferRepository.findByIdForUpdate(transferId).orElseThrow();
+    if (transfer.getStatus() != PendingTransferStatus.PENDING) {
+      // Another worker got to it in the meantime.
+      return List.of();
+    }
+    transfer.setStatus(PendingTransferStatus.FAILED);
+    transfer.setFailureReason(FAILURE_REASON);
+    transfer.setProcessedAt(Instant.now());
+    failedTransfers.increment();
+    return List.of(transfer);
+  }
+
+  private static boolean isTransient(RuntimeException e) {
+    return e instanceof TransientDataAccessException
+        || e instanceof RecoverableDataAccessException
+        || e instanceof CannotCreateTransactionException;
+  }
+
+  void onSubmission(Runnable listener) {
+    this.submissionListener = listener;
+  }
+
+  @Scheduled(fixedDelayString = "${app.transfers.async.cleanup-interval-millis}")
+  @Transactional
+  public void removeProcessedTransfers() {
+    pendingTransferRepository.deleteProcessedBefore(Instant.now().minusSeconds(retentionSeconds));
+  }
+
+  @Scheduled(fixedDelayString = "${app.transfers.async.queue-depth-interval-millis}")
+  public void refreshQueueDepth() {
+    queueDepth.set(pendingTransferRepository.countByStatus(PendingTransferStatus.PENDING));
+  }
+}
@@ -0,0 +1,140 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.dto.HistoricalBalanceDTO;
+import com.skypro.simplebanking.entity.AccountBalanceSnapshot;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.entity.AccountSnapshotProgress;
+import com.skypro.simplebanking.exception.AccountNotFoundException;
+import com.skypro.simplebanking.repository.AccountBalanceSlotRepository;
+import com.skypro.simplebanking.repository.AccountBalanceSnapshotRepository;
+import com.skypro.simplebanking.repository.AccountRepository;
+import com.skypro.simplebanking.repository.AccountSnapshotProgressRepository;
+import com.skypro.simplebanking.repository.LedgerEntryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Point-in-time balances from the ledger. A background job periodically snapshots every account
+ * that has ledger entries since the previous run, so the entries between a snapshot and the next
+ * one of the same account all fall into a single run window; an account gets its first snapshot
+ * in the first run after it is created. A balance at T is the latest snapshot at or before T plus
+ * the entries up to T, or, before the first snapshot, that snapshot minus the entries after T, so
+ * the work per query is bounded by one run window of the account's activity and not by its age.
+ *
+ * <p>A run only folds entries created at least {@code app.accounts.snapshots.settle-millis} ago,
+ * which must exceed the longest transaction writing ledger entries and, with the balance engine
+ * enabled, its checkpoint interval; an entry committed later than that would be missed by the
+ * snapshots. Runs are serialized across nodes through a locked progress row.
+ */
+@Service
+public class BalanceHistoryService {
+  private static final int PROGRESS_ID = 1;
+  private static final Logger log = LoggerFactory.getLogger(BalanceHistoryService.class);
+
+  private final AccountRepository accountRepository;
+  private final AccountBalanceSlotRepository slotRepository;
+  private final LedgerEntryRepository ledgerEntryRepository;
+  private final AccountBalanceSnapshotRepository snapshotRepository;
+  private final AccountSnapshotProgressRepository progressRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final Duration settle;
+  private final Timer runs;
+  private final Counter written;
+
+  public BalanceHistoryService(
+      AccountRepository accountRepository,
+      AccountBalanceSlotRepository slotRepository,
+      LedgerEntryRepository ledgerEntryRepository,
+      AccountBalanceSnapshotRepository snapshotRepository,
+      AccountSnapshotProgressRepository progressRepository,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry,
+      @Value("${app.accounts.snapshots.settle-millis}") long settleMillis) {
+    this.accountRepository = accountRepository;
+    this.slotRepository = slotRepository;
+    this.ledgerEntryRepository = ledgerEntryRepository;
+    this.snapshotRepository = snapshotRepository;
+    this.progressRepository = progressRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.settle = Duration.ofMillis(settleMillis);
+    this.runs = meterRegistry.timer("banking.accounts.snapshots.run");
+    this.written = meterRegistry.counter("banking.accounts.snapshots.written");
+  }
+
+  @Transactional(readOnly = true)
+  public HistoricalBalanceDTO getBalanceAt(long userId, long accountId, Instant at) {
+    AccountCurrency currency =
+        accountRepository
+            .findCurrencyByUserIdAndId(userId, accountId)
+            .orElseThrow(AccountNotFoundException::new);
+    Optional<AccountBalanceSnapshot> before =
+        snapshotRepository.findFirstByAccountIdAndTakenAtLessThanEqualOrderByTakenAtDesc(
+            accountId, at);
+    long balance;
+    if (before.isPresent()) {
+      AccountBalanceSnapshot snapshot = before.get();
+      balance =
+          snapshot.getBalance()
+              + ledgerEntryRepository.sumAmounts(accountId, snapshot.getTakenAt(), at);
+    } else {
+      Optional<AccountBalanceSnapshot> after =
+          snapshotRepository.findFirstByAccountIdAndTakenAtGreaterThanOrderByTakenAtAsc(
+              accountId, at);
+      if (after.isPresent()) {
+        AccountBalanceSnapshot snapshot = after.get();
+        balance =
+            snapshot.getBalance()
+                - ledgerEntryRepository.sumAmounts(accountId, at, snapshot.getTakenAt());
+      } else {
+        // Not snapshotted yet, so the account is younger than one run window.
+        balance =
+            slotRepository.totalBalance(accountId)
+                - ledgerEntryRepository.sumAmountsAfter(accountId, at);
+      }
+    }
+    return new HistoricalBalanceDTO(accountId, balance, currency, at);
+  }
+
+  @Scheduled(fixedDelayString = "${app.accounts.snapshots.interval-millis}")
+  public void takeSnapshots() {
+    try {
+      runs.record(() -> transactionTemplate.executeWithoutResult(status -> snapshot()));
+    } catch (RuntimeException e) {
+      log.warn("Balance snapshot run failed, retrying with the next one", e);
+    }
+  }
+
+  private void snapshot() {
+    // Whole milliseconds, so the stored cutoff compares exactly like the one bound to queries.
+    Instant takenAt = Instant.now().minus(settle).truncatedTo(ChronoUnit.MILLIS);
+    AccountSnapshotProgress progress =
+        progressRepository.findByIdForUpdate(PROGRESS_ID).orElse(null);
+    if (progress != null && !takenAt.isAfter(progress.getTakenUntil())) {
+      return;
+    }
+    int count = 0;
+    if (progress == null) {
+      progress = new AccountSnapshotProgress();
+      progress.setId(PROGRESS_ID);
+    } else {
+      count += snapshotRepository.snapshotChangedAccounts(progress.getTakenUntil(), takenAt);
+    }
+    count += snapshotRepository.snapshotNewAccounts(takenAt);
+    progress.setTakenUntil(takenAt);
+    progressRepository.save(progress);
+    written.increment(count);
+  }
+}
@@ -0,0 +1,92 @@
+package com.skypro.simplebanking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs balance-changing work in a transaction. Under {@link AccountLockStrategy#OPTIMISTIC} a
+ * version conflict rolls the transaction back and the work is retried from scratch, up to a
+ * bounded number of attempts with jittered exponential backoff.
+ */
+@Component
+public class BalanceTransactionExecutor {
+  private static final long MAX_BACKOFF_MILLIS = 1000;
+
+  private final TransactionTemplate transactionTemplate;
+  private final AccountLockStrategy lockStrategy;
+  private final int maxAttempts;
+  private final long backoffMillis;
+  private final Counter conflicts;
+  private final Counter retries;
+  private final Counter exhausted;
+
+  public BalanceTransactionExecutor(
+      PlatformTransactionManager transactionManager,
+      @Value("${app.accounts.lock-strategy}") AccountLockStrategy lockStrategy,
+      @Value("${app.accounts.optimistic-retry.max-attempts}") int maxAttempts,
+      @Value("${app.accounts.optimistic-retry.backoff-millis}") long backoffMillis,
+      MeterRegistry meterRegistry) {
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.lockStrategy = lockStrategy;
+    this.maxAttempts = Math.max(1, maxAttempts);
+    this.backoffMillis = backoffMillis;
+    this.conflicts = meterRegistry.counter("banking.balance.optimistic.conflicts");
+    this.retries = meterRegistry.counter("banking.balance.optimistic.retries");
+    this.exhausted = meterRegistry.counter("banking.balance.optimistic.exhausted");
+  }
+
+  public AccountLockStrategy getLockStrategy() {
+    return lockStrategy;
+  }
+
+  public <T> T execute(Supplier<T> action) {
+    // Retrying only makes sense when we own the transaction; inside a caller's transaction the
+    // conflict has to propagate so the caller's transaction is rolled back as a whole.
+    if (lockStrategy == AccountLockStrategy.PESSIMISTIC
+        || TransactionSynchronizationManager.isActualTransactionActive()) {
+      return transactionTemplate.execute(status -> action.get());
+    }
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return transactionTemplate.execute(status -> action.get());
+      } catch (OptimisticLockingFailureException e) {
+        conflicts.increment();
+        if (attempt >= maxAttempts) {
+          exhausted.increment();
+          throw e;
+        }
+        retries.increment();
+        backoff(attempt);
+      }
+    }
+  }
+
+  public void execute(Runnable action) {
+    execute(
+        () -> {
+          action.run();
+          return null;
+        });
+  }
+
+  private void backoff(int attempt) {
+    long ceiling = Math.min(MAX_BACKOFF_MILLIS, backoffMillis << Math.min(attempt - 1, 16));
+    if (ceiling <= 0) {
+      return;
+    }
+    try {
+      Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while backing off an optimistic retry", e);
+    }
+  }
+}
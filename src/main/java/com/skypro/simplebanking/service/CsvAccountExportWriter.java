@@ -0,0 +1,86 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.entity.AccountCurrency;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One line per account with the owner repeated. Numbers are written digit by digit into a reused
+ * buffer, so a row allocates nothing.
+ */
+final class CsvAccountExportWriter implements AccountExportWriter {
+  private static final String HEADER = "user_id,username,account_id,currency,amount\n";
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final Writer writer;
+  private final char[] digits = new char[20];
+  private String lastUsername;
+  private String escapedUsername;
+
+  CsvAccountExportWriter(OutputStream outputStream) throws IOException {
+    this.writer =
+        new BufferedWriter(
+            new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+    writer.write(HEADER);
+  }
+
+  @Override
+  public void accept(
+      long userId, String username, long accountId, AccountCurrency currency, long balance) {
+    if (username != lastUsername) {
+      lastUsername = username;
+      escapedUsername = escape(username);
+    }
+    try {
+      writeLong(userId);
+      writer.write(',');
+      writer.write(escapedUsername);
+      writer.write(',');
+      writeLong(accountId);
+      writer.write(',');
+      writer.write(currency.name());
+      writer.write(',');
+      writeLong(balance);
+      writer.write('\n');
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void finish() throws IOException {
+    writer.flush();
+  }
+
+  private void writeLong(long value) throws IOException {
+    if (value == Long.MIN_VALUE) {
+      writer.write(Long.toString(value));
+      return;
+    }
+    int position = digits.length;
+    long remaining = Math.abs(value);
+    do {
+      digits[--position] = (char) ('0' + remaining % 10);
+      remaining /= 10;
+    } while (remaining != 0);
+    if (value < 0) {
+      digits[--position] = '-';
+    }
+    writer.write(digits, position, digits.length - position);
+  }
+
+  private static String escape(String value) {
+    if (value.indexOf(',') < 0
+        && value.indexOf('"') < 0
+        && value.indexOf('\n') < 0
+        && value.indexOf('\r') < 0) {
+      return value;
+    }
+    return '"' + value.replace("\"", "\"\"") + '"';
+  }
+}
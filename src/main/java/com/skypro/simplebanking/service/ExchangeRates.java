@@ -0,0 +1,157 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.entity.ExchangeRate;
+import com.skypro.simplebanking.exception.InvalidAmountException;
+import com.skypro.simplebanking.exception.WrongCurrencyException;
+import com.skypro.simplebanking.repository.ExchangeRateRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Properties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exchange rates for cross-currency transfers. Rates are fixed-point longs, target minor units per
+ * source minor unit scaled by {@link #SCALE}, held in an immutable table that a refresh replaces
+ * as a whole; a transfer reads one volatile field and one array slot and never touches the
+ * database. Rates come from the {@code exchange_rates} table, or from {@code app.fx.rates-file}
+ * (lines such as {@code USD.EUR=0.92}) when that is set. A failed refresh keeps the previous
+ * table, and a pair without a rate cannot be converted.
+ */
+@Component
+public class ExchangeRates {
+  public static final long SCALE = 1_000_000L;
+
+  // Keeps (amount % SCALE) * rate within a long.
+  private static final long MAX_RATE = Long.MAX_VALUE / SCALE;
+  private static final int CURRENCIES = AccountCurrency.values().length;
+  private static final Logger log = LoggerFactory.getLogger(ExchangeRates.class);
+
+  private final ExchangeRateRepository exchangeRateRepository;
+  private final String ratesFile;
+  private volatile RateTable table =
+      new RateTable(new long[CURRENCIES * CURRENCIES], Instant.EPOCH);
+
+  public ExchangeRates(
+      ExchangeRateRepository exchangeRateRepository,
+      @Value("${app.fx.rates-file}") String ratesFile,
+      MeterRegistry meterRegistry) {
+    this.exchangeRateRepository = exchangeRateRepository;
+    this.ratesFile = ratesFile;
+    Gauge.builder(
+            "banking.fx.rates.age.seconds",
+            this,
+            rates -> Duration.between(rates.table.loadedAt, Instant.now()).toSeconds())
+        .register(meterRegistry);
+  }
+
+  public boolean supports(AccountCurrency source, AccountCurrency target) {
+    return source == target || table.rates[index(source, target)] != 0;
+  }
+
+  /**
+   * Converts minor units of {@code source} into minor units of {@code target}, rounding down. An
+   * amount that would convert to nothing is rejected rather than debited for no credit.
+   */
+  public long convert(long amount, AccountCurrency source, AccountCurrency target) {
+    if (source == target) {
+      return amount;
+    }
+    long rate = table.rates[index(source, target)];
+    if (rate == 0) {
+      throw new WrongCurrencyException("No exchange rate from " + source + " to " + target);
+    }
+    long converted;
+    try {
+      converted =
+          Math.addExact(Math.multiplyExact(amount / SCALE, rate), (amount % SCALE) * rate / SCALE);
+    } catch (ArithmeticException e) {
+      throw new InvalidAmountException(
+          "Amount is too large to convert from " + source + " to " + target);
+    }
+    if (amount > 0 && converted == 0) {
+      throw new InvalidAmountException(
+          "Amount is too small to convert from " + source + " to " + target);
+    }
+    return converted;
+  }
+
+  @Scheduled(fixedDelayString = "${app.fx.refresh-interval-millis}")
+  public void refresh() {
+    try {
+      long[] rates = ratesFile.isBlank() ? loadFromDatabase() : loadFromFile(Path.of(ratesFile));
+      table = new RateTable(rates, Instant.now());
+    } catch (IOException | RuntimeException e) {
+      log.warn("Could not refresh exchange rates, keeping the previous ones", e);
+    }
+  }
+
+  private long[] loadFromDatabase() {
+    long[] rates = new long[CURRENCIES * CURRENCIES];
+    for (ExchangeRate rate : exchangeRateRepository.findAll()) {
+      put(rates, rate.getSourceCurrency(), rate.getTargetCurrency(), rate.getRateMicros());
+    }
+    return rates;
+  }
+
+  private long[] loadFromFile(Path path) throws IOException {
+    Properties properties = new Properties();
+    try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+      properties.load(reader);
+    }
+    long[] rates = new long[CURRENCIES * CURRENCIES];
+    for (String pair : properties.stringPropertyNames()) {
+      String[] currencies = pair.split("\\.");
+      if (currencies.length != 2) {
+        throw new IllegalArgumentException("Expected SOURCE.TARGET, got " + pair);
+      }
+      long rateMicros =
+          new BigDecimal(properties.getProperty(pair).trim())
+              .multiply(BigDecimal.valueOf(SCALE))
+              .setScale(0, RoundingMode.HALF_UP)
+              .longValueExact();
+      put(
+          rates,
+          AccountCurrency.valueOf(currencies[0].trim()),
+          AccountCurrency.valueOf(currencies[1].trim()),
+          rateMicros);
+    }
+    return rates;
+  }
+
+  private static void put(
+      long[] rates, AccountCurrency source, AccountCurrency target, long rateMicros) {
+    if (rateMicros <= 0 || rateMicros > MAX_RATE) {
+      throw new IllegalArgumentException(
+          "Rate " + rateMicros + " for " + source + " to " + target + " is out of range");
+    }
+    rates[index(source, target)] = rateMicros;
+  }
+
+  private static int index(AccountCurrency source, AccountCurrency target) {
+    return source.ordinal() * CURRENCIES + target.ordinal();
+  }
+
+  private static final class RateTable {
+    private final long[] rates;
+    private final Instant loadedAt;
+
+    private RateTable(long[] rates, Instant loadedAt) {
+      this.rates = rates;
+      this.loadedAt = loadedAt;
+    }
+  }
+}
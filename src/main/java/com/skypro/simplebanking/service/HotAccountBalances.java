@@ -0,0 +1,197 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.dto.AccountDTO;
+import com.skypro.simplebanking.entity.Account;
+import com.skypro.simplebanking.entity.AccountBalanceSlot;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.exception.AccountNotFoundException;
+import com.skypro.simplebanking.exception.InsufficientFundsException;
+import com.skypro.simplebanking.repository.AccountBalanceSlotRepository;
+import com.skypro.simplebanking.repository.AccountRepository;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Balances of configured high fan-in accounts are split between the {@code accounts} row and N
+ * sub-balance slots. Credits land on a random slot so concurrent deposits rarely touch the same
+ * row; debits are taken from the account row or a single slot when one of them covers the amount,
+ * and otherwise all slots are locked and folded back into the account row first. The balance of
+ * the account is the account row plus the sum of its slots and never goes below zero.
+ *
+ * <p>Slots are created on startup, before any request holds a connection. An account configured
+ * as hot that does not exist yet gets none until the next start, and its deposits go to the
+ * account row meanwhile.
+ */
+@Component
+public class HotAccountBalances implements InitializingBean {
+  private static final Logger log = LoggerFactory.getLogger(HotAccountBalances.class);
+
+  private final AccountRepository accountRepository;
+  private final AccountBalanceSlotRepository slotRepository;
+  private final BalanceTransactionExecutor transactionExecutor;
+  private final LedgerService ledgerService;
+  private final TransactionTemplate provisioningTransaction;
+  private final Set<Long> hotAccountIds;
+  private final int slots;
+  private final Set<Long> provisioned = ConcurrentHashMap.newKeySet();
+
+  public HotAccountBalances(
+      AccountRepository accountRepository,
+      AccountBalanceSlotRepository slotRepository,
+      BalanceTransactionExecutor transactionExecutor,
+      LedgerService ledgerService,
+      PlatformTransactionManager transactionManager,
+      @Value("${app.accounts.hot.account-ids}") Set<Long> hotAccountIds,
+      @Value("${app.accounts.hot.slots}") int slots) {
+    this.accountRepository = accountRepository;
+    this.slotRepository = slotRepository;
+    this.transactionExecutor = transactionExecutor;
+    this.ledgerService = ledgerService;
+    this.provisioningTransaction = new TransactionTemplate(transactionManager);
+    this.hotAccountIds = Set.copyOf(hotAccountIds);
+    this.slots = Math.max(1, slots);
+  }
+
+  @Override
+  public void afterPropertiesSet() {
+    for (long accountId : hotAccountIds) {
+      if (accountRepository.existsById(accountId)) {
+        provisionSlots(accountId);
+      } else {
+        log.warn("Hot account {} does not exist, its balance is not split", accountId);
+      }
+    }
+  }
+
+  public boolean isHot(long accountId) {
+    return hotAccountIds.contains(accountId);
+  }
+
+  public AccountDTO describe(Account account) {
+    if (!isHot(account.getId())) {
+      return AccountDTO.from(account);
+    }
+    return new AccountDTO(
+        account.getId(),
+        slotRepository.totalBalance(account.getId()),
+        account.getAccountCurrency());
+  }
+
+  @Transactional(propagation = Propagation.MANDATORY)
+  public AccountDTO deposit(long userId, long accountId, long amount) {
+    AccountCurrency currency =
+        accountRepository
+            .findCurrencyByUserIdAndId(userId, accountId)
+            .orElseThrow(AccountNotFoundException::new);
+    // A slot row can also be missing when another node was started with more slots.
+    if (!provisioned.contains(accountId)
+        || slotRepository.credit(accountId, randomSlot(), amount) == 0) {
+      accountRepository.addToBalance(userId, accountId, amount);
+    }
+    ledgerService.recordDeposit(accountId, amount);
+    return new AccountDTO(accountId, slotRepository.totalBalance(accountId), currency);
+  }
+
+  /**
+   * Debits the account row or one slot with a single conditional UPDATE, and only when neither
+   * covers the amount locks the account row and then every slot. Each step runs through {@link
+   * BalanceTransactionExecutor}: on its own it gets a transaction per step, inside a caller's
+   * transaction (an Idempotency-Key record) both steps join it so the debit commits or rolls back
+   * with the caller's work.
+   */
+  public AccountDTO withdraw(long userId, long accountId, long amount) {
+    // A conditional UPDATE whose guard fails leaves no row lock behind, so when the slow path
+    // starts the fast path holds nothing, whether or not the two share a transaction, and the slow
+    // path locks in the same order as transfers: account row, then slots.
+    return transactionExecutor
+        .execute(() -> withdrawFromSingleRow(userId, accountId, amount))
+        .orElseGet(
+            () -> transactionExecutor.execute(() -> withdrawAcrossSlots(userId, accountId, amount)));
+  }
+
+  private Optional<AccountDTO> withdrawFromSingleRow(long userId, long accountId, long amount) {
+    AccountCurrency currency =
+        accountRepository
+            .findCurrencyByUserIdAndId(userId, accountId)
+            .orElseThrow(AccountNotFoundException::new);
+    if (accountRepository.subtractFromBalance(userId, accountId, amount).isPresent()
+        || slotRepository.debit(accountId, randomSlot(), amount) == 1) {
+      ledgerService.recordWithdrawal(accountId, amount);
+      return Optional.of(
+          new AccountDTO(accountId, slotRepository.totalBalance(accountId), currency));
+    }
+    return Optional.empty();
+  }
+
+  private AccountDTO withdrawAcrossSlots(long userId, long accountId, long amount) {
+    Account account =
+        accountRepository.findAllByIdInOrderByIdForUpdate(List.of(accountId)).stream()
+            .filter(candidate -> candidate.getUser().getId() == userId)
+            .findFirst()
+            .orElseThrow(AccountNotFoundException::new);
+    collapse(account);
+    if (account.getAmount() < amount) {
+      throw new InsufficientFundsException(
+          "Cannot withdraw " + amount + " " + account.getAccountCurrency().name());
+    }
+    account.setAmount(account.getAmount() - amount);
+    ledgerService.recordWithdrawal(accountId, amount);
+    return AccountDTO.from(account);
+  }
+
+  /**
+   * Locks every slot of a hot account and moves their sum onto the account row, so that the row
+   * alone holds the full balance until the surrounding transaction ends.
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void collapse(Account account) {
+    if (!isHot(account.getId())) {
+      return;
+    }
+    long collected = 0;
+    for (AccountBalanceSlot slot : slotRepository.findByAccountIdForUpdate(account.getId())) {
+      collected += slot.getAmount();
+      slot.setAmount(0L);
+    }
+    account.setAmount(account.getAmount() + collected);
+  }
+
+  private int randomSlot() {
+    return ThreadLocalRandom.current().nextInt(slots);
+  }
+
+  private void provisionSlots(long accountId) {
+    try {
+      provisioningTransaction.executeWithoutResult(
+          status -> {
+            Set<Integer> existing = new HashSet<>(slotRepository.findSlotsByAccountId(accountId));
+            for (int slot = 0; slot < slots; slot++) {
+              if (!existing.contains(slot)) {
+                AccountBalanceSlot balanceSlot = new AccountBalanceSlot();
+                balanceSlot.setAccountId(accountId);
+                balanceSlot.setSlot(slot);
+                balanceSlot.setAmount(0L);
+                slotRepository.save(balanceSlot);
+              }
+            }
+          });
+    } catch (DataIntegrityViolationException e) {
+      // Another node starting at the same time provisioned the same slots.
+    }
+    provisioned.add(accountId);
+  }
+}
@@ -0,0 +1,219 @@
+package com.skypro.simplebanking.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skypro.simplebanking.cache.BoundedTtlCache;
+import com.skypro.simplebanking.engine.BalanceEngine;
+import com.skypro.simplebanking.entity.IdempotencyRecord;
+import com.skypro.simplebanking.exception.IdempotencyKeyConflictException;
+import com.skypro.simplebanking.exception.UnsupportedIdempotencyKeyException;
+import com.skypro.simplebanking.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Makes balance-changing requests safe to retry. The outcome of a request carrying an
+ * Idempotency-Key is stored in the same transaction as its effect and replayed for any later
+ * request with the same key; concurrent duplicates on this node wait for the first execution, and
+ * a duplicate racing on another node loses on the unique constraint and replays the winner.
+ * Failed requests change nothing and are not recorded, so they simply run again, and a duplicate
+ * that was waiting on one runs in its place. Keys are limited to {@link
+ * IdempotencyRecord#MAX_KEY_LENGTH} characters, which the controllers enforce.
+ *
+ * <p>The {@link BalanceEngine} makes a balance change durable outside the database transaction
+ * that would record its outcome, so while it is enabled {@link #executeBalanceChange} refuses keys
+ * rather than risk applying a retried request twice.
+ */
+@Service
+public class IdempotencyService {
+  private final IdempotencyRecordRepository idempotencyRecordRepository;
+  private final BalanceTransactionExecutor transactionExecutor;
+  private final BalanceEngine balanceEngine;
+  private final ObjectMapper objectMapper;
+  private final BoundedTtlCache<String, Outcome> outcomes;
+  private final ConcurrentHashMap<String, CompletableFuture<Outcome>> inFlight =
+      new ConcurrentHashMap<>();
+  private final long ttlSeconds;
+  private final long waitMillis;
+
+  public IdempotencyService(
+      IdempotencyRecordRepository idempotencyRecordRepository,
+      BalanceTransactionExecutor transactionExecutor,
+      BalanceEngine balanceEngine,
+      ObjectMapper objectMapper,
+      MeterRegistry meterRegistry,
+      @Value("${app.idempotency.ttl-seconds}") long ttlSeconds,
+      @Value("${app.idempotency.cache-size}") int cacheSize,
+      @Value("${app.idempotency.wait-millis}") long waitMillis) {
+    this.idempotencyRecordRepository = idempotencyRecordRepository;
+    this.transactionExecutor = transactionExecutor;
+    this.balanceEngine = balanceEngine;
+    this.objectMapper = objectMapper;
+    this.outcomes = new BoundedTtlCache<>(cacheSize, ttlSeconds, TimeUnit.SECONDS);
+    this.outcomes.bindTo(meterRegistry, "banking.idempotency.cache");
+    this.ttlSeconds = ttlSeconds;
+    this.waitMillis = waitMillis;
+  }
+
+  /** Like {@link #execute}, for an action that changes balances. */
+  public <T> T executeBalanceChange(
+      long userId, String key, String request, Class<T> responseType, Supplier<T> action) {
+    if (key != null && !key.isBlank() && balanceEngine.isEnabled()) {
+      throw new UnsupportedIdempotencyKeyException(
+          "Idempotency-Key is not supported for balance changes while the balance engine is"
+              + " enabled");
+    }
+    return execute(userId, key, request, responseType, action);
+  }
+
+  public <T> T execute(
+      long userId, String key, String request, Class<T> responseType, Supplier<T> action) {
+    if (key == null || key.isBlank()) {
+      return action.get();
+    }
+    String fingerprint = digest(request);
+    String cacheKey = userId + ":" + key;
+    Outcome cached = outcomes.get(cacheKey);
+    if (cached != null) {
+      return replay(cached, fingerprint, responseType);
+    }
+    CompletableFuture<Outcome> execution = new CompletableFuture<>();
+    CompletableFuture<Outcome> running;
+    while ((running = inFlight.putIfAbsent(cacheKey, execution)) != null) {
+      Outcome outcome = await(cacheKey, running);
+      if (outcome != null) {
+        return replay(outcome, fingerprint, responseType);
+      }
+      // The first execution failed and recorded nothing, so this request gets to run itself.
+    }
+    try {
+      Outcome stored =
+          idempotencyRecordRepository
+              .findByUserIdAndIdempotencyKey(userId, key)
+              .map(Outcome::from)
+              .orElse(null);
+      if (stored != null) {
+        outcomes.put(cacheKey, stored);
+        execution.complete(stored);
+        return replay(stored, fingerprint, responseType);
+      }
+      T result;
+      try {
+        result =
+            transactionExecutor.execute(() -> executeAndRecord(userId, key, fingerprint, action));
+      } catch (DataIntegrityViolationException e) {
+        Outcome winner =
+            idempotencyRecordRepository
+                .findByUserIdAndIdempotencyKey(userId, key)
+                .map(Outcome::from)
+                .orElseThrow(() -> e);
+        outcomes.put(cacheKey, winner);
+        execution.complete(winner);
+        return replay(winner, fingerprint, responseType);
+      }
+      Outcome outcome = new Outcome(fingerprint, serialize(result));
+      outcomes.put(cacheKey, outcome);
+      execution.complete(outcome);
+      return result;
+    } catch (RuntimeException e) {
+      execution.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(cacheKey, execution);
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${app.idempotency.cleanup-interval-millis}")
+  @Transactional
+  public void removeExpiredRecords() {
+    idempotencyRecordRepository.deleteCreatedBefore(Instant.now().minusSeconds(ttlSeconds));
+  }
+
+  private <T> T executeAndRecord(
+      long userId, String key, String fingerprint, Supplier<T> action) {
+    T result = action.get();
+    IdempotencyRecord record = new IdempotencyRecord();
+    record.setUserId(userId);
+    record.setIdempotencyKey(key);
+    record.setFingerprint(fingerprint);
+    record.setResponse(serialize(result));
+    record.setCreatedAt(Instant.now());
+    idempotencyRecordRepository.saveAndFlush(record);
+    return result;
+  }
+
+  /** Returns the outcome of the running execution, or null if it failed. */
+  private Outcome await(String cacheKey, CompletableFuture<Outcome> running) {
+    try {
+      return running.get(waitMillis, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      throw new IdempotencyKeyConflictException(
+          "A request with this Idempotency-Key is still in progress");
+    } catch (ExecutionException e) {
+      // The failed execution may not have removed itself yet.
+      inFlight.remove(cacheKey, running);
+      return null;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private <T> T replay(Outcome outcome, String fingerprint, Class<T> responseType) {
+    if (!outcome.fingerprint.equals(fingerprint)) {
+      throw new IdempotencyKeyConflictException(
+          "Idempotency-Key was already used for a different request");
+    }
+    try {
+      return objectMapper.readValue(outcome.response, responseType);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String digest(String request) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(digest.digest(request.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private String serialize(Object result) {
+    try {
+      return objectMapper.writeValueAsString(result);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static final class Outcome {
+    private final String fingerprint;
+    private final String response;
+
+    private Outcome(String fingerprint, String response) {
+      this.fingerprint = fingerprint;
+      this.response = response;
+    }
+
+    private static Outcome from(IdempotencyRecord record) {
+      return new Outcome(record.getFingerprint(), record.getResponse());
+    }
+  }
+}
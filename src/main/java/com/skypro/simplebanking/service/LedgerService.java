@@ -0,0 +1,84 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.dto.LedgerEntryDTO;
+import com.skypro.simplebanking.dto.LedgerPageDTO;
+import com.skypro.simplebanking.entity.LedgerEntry;
+import com.skypro.simplebanking.entity.LedgerEntryType;
+import com.skypro.simplebanking.event.AccountBalanceChangedEvent;
+import com.skypro.simplebanking.exception.AccountNotFoundException;
+import com.skypro.simplebanking.repository.AccountRepository;
+import com.skypro.simplebanking.repository.LedgerEntryRepository;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class LedgerService {
+  private static final int MAX_PAGE_SIZE = 500;
+
+  private final LedgerEntryRepository ledgerEntryRepository;
+  private final AccountRepository accountRepository;
+  private final ApplicationEventPublisher eventPublisher;
+
+  public LedgerService(
+      LedgerEntryRepository ledgerEntryRepository,
+      AccountRepository accountRepository,
+      ApplicationEventPublisher eventPublisher) {
+    this.ledgerEntryRepository = ledgerEntryRepository;
+    this.accountRepository = accountRepository;
+    this.eventPublisher = eventPublisher;
+  }
+
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void recordDeposit(long accountId, long amount) {
+    record(accountId, amount, LedgerEntryType.DEPOSIT, null);
+  }
+
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void recordWithdrawal(long accountId, long amount) {
+    record(accountId, -amount, LedgerEntryType.WITHDRAWAL, null);
+  }
+
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void recordTransfer(
+      long sourceAccountId, long destinationAccountId, long debited, long credited) {
+    record(sourceAccountId, -debited, LedgerEntryType.TRANSFER_OUT, destinationAccountId);
+    record(destinationAccountId, credited, LedgerEntryType.TRANSFER_IN, sourceAccountId);
+  }
+
+  @Transactional(readOnly = true)
+  public LedgerPageDTO getHistory(long userId, long accountId, Long beforeId, int limit) {
+    if (!accountRepository.existsByUser_IdAndId(userId, accountId)) {
+      throw new AccountNotFoundException();
+    }
+    int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    List<LedgerEntryDTO> entries =
+        ledgerEntryRepository
+            .findByAccountIdAndIdLessThanOrderByIdDesc(
+                accountId,
+                beforeId == null ? Long.MAX_VALUE : beforeId,
+                PageRequest.ofSize(pageSize))
+            .stream()
+            .map(LedgerEntryDTO::from)
+            .collect(Collectors.toList());
+    Long nextCursor = entries.size() == pageSize ? entries.get(pageSize - 1).getId() : null;
+    return new LedgerPageDTO(entries, nextCursor);
+  }
+
+  private void record(
+      long accountId, long amount, LedgerEntryType type, Long counterpartyAccountId) {
+    LedgerEntry entry = new LedgerEntry();
+    entry.setAccountId(accountId);
+    entry.setAmount(amount);
+    entry.setType(type);
+    entry.setCounterpartyAccountId(counterpartyAccountId);
+    entry.setCreatedAt(Instant.now());
+    ledgerEntryRepository.save(entry);
+    eventPublisher.publishEvent(new AccountBalanceChangedEvent(accountId, amount, type));
+  }
+}
@@ -0,0 +1,64 @@
+package com.skypro.simplebanking.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * One JSON object per user, shaped like the {@code /user/list} entries with the amount added to
+ * each account. Accounts are written as they arrive and a user is closed when the next one
+ * starts.
+ */
+final class NdjsonAccountExportWriter implements AccountExportWriter {
+  private final JsonGenerator generator;
+  private long userId = Long.MIN_VALUE;
+  private boolean userOpen;
+
+  NdjsonAccountExportWriter(JsonFactory jsonFactory, OutputStream outputStream)
+      throws IOException {
+    this.generator = jsonFactory.createGenerator(outputStream);
+    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    generator.setRootValueSeparator(null);
+  }
+
+  @Override
+  public void accept(
+      long userId, String username, long accountId, AccountCurrency currency, long balance) {
+    try {
+      if (!userOpen || this.userId != userId) {
+        closeUser();
+        this.userId = userId;
+        userOpen = true;
+        generator.writeStartObject();
+        generator.writeNumberField("id", userId);
+        generator.writeStringField("username", username);
+        generator.writeArrayFieldStart("accounts");
+      }
+      generator.writeStartObject();
+      generator.writeNumberField("accountId", accountId);
+      generator.writeStringField("currency", currency.name());
+      generator.writeNumberField("amount", balance);
+      generator.writeEndObject();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void finish() throws IOException {
+    closeUser();
+    generator.close();
+  }
+
+  private void closeUser() throws IOException {
+    if (userOpen) {
+      generator.writeEndArray();
+      generator.writeEndObject();
+      generator.writeRaw('\n');
+      userOpen = false;
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package com.skypro.simplebanking.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drains the asynchronous transfer queue. Worker i only takes transfers whose source account id
+ * is i modulo the worker count, so on a node the transfers out of one account are applied by one
+ * worker, in submission order, and never contend with each other for the account lock. Workers
+ * start once the context is refreshed and stop before any bean they use is destroyed.
+ */
+@Component
+public class PendingTransferWorkers implements SmartLifecycle {
+  private static final Logger log = LoggerFactory.getLogger(PendingTransferWorkers.class);
+
+  private final AsyncTransferService asyncTransferService;
+  private final int workerCount;
+  private final long pollIntervalNanos;
+  private final List<Thread> workers = new ArrayList<>();
+  private volatile boolean running;
+
+  public PendingTransferWorkers(
+      AsyncTransferService asyncTransferService,
+      @Value("${app.transfers.async.workers}") int workerCount,
+      @Value("${app.transfers.async.poll-interval-millis}") long pollIntervalMillis) {
+    this.asyncTransferService = asyncTransferService;
+    this.workerCount = workerCount;
+    this.pollIntervalNanos = TimeUnit.MILLISECONDS.toNanos(pollIntervalMillis);
+  }
+
+  @Override
+  public synchronized void start() {
+    if (running) {
+      return;
+    }
+    running = true;
+    workers.clear();
+    for (int lane = 0; lane < workerCount; lane++) {
+      int workerLane = lane;
+      Thread worker = new Thread(() -> drain(workerLane), "pending-transfer-worker-" + lane);
+      worker.setDaemon(true);
+      workers.add(worker);
+    }
+    // Submissions on this node wake the workers instead of waiting for the next poll.
+    asyncTransferService.onSubmission(() -> workers.forEach(LockSupport::unpark));
+    workers.forEach(Thread::start);
+  }
+
+  @Override
+  public synchronized void stop() {
+    running = false;
+    asyncTransferService.onSubmission(() -> {});
+    for (Thread worker : workers) {
+      LockSupport.unpark(worker);
+      try {
+        worker.join(TimeUnit.NANOSECONDS.toMillis(pollIntervalNanos) + 1000);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  private void drain(int lane) {
+    while (running) {
+      int claimed;
+      try {
+        claimed = asyncTransferService.drain(lane, workerCount);
+      } catch (RuntimeException e) {
+        log.warn("Draining pending transfers failed, retrying", e);
+        claimed = 0;
+      }
+      if (claimed == 0) {
+        LockSupport.parkNanos(pollIntervalNanos);
+      }
+    }
+  }
+}
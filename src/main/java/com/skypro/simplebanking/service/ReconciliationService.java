@@ -0,0 +1,423 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.dto.ReconciliationCurrencyDTO;
+import com.skypro.simplebanking.dto.ReconciliationIssueDTO;
+import com.skypro.simplebanking.dto.ReconciliationIssueType;
+import com.skypro.simplebanking.dto.ReconciliationReportDTO;
+import com.skypro.simplebanking.dto.ReconciliationStatus;
+import com.skypro.simplebanking.entity.Account;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.repository.AccountReconciliationRepository.LedgerTotalsHandler;
+import com.skypro.simplebanking.repository.AccountReconciliationRepository.TransferTotalsHandler;
+import com.skypro.simplebanking.repository.AccountRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Checks that no money was created or lost. The accounts table is split into id ranges of {@code
+ * app.reconciliation.range-size} that a pool sized to the cores streams in parallel, each through
+ * a cursor, so memory does not grow with the number of accounts. Every account must hold its
+ * initial amount plus the sum of its ledger entries and must not be negative. Every transfer must
+ * have taken out of its source as much as it put into its target: per pair of currencies the debit
+ * and credit legs are summed, their numbers have to match and, within one currency, so do their
+ * amounts; legs between two currencies are reported per currency as converted. Only the first
+ * {@value #MAX_REPORTED_ISSUES} issues are kept in the report, all of them are counted. One run at
+ * a time, started from the admin endpoint or by {@code app.reconciliation.cron}.
+ *
+ * <p>A run reads one snapshot: a coordinator opens a read-only REPEATABLE READ transaction, checks
+ * the transfers in it and, on PostgreSQL, exports it to the range transactions and keeps it open
+ * until they are done. Elsewhere the ranges are read one after another in the coordinator's own
+ * transaction.
+ *
+ * <p>With the balance engine enabled the database trails it by up to one checkpoint, which does
+ * not affect the result since balances and ledger entries are checkpointed together.
+ */
+@Service
+public class ReconciliationService implements DisposableBean {
+  private static final int MAX_REPORTED_ISSUES = 100;
+  private static final int CURRENCIES = AccountCurrency.values().length;
+  private static final Logger log = LoggerFactory.getLogger(ReconciliationService.class);
+
+  private final AccountRepository accountRepository;
+  private final TransactionTemplate snapshotTransaction;
+  private final ExecutorService coordinator;
+  private final ExecutorService pool;
+  private final long rangeSize;
+  private final Timer duration;
+  private final Counter accountsChecked;
+  private final AtomicLong runIds = new AtomicLong();
+  private final AtomicReference<Run> latest = new AtomicReference<>();
+  private volatile long lastIssueCount;
+
+  public ReconciliationService(
+      AccountRepository accountRepository,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry,
+      @Value("${app.reconciliation.threads}") int threads,
+      @Value("${app.reconciliation.range-size}") long rangeSize) {
+    this.accountRepository = accountRepository;
+    this.snapshotTransaction = new TransactionTemplate(transactionManager);
+    this.snapshotTransaction.setReadOnly(true);
+    this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    this.coordinator =
+        Executors.newSingleThreadExecutor(
+            task -> {
+              Thread thread = new Thread(task, "reconciliation-coordinator");
+              thread.setDaemon(true);
+              return thread;
+            });
+    int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    AtomicInteger threadNumber = new AtomicInteger();
+    this.pool =
+        Executors.newFixedThreadPool(
+            poolSize,
+            task -> {
+              Thread thread = new Thread(task, "reconciliation-" + threadNumber.getAndIncrement());
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.rangeSize = Math.max(1, rangeSize);
+    this.duration = meterRegistry.timer("banking.reconciliation.duration");
+    this.accountsChecked = meterRegistry.counter("banking.reconciliation.accounts.checked");
+    Gauge.builder("banking.reconciliation.progress", this, ReconciliationService::progress)
+        .register(meterRegistry);
+    Gauge.builder("banking.reconciliation.issues", this, service -> service.lastIssueCount)
+        .register(meterRegistry);
+  }
+
+  /** Starts a run unless one is in progress; either way returns the state of the current run. */
+  public ReconciliationReportDTO start() {
+    return begin().toDTO();
+  }
+
+  /** The running or most recently finished run, or null before the first one. */
+  public ReconciliationReportDTO getLatest() {
+    Run run = latest.get();
+    return run == null ? null : run.toDTO();
+  }
+
+  // Only starts the run: the scheduler thread is shared with every other @Scheduled job.
+  @Scheduled(cron = "${app.reconciliation.cron}")
+  public void reconcileOnSchedule() {
+    begin();
+  }
+
+  @Override
+  public void destroy() {
+    coordinator.shutdownNow();
+    pool.shutdownNow();
+  }
+
+  private Run begin() {
+    while (true) {
+      Run current = latest.get();
+      if (current != null && current.status == ReconciliationStatus.RUNNING) {
+        return current;
+      }
+      Run run = new Run(runIds.incrementAndGet());
+      if (latest.compareAndSet(current, run)) {
+        launch(run);
+        return run;
+      }
+    }
+  }
+
+  private void launch(Run run) {
+    CompletableFuture.runAsync(() -> coordinate(run), coordinator)
+        .whenComplete((done, failure) -> finish(run, failure));
+  }
+
+  private void coordinate(Run run) {
+    snapshotTransaction.executeWithoutResult(
+        status -> {
+          String snapshotId = accountRepository.exportSnapshot();
+          accountRepository.streamTransferTotals(new TransferCheck(run));
+          long minId = accountRepository.findMinId().orElse(0L);
+          long maxId = accountRepository.findMaxId().orElse(-1L);
+          run.rangesTotal = maxId < minId ? 0 : (int) ((maxId - minId) / rangeSize + 1);
+          List<CompletableFuture<Void>> ranges = new ArrayList<>();
+          for (long fromId = minId; fromId <= maxId; fromId += rangeSize) {
+            long from = fromId;
+            long to = Math.min(maxId, fromId + rangeSize - 1) + 1;
+            if (snapshotId == null) {
+              reconcileRange(run, from, to);
+            } else {
+              ranges.add(
+                  CompletableFuture.runAsync(
+                      () -> reconcileRange(run, snapshotId, from, to), pool));
+            }
+          }
+          // The exported snapshot is only importable while this transaction is open.
+          CompletableFuture.allOf(ranges.toArray(CompletableFuture[]::new)).join();
+        });
+  }
+
+  private void reconcileRange(Run run, String snapshotId, long fromId, long toId) {
+    snapshotTransaction.executeWithoutResult(
+        status -> {
+          accountRepository.importSnapshot(snapshotId);
+          reconcileRange(run, fromId, toId);
+        });
+  }
+
+  private void reconcileRange(Run run, long fromId, long toId) {
+    RangeCheck check = new RangeCheck(run);
+    accountRepository.streamLedgerTotals(fromId, toId, check);
+    run.merge(check.totals);
+    accountsChecked.increment(check.totals.accountCount());
+  }
+
+  private void finish(Run run, Throwable failure) {
+    if (failure == null) {
+      run.finish(ReconciliationStatus.COMPLETED, null);
+      lastIssueCount = run.issueCount.get();
+      if (run.issueCount.get() > 0) {
+        log.warn(
+            "Reconciliation {} checked {} accounts and found {} issues",
+            run.id,
+            run.accountsChecked,
+            run.issueCount.get());
+      } else {
+        log.info(
+            "Reconciliation {} checked {} accounts, all consistent", run.id, run.accountsChecked);
+      }
+    } else {
+      Throwable cause = failure;
+      while (cause instanceof CompletionException && cause.getCause() != null) {
+        cause = cause.getCause();
+      }
+      run.finish(ReconciliationStatus.FAILED, cause.getMessage());
+      log.warn("Reconciliation {} failed", run.id, cause);
+    }
+    duration.record(Duration.between(run.startedAt, run.finishedAt));
+  }
+
+  private double progress() {
+    Run run = latest.get();
+    if (run == null || run.rangesTotal == 0) {
+      return run == null || run.status == ReconciliationStatus.RUNNING ? 0 : 1;
+    }
+    return (double) run.rangesDone / run.rangesTotal;
+  }
+
+  /** Checks the accounts of one range as they are streamed; used by a single thread. */
+  private static final class RangeCheck implements LedgerTotalsHandler {
+    private final Run run;
+    private final Totals totals = new Totals();
+
+    private RangeCheck(Run run) {
+      this.run = run;
+    }
+
+    @Override
+    public void accept(
+        long accountId,
+        AccountCurrency currency,
+        long balance,
+        long deposited,
+        long withdrawn,
+        long transferredIn,
+        long transferredOut) {
+      long expected =
+          Account.INITIAL_AMOUNT + deposited - withdrawn + transferredIn - transferredOut;
+      totals.add(currency, balance, deposited, withdrawn, transferredIn, transferredOut);
+      if (balance < 0) {
+        run.flag(
+            accountId, currency, null, ReconciliationIssueType.NEGATIVE_BALANCE, balance, expected);
+      }
+      if (balance != expected) {
+        run.flag(
+            accountId, currency, null, ReconciliationIssueType.LEDGER_MISMATCH, balance, expected);
+      }
+    }
+  }
+
+  /** Checks the transfer legs per pair of currencies and records the converted amounts. */
+  private static final class TransferCheck implements TransferTotalsHandler {
+    private final Run run;
+
+    private TransferCheck(Run run) {
+      this.run = run;
+    }
+
+    @Override
+    public void accept(
+        AccountCurrency fromCurrency,
+        AccountCurrency toCurrency,
+        long debits,
+        long debited,
+        long credits,
+        long credited) {
+      if (fromCurrency != toCurrency) {
+        run.converted(fromCurrency, toCurrency, debited, credited);
+      }
+      if (debits != credits || (fromCurrency == toCurrency && debited != credited)) {
+        run.flag(
+            null,
+            fromCurrency,
+            toCurrency,
+            ReconciliationIssueType.TRANSFER_IMBALANCE,
+            credited,
+            debited);
+      }
+    }
+  }
+
+  /** Sums of one range, or of a whole run once merged. */
+  private static final class Totals {
+    private final long[] accounts = new long[CURRENCIES];
+    private final long[] balance = new long[CURRENCIES];
+    private final long[] deposited = new long[CURRENCIES];
+    private final long[] withdrawn = new long[CURRENCIES];
+    private final long[] transferredIn = new long[CURRENCIES];
+    private final long[] transferredOut = new long[CURRENCIES];
+    private final long[] convertedIn = new long[CURRENCIES];
+    private final long[] convertedOut = new long[CURRENCIES];
+
+    private void add(
+        AccountCurrency currency,
+        long balance,
+        long deposited,
+        long withdrawn,
+        long transferredIn,
+        long transferredOut) {
+      int index = currency.ordinal();
+      this.accounts[index]++;
+      this.balance[index] += balance;
+      this.deposited[index] += deposited;
+      this.withdrawn[index] += withdrawn;
+      this.transferredIn[index] += transferredIn;
+      this.transferredOut[index] += transferredOut;
+    }
+
+    private void addAll(Totals other) {
+      for (int index = 0; index < CURRENCIES; index++) {
+        accounts[index] += other.accounts[index];
+        balance[index] += other.balance[index];
+        deposited[index] += other.deposited[index];
+        withdrawn[index] += other.withdrawn[index];
+        transferredIn[index] += other.transferredIn[index];
+        transferredOut[index] += other.transferredOut[index];
+        convertedIn[index] += other.convertedIn[index];
+        convertedOut[index] += other.convertedOut[index];
+      }
+    }
+
+    private long accountCount() {
+      long count = 0;
+      for (long perCurrency : accounts) {
+        count += perCurrency;
+      }
+      return count;
+    }
+  }
+
+  private static final class Run {
+    private final long id;
+    private final Instant startedAt = Instant.now();
+    private final Totals totals = new Totals();
+    private final List<ReconciliationIssueDTO> issues = new ArrayList<>();
+    private final AtomicLong issueCount = new AtomicLong();
+    private volatile ReconciliationStatus status = ReconciliationStatus.RUNNING;
+    private volatile int rangesTotal;
+    private volatile int rangesDone;
+    private volatile long accountsChecked;
+    private volatile String failureReason;
+    private volatile Instant finishedAt;
+
+    private Run(long id) {
+      this.id = id;
+    }
+
+    private void flag(
+        Long accountId,
+        AccountCurrency currency,
+        AccountCurrency counterpartyCurrency,
+        ReconciliationIssueType type,
+        long balance,
+        long expected) {
+      if (issueCount.incrementAndGet() <= MAX_REPORTED_ISSUES) {
+        synchronized (issues) {
+          issues.add(
+              new ReconciliationIssueDTO(
+                  accountId, currency, counterpartyCurrency, type, balance, expected));
+        }
+      }
+    }
+
+    private synchronized void converted(
+        AccountCurrency fromCurrency, AccountCurrency toCurrency, long debited, long credited) {
+      totals.convertedOut[fromCurrency.ordinal()] += debited;
+      totals.convertedIn[toCurrency.ordinal()] += credited;
+    }
+
+    private synchronized void merge(Totals range) {
+      totals.addAll(range);
+      accountsChecked += range.accountCount();
+      rangesDone++;
+    }
+
+    private void finish(ReconciliationStatus status, String failureReason) {
+      this.failureReason = failureReason;
+      this.finishedAt = Instant.now();
+      this.status = status;
+    }
+
+    private synchronized ReconciliationReportDTO toDTO() {
+      AccountCurrency[] currencies = AccountCurrency.values();
+      List<ReconciliationCurrencyDTO> perCurrency = new ArrayList<>(CURRENCIES);
+      for (int index = 0; index < CURRENCIES; index++) {
+        perCurrency.add(
+            new ReconciliationCurrencyDTO(
+                currencies[index],
+                totals.accounts[index],
+                totals.balance[index],
+                totals.accounts[index] * Account.INITIAL_AMOUNT,
+                totals.deposited[index],
+                totals.withdrawn[index],
+                totals.transferredIn[index],
+                totals.transferredOut[index],
+                totals.convertedIn[index],
+                totals.convertedOut[index]));
+      }
+      List<ReconciliationIssueDTO> reported;
+      synchronized (issues) {
+        reported = List.copyOf(issues);
+      }
+      return new ReconciliationReportDTO(
+          id,
+          status,
+          rangesDone,
+          rangesTotal,
+          accountsChecked,
+          perCurrency,
+          issueCount.get(),
+          reported,
+          failureReason,
+          startedAt,
+          finishedAt);
+    }
+  }
+}
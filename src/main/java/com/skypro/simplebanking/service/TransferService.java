@@ -1,27 +1,365 @@
 package com.skypro.simplebanking.service;
 
+import com.skypro.simplebanking.analytics.AccountAnalytics;
+import com.skypro.simplebanking.analytics.AnalyticsUpdate;
+import com.skypro.simplebanking.dto.BatchTransferItemResultDTO;
+import com.skypro.simplebanking.dto.BatchTransferItemStatus;
+import com.skypro.simplebanking.dto.BatchTransferMode;
+import com.skypro.simplebanking.dto.BatchTransferResultDTO;
 import com.skypro.simplebanking.dto.TransferRequest;
+import com.skypro.simplebanking.engine.BalanceEngine;
+import com.skypro.simplebanking.engine.BalanceEngine.AppliedTransferHandler;
+import com.skypro.simplebanking.entity.Account;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.entity.PendingTransfer;
+import com.skypro.simplebanking.entity.PendingTransferStatus;
+import com.skypro.simplebanking.exception.AccountNotFoundException;
+import com.skypro.simplebanking.exception.InsufficientFundsException;
+import com.skypro.simplebanking.exception.InvalidAmountException;
+import com.skypro.simplebanking.exception.WrongCurrencyException;
+import io.micrometer.core.annotation.Timed;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.bind.annotation.RequestBody;
 
 @Service
+@Timed(value = "banking.service", histogram = true)
 public class TransferService {
   private final AccountService accountService;
+  private final AccountLanes accountLanes;
+  private final BalanceTransactionExecutor transactionExecutor;
+  private final HotAccountBalances hotAccountBalances;
+  private final LedgerService ledgerService;
+  private final ExchangeRates exchangeRates;
+  private final BalanceEngine balanceEngine;
+  private final AccountAnalytics accountAnalytics;
 
-  public TransferService(AccountService accountService) {
+  public TransferService(
+      AccountService accountService,
+      AccountLanes accountLanes,
+      BalanceTransactionExecutor transactionExecutor,
+      HotAccountBalances hotAccountBalances,
+      LedgerService ledgerService,
+      ExchangeRates exchangeRates,
+      BalanceEngine balanceEngine,
+      AccountAnalytics accountAnalytics) {
     this.accountService = accountService;
+    this.accountLanes = accountLanes;
+    this.transactionExecutor = transactionExecutor;
+    this.hotAccountBalances = hotAccountBalances;
+    this.ledgerService = ledgerService;
+    this.exchangeRates = exchangeRates;
+    this.balanceEngine = balanceEngine;
+    this.accountAnalytics = accountAnalytics;
   }
 
-  @Transactional
-  public void transfer(long id, @RequestBody TransferRequest transferRequest) {
-    accountService.validateCurrency(
-        transferRequest.getFromAccountId(), transferRequest.getToAccountId());
-    accountService.withdrawFromAccount(
-        id, transferRequest.getFromAccountId(), transferRequest.getAmount());
-    accountService.depositToAccount(
-        transferRequest.getToUserId(),
-        transferRequest.getToAccountId(),
-        transferRequest.getAmount());
+  public void transfer(long id, TransferRequest transferRequest) {
+    if (transferRequest.getAmount() < 0) {
+      throw new InvalidAmountException();
+    }
+    if (balanceEngine.isEnabled()) {
+      List<TransferRequest> transfers = List.of(transferRequest);
+      AnalyticsUpdate update = accountAnalytics.update();
+      RuntimeException failure =
+          balanceEngine.transfer(
+              new long[] {id}, transfers, null, true, record(update, transfers))[0];
+      if (failure != null) {
+        throw failure;
+      }
+      update.applyNow();
+      return;
+    }
+    List<Long> accountIds =
+        List.of(transferRequest.getFromAccountId(), transferRequest.getToAccountId());
+    accountLanes.execute(
+        accountIds,
+        () ->
+            transactionExecutor.execute(
+                () -> {
+                  // Both rows are loaded by a single query ordered by id, so under the pessimistic
+                  // strategy two transfers between the same accounts in opposite directions always
+                  // lock in the same order.
+                  Map<Long, Account> accounts = accountService.loadAccountsForUpdate(accountIds);
+                  collapseHotSources(accounts, Set.of(transferRequest.getFromAccountId()));
+                  Map<Long, Long> balances = new HashMap<>();
+                  writeBalances(
+                      accounts,
+                      balances,
+                      List.of(applyTransfer(accounts, balances, id, transferRequest)));
+                }));
   }
+
+  public BatchTransferResultDTO transferBatch(
+      long id, List<TransferRequest> transfers, BatchTransferMode mode) {
+    if (transfers.isEmpty()) {
+      // Nothing to lock; an empty IN list is not valid SQL on every database.
+      return new BatchTransferResultDTO(true, 0, 0, List.of());
+    }
+    if (balanceEngine.isEnabled()) {
+      return applyBatchInEngine(id, transfers, mode);
+    }
+    Set<Long> accountIds = new HashSet<>();
+    for (TransferRequest transfer : transfers) {
+      accountIds.add(transfer.getFromAccountId());
+      accountIds.add(transfer.getToAccountId());
+    }
+    return accountLanes.execute(
+        accountIds, () -> transactionExecutor.execute(() -> applyBatch(id, transfers, mode)));
+  }
+
+  /**
+   * Applies transfers taken from the asynchronous queue, each on behalf of its own sender, and
+   * marks each one completed or rejected. Runs in the caller's transaction.
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void applyQueued(List<PendingTransfer> queued) {
+    List<TransferRequest> transfers = new ArrayList<>(queued.size());
+    for (PendingTransfer pendingTransfer : queued) {
+      TransferRequest transfer = new TransferRequest();
+      transfer.setFromAccountId(pendingTransfer.getFromAccountId());
+      transfer.setToUserId(pendingTransfer.getToUserId());
+      transfer.setToAccountId(pendingTransfer.getToAccountId());
+      transfer.setAmount(pendingTransfer.getAmount());
+      transfers.add(transfer);
+    }
+    if (balanceEngine.isEnabled()) {
+      applyQueuedInEngine(queued, transfers);
+      return;
+    }
+    Map<Long, Account> accounts = lockAccounts(transfers);
+    Map<Long, Long> balances = new HashMap<>();
+    List<AppliedTransfer> applied = new ArrayList<>(transfers.size());
+    Instant processedAt = Instant.now();
+    for (int index = 0; index < transfers.size(); index++) {
+      PendingTransfer pendingTransfer = queued.get(index);
+      try {
+        applied.add(
+            applyTransfer(accounts, balances, pendingTransfer.getUserId(), transfers.get(index)));
+        pendingTransfer.setStatus(PendingTransferStatus.COMPLETED);
+      } catch (AccountNotFoundException
+          | InvalidAmountException
+          | WrongCurrencyException
+          | InsufficientFundsException e) {
+        pendingTransfer.setStatus(PendingTransferStatus.REJECTED);
+        pendingTransfer.setFailureReason(e.getMessage());
+      }
+      pendingTransfer.setProcessedAt(processedAt);
+    }
+    writeBalances(accounts, balances, applied);
+  }
+
+  private void applyQueuedInEngine(List<PendingTransfer> queued, List<TransferRequest> transfers) {
+    long[] senderIds = new long[queued.size()];
+    long[] pendingTransferIds = new long[queued.size()];
+    for (int index = 0; index < senderIds.length; index++) {
+      senderIds[index] = queued.get(index).getUserId();
+      pendingTransferIds[index] = queued.get(index).getId();
+    }
+    AnalyticsUpdate update = accountAnalytics.update();
+    // A transfer the engine already applied for a batch that then rolled back is not applied again.
+    RuntimeException[] failures =
+        balanceEngine.transfer(
+            senderIds, transfers, pendingTransferIds, false, record(update, transfers));
+    update.applyNow();
+    Instant processedAt = Instant.now();
+    for (int index = 0; index < failures.length; index++) {
+      PendingTransfer pendingTransfer = queued.get(index);
+      if (failures[index] == null) {
+        pendingTransfer.setStatus(PendingTransferStatus.COMPLETED);
+      } else {
+        pendingTransfer.setStatus(PendingTransferStatus.REJECTED);
+        pendingTransfer.setFailureReason(failures[index].getMessage());
+      }
+      pendingTransfer.setProcessedAt(processedAt);
+    }
+  }
+
+  private BatchTransferResultDTO applyBatchInEngine(
+      long id, List<TransferRequest> transfers, BatchTransferMode mode) {
+    long[] senderIds = new long[transfers.size()];
+    Arrays.fill(senderIds, id);
+    boolean allOrNothing = mode != BatchTransferMode.BEST_EFFORT;
+    AnalyticsUpdate update = accountAnalytics.update();
+    RuntimeException[] failures =
+        balanceEngine.transfer(
+            senderIds, transfers, null, allOrNothing, record(update, transfers));
+    update.applyNow();
+    int rejected = 0;
+    for (RuntimeException failure : failures) {
+      if (failure != null) {
+        rejected++;
+      }
+    }
+    boolean committed = rejected == 0 || !allOrNothing;
+    List<BatchTransferItemResultDTO> items = new ArrayList<>(failures.length);
+    for (int index = 0; index < failures.length; index++) {
+      if (failures[index] != null) {
+        items.add(
+            new BatchTransferItemResultDTO(
+                index, BatchTransferItemStatus.REJECTED, failures[index].getMessage()));
+      } else {
+        items.add(
+            new BatchTransferItemResultDTO(
+                index,
+                committed ? BatchTransferItemStatus.APPLIED : BatchTransferItemStatus.SKIPPED,
+                null));
+      }
+    }
+    int applied = committed ? failures.length - rejected : 0;
+    return new BatchTransferResultDTO(committed, applied, rejected, items);
+  }
+
+  private BatchTransferResultDTO applyBatch(
+      long id, List<TransferRequest> transfers, BatchTransferMode mode) {
+    Map<Long, Account> accounts = lockAccounts(transfers);
+    Map<Long, Long> balances = new HashMap<>();
+    List<BatchTransferItemResultDTO> items = new ArrayList<>(transfers.size());
+    List<AppliedTransfer> applied = new ArrayList<>(transfers.size());
+    for (int index = 0; index < transfers.size(); index++) {
+      try {
+        applied.add(applyTransfer(accounts, balances, id, transfers.get(index)));
+        items.add(new BatchTransferItemResultDTO(index, BatchTransferItemStatus.APPLIED, null));
+      } catch (AccountNotFoundException
+          | InvalidAmountException
+          | WrongCurrencyException
+          | InsufficientFundsException e) {
+        items.add(
+            new BatchTransferItemResultDTO(index, BatchTransferItemStatus.REJECTED, e.getMessage()));
+      }
+    }
+    int rejected = transfers.size() - applied.size();
+    if (rejected > 0 && mode != BatchTransferMode.BEST_EFFORT) {
+      List<BatchTransferItemResultDTO> skipped = new ArrayList<>(items.size());
+      for (BatchTransferItemResultDTO item : items) {
+        skipped.add(
+            item.getStatus() == BatchTransferItemStatus.APPLIED
+                ? new BatchTransferItemResultDTO(
+                    item.getIndex(), BatchTransferItemStatus.SKIPPED, null)
+                : item);
+      }
+      return new BatchTransferResultDTO(false, 0, rejected, skipped);
+    }
+    writeBalances(accounts, balances, applied);
+    return new BatchTransferResultDTO(true, applied.size(), rejected, items);
+  }
+
+  private Map<Long, Account> lockAccounts(List<TransferRequest> transfers) {
+    Set<Long> accountIds = new HashSet<>();
+    Set<Long> sourceIds = new HashSet<>();
+    for (TransferRequest transfer : transfers) {
+      accountIds.add(transfer.getFromAccountId());
+      accountIds.add(transfer.getToAccountId());
+      sourceIds.add(transfer.getFromAccountId());
+    }
+    // One locking read for every account in the batch, in id order, then every debit and credit is
+    // applied to in-memory balances and written back once per account at flush time.
+    Map<Long, Account> accounts = accountService.loadAccountsForUpdate(accountIds);
+    collapseHotSources(accounts, sourceIds);
+    return accounts;
+  }
+
+  private AppliedTransfer applyTransfer(
+      Map<Long, Account> accounts,
+      Map<Long, Long> balances,
+      long id,
+      TransferRequest transferRequest) {
+    long amount = transferRequest.getAmount();
+    if (amount < 0) {
+      throw new InvalidAmountException();
+    }
+    Account source = ownedAccount(accounts, id, transferRequest.getFromAccountId());
+    Account destination =
+        ownedAccount(accounts, transferRequest.getToUserId(), transferRequest.getToAccountId());
+    // Throws WrongCurrencyException when there is no rate for the pair.
+    long credited =
+        exchangeRates.convert(
+            amount, source.getAccountCurrency(), destination.getAccountCurrency());
+    long available = balances.computeIfAbsent(source.getId(), key -> source.getAmount());
+    if (available < amount) {
+      throw new InsufficientFundsException(
+          "Cannot withdraw " + amount + " " + source.getAccountCurrency().name());
+    }
+    // A transfer to the source account itself is credited on top of the debit.
+    long destinationBalance =
+        destination.getId().equals(source.getId())
+            ? available - amount
+            : balances.computeIfAbsent(destination.getId(), key -> destination.getAmount());
+    if (destinationBalance > Long.MAX_VALUE - credited) {
+      throw new InvalidAmountException("Amount is too large for the destination account");
+    }
+    balances.put(source.getId(), available - amount);
+    balances.put(destination.getId(), destinationBalance + credited);
+    return new AppliedTransfer(source.getId(), destination.getId(), amount, credited);
+  }
+
+  private void collapseHotSources(Map<Long, Account> accounts, Set<Long> sourceIds) {
+    for (Account account : accounts.values()) {
+      if (sourceIds.contains(account.getId())) {
+        hotAccountBalances.collapse(account);
+      }
+    }
+  }
+
+  private void writeBalances(
+      Map<Long, Account> accounts, Map<Long, Long> balances, List<AppliedTransfer> applied) {
+    AnalyticsUpdate update = accountAnalytics.update();
+    balances.forEach(
+        (accountId, balance) -> {
+          Account account = accounts.get(accountId);
+          account.setAmount(balance);
+          // A hot destination keeps part of its balance in slots, so the row alone is not it.
+          if (!hotAccountBalances.isHot(accountId)) {
+            update.balance(accountId, account.getAccountCurrency(), balance);
+          }
+        });
+    for (AppliedTransfer transfer : applied) {
+      ledgerService.recordTransfer(
+          transfer.sourceAccountId(),
+          transfer.destinationAccountId(),
+          transfer.debited(),
+          transfer.credited());
+      AccountCurrency sourceCurrency =
+          accounts.get(transfer.sourceAccountId()).getAccountCurrency();
+      update
+          .balanceChanged(sourceCurrency, -transfer.debited())
+          .balanceChanged(
+              accounts.get(transfer.destinationAccountId()).getAccountCurrency(),
+              transfer.credited())
+          .transferred(sourceCurrency, transfer.debited());
+    }
+    update.apply();
+  }
+
+  private static AppliedTransferHandler record(
+      AnalyticsUpdate update, List<TransferRequest> transfers) {
+    return (index, sourceCurrency, sourceBalance, destinationCurrency, credited, balance) -> {
+      TransferRequest transfer = transfers.get(index);
+      update
+          .balanceChanged(sourceCurrency, -transfer.getAmount())
+          .balanceChanged(destinationCurrency, credited)
+          .transferred(sourceCurrency, transfer.getAmount())
+          .balance(transfer.getFromAccountId(), sourceCurrency, sourceBalance)
+          .balance(transfer.getToAccountId(), destinationCurrency, balance);
+    };
+  }
+
+  private Account ownedAccount(Map<Long, Account> accounts, long userId, long accountId) {
+    Account account = accounts.get(accountId);
+    if (account == null || account.getUser().getId() != userId) {
+      throw new AccountNotFoundException();
+    }
+    return account;
+  }
+
+  /** A transfer applied to the in-memory balances, in the currencies of both accounts. */
+  private record AppliedTransfer(
+      long sourceAccountId, long destinationAccountId, long debited, long credited) {}
 }
@@ -0,0 +1,223 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.analytics.AccountAnalytics;
+import com.skypro.simplebanking.analytics.AnalyticsUpdate;
+import com.skypro.simplebanking.dto.BulkUserImportDTO;
+import com.skypro.simplebanking.dto.BulkUserImportStatus;
+import com.skypro.simplebanking.dto.CreateUserRequest;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.entity.User;
+import com.skypro.simplebanking.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+/**
+ * Bulk onboarding. Input is taken in chunks of {@code app.users.bulk.batch-size}; while one chunk
+ * is inserted the next one is hashed on a pool sized to the cores, so BCrypt and the database
+ * overlap and at most two chunks are held in memory. Each chunk commits on its own. Usernames that
+ * already exist, including earlier in the same import, are skipped; a failure stops the import and
+ * keeps the chunks committed before it. Progress of running and recent imports is kept in memory.
+ */
+@Service
+public class UserProvisioningService implements DisposableBean {
+  private static final int RECENT_IMPORTS = 20;
+  private static final Logger log = LoggerFactory.getLogger(UserProvisioningService.class);
+
+  private final UserRepository userRepository;
+  private final PasswordEncoder passwordEncoder;
+  private final AccountAnalytics accountAnalytics;
+  private final TransactionTemplate transactionTemplate;
+  private final ExecutorService hashingPool;
+  private final int hashingThreads;
+  private final int batchSize;
+  private final Counter createdUsers;
+  private final AtomicLong importIds = new AtomicLong();
+  private final ConcurrentSkipListMap<Long, BulkImport> imports = new ConcurrentSkipListMap<>();
+
+  public UserProvisioningService(
+      UserRepository userRepository,
+      PasswordEncoder passwordEncoder,
+      AccountAnalytics accountAnalytics,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry,
+      @Value("${app.users.bulk.hash-threads}") int hashThreads,
+      @Value("${app.users.bulk.batch-size}") int batchSize) {
+    this.userRepository = userRepository;
+    this.passwordEncoder = passwordEncoder;
+    this.accountAnalytics = accountAnalytics;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.hashingThreads =
+        hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+    AtomicInteger threadNumber = new AtomicInteger();
+    this.hashingPool =
+        Executors.newFixedThreadPool(
+            hashingThreads,
+            task -> {
+              Thread thread = new Thread(task, "user-bulk-hash-" + threadNumber.getAndIncrement());
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.batchSize = Math.max(1, batchSize);
+    this.createdUsers = meterRegistry.counter("banking.users.bulk.created");
+  }
+
+  /** Runs an import on the calling thread and returns its final state. */
+  public BulkUserImportDTO importUsers(Iterator<CreateUserRequest> requests) {
+    BulkImport bulkImport = new BulkImport(importIds.incrementAndGet());
+    imports.put(bulkImport.id, bulkImport);
+    while (imports.size() > RECENT_IMPORTS
+        && imports.firstEntry().getValue().status != BulkUserImportStatus.RUNNING) {
+      imports.pollFirstEntry();
+    }
+    try {
+      CompletableFuture<List<User>> hashing = null;
+      while (true) {
+        List<CreateUserRequest> chunk = readChunk(requests, bulkImport);
+        CompletableFuture<List<User>> next = chunk.isEmpty() ? null : hash(chunk);
+        if (hashing != null) {
+          insert(hashing.join(), bulkImport);
+        }
+        if (next == null) {
+          break;
+        }
+        hashing = next;
+      }
+      bulkImport.finish(BulkUserImportStatus.COMPLETED, null);
+      log.info(
+          "Bulk user import {} created {} users, skipped {}, rejected {}",
+          bulkImport.id,
+          bulkImport.created,
+          bulkImport.skipped,
+          bulkImport.rejected);
+    } catch (RuntimeException e) {
+      bulkImport.finish(BulkUserImportStatus.FAILED, e.getMessage());
+      throw e;
+    }
+    return bulkImport.toDTO();
+  }
+
+  public List<BulkUserImportDTO> listImports() {
+    List<BulkUserImportDTO> recent = new ArrayList<>(imports.size());
+    for (BulkImport bulkImport : imports.descendingMap().values()) {
+      recent.add(bulkImport.toDTO());
+    }
+    return recent;
+  }
+
+  @Override
+  public void destroy() {
+    hashingPool.shutdownNow();
+  }
+
+  private List<CreateUserRequest> readChunk(
+      Iterator<CreateUserRequest> requests, BulkImport bulkImport) {
+    // Duplicates inside the chunk are dropped before they cost a hash.
+    Map<String, CreateUserRequest> chunk = new LinkedHashMap<>();
+    int read = 0;
+    while (read < batchSize && requests.hasNext()) {
+      CreateUserRequest request = requests.next();
+      read++;
+      if (!StringUtils.hasText(request.getUsername())
+          || !StringUtils.hasText(request.getPassword())) {
+        bulkImport.rejected++;
+      } else if (chunk.putIfAbsent(request.getUsername(), request) != null) {
+        bulkImport.skipped++;
+      }
+    }
+    bulkImport.read += read;
+    return new ArrayList<>(chunk.values());
+  }
+
+  private CompletableFuture<List<User>> hash(List<CreateUserRequest> chunk) {
+    int sliceSize = (chunk.size() + hashingThreads - 1) / hashingThreads;
+    List<CompletableFuture<List<User>>> slices = new ArrayList<>(hashingThreads);
+    for (int from = 0; from < chunk.size(); from += sliceSize) {
+      List<CreateUserRequest> slice = chunk.subList(from, Math.min(chunk.size(), from + sliceSize));
+      slices.add(CompletableFuture.supplyAsync(() -> hashSlice(slice), hashingPool));
+    }
+    return CompletableFuture.allOf(slices.toArray(CompletableFuture[]::new))
+        .thenApply(
+            done -> {
+              List<User> users = new ArrayList<>(chunk.size());
+              slices.forEach(slice -> users.addAll(slice.join()));
+              return users;
+            });
+  }
+
+  private List<User> hashSlice(List<CreateUserRequest> slice) {
+    List<User> users = new ArrayList<>(slice.size());
+    for (CreateUserRequest request : slice) {
+      User user = new User();
+      user.setUsername(request.getUsername());
+      user.setPassword(passwordEncoder.encode(request.getPassword()));
+      users.add(user);
+    }
+    return users;
+  }
+
+  private void insert(List<User> users, BulkImport bulkImport) {
+    int inserted =
+        transactionTemplate.execute(
+            status -> {
+              int created = userRepository.insertWithDefaultAccounts(users).size();
+              AnalyticsUpdate update = accountAnalytics.update();
+              for (AccountCurrency currency : AccountCurrency.values()) {
+                update.accountsCreated(currency, created);
+              }
+              update.apply();
+              return created;
+            });
+    bulkImport.created += inserted;
+    bulkImport.skipped += users.size() - inserted;
+    createdUsers.increment(inserted);
+  }
+
+  /** Progress of one import; written only by the importing thread. */
+  private static final class BulkImport {
+    private final long id;
+    private final Instant startedAt = Instant.now();
+    private volatile BulkUserImportStatus status = BulkUserImportStatus.RUNNING;
+    private volatile long read;
+    private volatile long created;
+    private volatile long skipped;
+    private volatile long rejected;
+    private volatile String failureReason;
+    private volatile Instant finishedAt;
+
+    private BulkImport(long id) {
+      this.id = id;
+    }
+
+    private void finish(BulkUserImportStatus status, String failureReason) {
+      this.failureReason = failureReason;
+      this.finishedAt = Instant.now();
+      this.status = status;
+    }
+
+    private BulkUserImportDTO toDTO() {
+      return new BulkUserImportDTO(
+          id, status, read, created, skipped, rejected, failureReason, startedAt, finishedAt);
+    }
+  }
+}
@@ -6,9 +6,13 @@ import com.skypro.simplebanking.dto.UserDTO;
 import com.skypro.simplebanking.entity.User;
 import com.skypro.simplebanking.exception.UserAlreadyExistsException;
 import com.skypro.simplebanking.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -17,7 +21,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
+@Timed(value = "banking.service", histogram = true)
 public class UserService implements UserDetailsService {
+  private static final int MAX_PAGE_SIZE = 1000;
+
   private final UserRepository userRepository;
   private final AccountService accountService;
   private final PasswordEncoder passwordEncoder;
@@ -49,16 +56,36 @@ public class UserService implements UserDetailsService {
     User user = new User();
     user.setUsername(username);
     user.setPassword(passwordEncoder.encode(password));
-    userRepository.save(user);
+    try {
+      // Flushed here so that losing a race for the username surfaces as the usual conflict.
+      userRepository.saveAndFlush(user);
+    } catch (DataIntegrityViolationException e) {
+      throw new UserAlreadyExistsException();
+    }
     accountService.createDefaultAccounts(user);
     return UserDTO.from(user);
   }
   @Transactional(readOnly = true)
   public UserDTO getUser(long id) {
-    return userRepository.findById(id).map(UserDTO::from).orElseThrow();
+    return userRepository
+        .findById(id)
+        .map(user -> UserDTO.from(user, accountService::toDTO))
+        .orElseThrow();
   }
   @Transactional(readOnly = true)
-  public List<ListUserDTO> listUsers() {
-    return userRepository.findAll().stream().map(ListUserDTO::from).collect(Collectors.toList());
+  public List<ListUserDTO> listUsers(long afterId, int limit) {
+    int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    List<Long> ids = userRepository.findIdsAfter(afterId, PageRequest.ofSize(pageSize));
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    return userRepository.findAllWithAccountsByIdIn(ids).stream()
+        .map(ListUserDTO::from)
+        .collect(Collectors.toList());
+  }
+
+  @Transactional(readOnly = true)
+  public void streamUsers(long afterId, Consumer<ListUserDTO> consumer) {
+    userRepository.streamUsersWithAccounts(afterId, consumer);
   }
 }
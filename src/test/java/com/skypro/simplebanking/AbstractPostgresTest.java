@@ -0,0 +1,62 @@
+package com.skypro.simplebanking;
+
+import com.skypro.simplebanking.dto.AccountDTO;
+import com.skypro.simplebanking.dto.UserDTO;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.service.UserService;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Runs the application against one PostgreSQL container shared by every test class. Tests share
+ * the database as well, so each one works on users of its own from {@link #newUser()}. No context
+ * runs pending transfer workers, so queued transfers are only applied where a test drains them.
+ */
+@SpringBootTest
+@TestPropertySource(properties = "app.transfers.async.workers=0")
+public abstract class AbstractPostgresTest {
+  protected static final String PASSWORD = "password";
+
+  // Started once for every subclass and removed by Testcontainers when the JVM exits.
+  private static final PostgreSQLContainer<?> POSTGRES =
+      new PostgreSQLContainer<>("postgres:15-alpine");
+
+  static {
+    POSTGRES.start();
+  }
+
+  @Autowired protected UserService userService;
+
+  @DynamicPropertySource
+  static void datasource(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+    registry.add("spring.datasource.username", POSTGRES::getUsername);
+    registry.add("spring.datasource.password", POSTGRES::getPassword);
+  }
+
+  /** A user with a unique name, {@link #PASSWORD} and the default accounts. */
+  protected UserDTO newUser() {
+    return userService.createUser("user-" + UUID.randomUUID(), PASSWORD);
+  }
+
+  /** The Authorization header value of a user from {@link #newUser()}. */
+  protected static String basicAuth(UserDTO user) {
+    String credentials = user.getUsername() + ":" + PASSWORD;
+    return "Basic "
+        + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+  }
+
+  protected static AccountDTO account(UserDTO user, AccountCurrency currency) {
+    return user.getAccounts().stream()
+        .filter(candidate -> candidate.getCurrency() == currency)
+        .findFirst()
+        .orElseThrow();
+  }
+}
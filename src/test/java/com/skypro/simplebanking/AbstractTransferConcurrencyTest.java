@@ -0,0 +1,133 @@
+package com.skypro.simplebanking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.skypro.simplebanking.dto.AccountDTO;
+import com.skypro.simplebanking.dto.TransferRequest;
+import com.skypro.simplebanking.dto.UserDTO;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.exception.InsufficientFundsException;
+import com.skypro.simplebanking.repository.AccountRepository;
+import com.skypro.simplebanking.service.AccountService;
+import com.skypro.simplebanking.service.TransferService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.annotation.DirtiesContext;
+
+/**
+ * Many threads transfer back and forth between a few accounts at once, so transfers in opposite
+ * directions between the same pair overlap all the time. Every account has to end at its opening
+ * balance plus exactly the transfers that were acknowledged: a lost update or a transfer applied
+ * to one side only shows up as a mismatch, and the total has to be conserved. Each subclass runs
+ * it under one {@code app.accounts.lock-strategy}.
+ */
+@DirtiesContext
+abstract class AbstractTransferConcurrencyTest extends AbstractPostgresTest {
+  private static final int USERS = 4;
+  private static final int THREADS = 16;
+  private static final int TRANSFERS_PER_THREAD = 250;
+  private static final long DEPOSIT = 10_000;
+  private static final long MAX_TRANSFER = 200;
+
+  @Autowired private AccountService accountService;
+  @Autowired private TransferService transferService;
+  @Autowired private AccountRepository accountRepository;
+
+  @Test
+  void concurrentCrossTransfersConserveEveryBalance() throws Exception {
+    long[] userIds = new long[USERS];
+    long[] accountIds = new long[USERS];
+    AtomicLongArray expected = new AtomicLongArray(USERS);
+    for (int index = 0; index < USERS; index++) {
+      UserDTO user = newUser();
+      AccountDTO account = account(user, AccountCurrency.USD);
+      userIds[index] = user.getId();
+      accountIds[index] = account.getId();
+      AccountDTO funded = accountService.depositToAccount(user.getId(), account.getId(), DEPOSIT);
+      expected.set(index, funded.getAmount());
+    }
+    long openingTotal = sum(expected);
+
+    LongAdder applied = new LongAdder();
+    LongAdder rejected = new LongAdder();
+    Queue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<?>> workers = new ArrayList<>(THREADS);
+      for (int thread = 0; thread < THREADS; thread++) {
+        workers.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  ThreadLocalRandom random = ThreadLocalRandom.current();
+                  for (int done = 0; done < TRANSFERS_PER_THREAD; done++) {
+                    int from = random.nextInt(USERS);
+                    int to = (from + 1 + random.nextInt(USERS - 1)) % USERS;
+                    long amount = 1 + random.nextLong(MAX_TRANSFER);
+                    TransferRequest request = new TransferRequest();
+                    request.setFromAccountId(accountIds[from]);
+                    request.setToUserId(userIds[to]);
+                    request.setToAccountId(accountIds[to]);
+                    request.setAmount(amount);
+                    try {
+                      transferService.transfer(userIds[from], request);
+                      expected.addAndGet(from, -amount);
+                      expected.addAndGet(to, amount);
+                      applied.increment();
+                    } catch (InsufficientFundsException | OptimisticLockingFailureException e) {
+                      // Nothing was applied, which the balance check below holds it to.
+                      rejected.increment();
+                    } catch (RuntimeException e) {
+                      unexpected.add(e);
+                    }
+                  }
+                  return null;
+                }));
+      }
+      start.countDown();
+      for (Future<?> worker : workers) {
+        worker.get(5, TimeUnit.MINUTES);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(unexpected).isEmpty();
+    assertThat(applied.sum() + rejected.sum()).isEqualTo((long) THREADS * TRANSFERS_PER_THREAD);
+    assertThat(applied.sum()).isPositive();
+    long[] actual = new long[USERS];
+    for (int index = 0; index < USERS; index++) {
+      actual[index] = accountRepository.findById(accountIds[index]).orElseThrow().getAmount();
+    }
+    long actualTotal = 0;
+    for (int index = 0; index < USERS; index++) {
+      assertThat(actual[index])
+          .as("balance of account %d", accountIds[index])
+          .isEqualTo(expected.get(index));
+      actualTotal += actual[index];
+    }
+    assertThat(actualTotal).isEqualTo(openingTotal);
+  }
+
+  private static long sum(AtomicLongArray values) {
+    long total = 0;
+    for (int index = 0; index < values.length(); index++) {
+      total += values.get(index);
+    }
+    return total;
+  }
+}
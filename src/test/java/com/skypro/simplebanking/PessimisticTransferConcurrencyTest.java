@@ -0,0 +1,6 @@
+package com.skypro.simplebanking;
+
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = "app.accounts.lock-strategy=PESSIMISTIC")
+class PessimisticTransferConcurrencyTest extends AbstractTransferConcurrencyTest {}
@@ -0,0 +1,66 @@
+package com.skypro.simplebanking.analytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class TopBalancesTest {
+  @Test
+  void reportsLargestBalancesAtOrAboveTheBound() {
+    TopBalances top = new TopBalances(2, 4);
+    top.raiseBound(10);
+    top.update(1, 50);
+    top.update(2, 10);
+    top.update(3, 5);
+    top.update(4, 30);
+
+    assertThat(top.top()).containsExactly(1, 50, 4, 30);
+    assertThat(top.isShortened()).isFalse();
+  }
+
+  @Test
+  void evictionRaisesTheBound() {
+    TopBalances top = new TopBalances(2, 2);
+    top.update(1, 50);
+    top.update(2, 40);
+    top.update(3, 30);
+    // Account 3 was evicted at 30, so an account at 20 cannot be in the list any more.
+    top.update(4, 20);
+
+    assertThat(top.top()).containsExactly(1, 50, 2, 40);
+  }
+
+  @Test
+  void trackedAccountFallingBelowTheBoundShortensTheList() {
+    TopBalances top = new TopBalances(2, 2);
+    top.update(1, 50);
+    top.update(2, 40);
+    top.update(3, 30);
+
+    top.update(2, 10);
+
+    assertThat(top.top()).containsExactly(1, 50);
+    assertThat(top.isShortened()).isTrue();
+  }
+
+  @Test
+  void replacingWithALoadedListRestoresItAndClearsTheMark() {
+    TopBalances top = new TopBalances(2, 2);
+    top.update(1, 50);
+    top.update(2, 40);
+    top.update(3, 30);
+    top.update(2, 10);
+    TopBalances loaded = new TopBalances(2, 2);
+    loaded.update(1, 50);
+    loaded.update(3, 30);
+    loaded.raiseBound(10);
+
+    top.replaceWith(loaded);
+
+    assertThat(top.top()).containsExactly(1, 50, 3, 30);
+    assertThat(top.isShortened()).isFalse();
+    top.update(5, 60);
+    assertThat(top.top()).containsExactly(5, 60, 1, 50);
+    assertThat(loaded.top()).containsExactly(1, 50, 3, 30);
+  }
+}
@@ -0,0 +1,60 @@
+package com.skypro.simplebanking.configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.skypro.simplebanking.dto.BankingUserDetails;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+class CachingAuthenticationProviderTest {
+  private final UserDetailsService userDetailsService = mock(UserDetailsService.class);
+  private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+  private final CredentialCache credentialCache = mock(CredentialCache.class);
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Test
+  void timersAreRegisteredOnceAndRecordEveryAttempt() {
+    BankingUserDetails user = new BankingUserDetails(1, "user", "hash", false);
+    when(userDetailsService.loadUserByUsername("user")).thenReturn(user);
+    when(passwordEncoder.matches("password", "hash")).thenReturn(true);
+    when(credentialCache.get(any(), any())).thenReturn(Optional.empty());
+    CachingAuthenticationProvider provider =
+        new CachingAuthenticationProvider(
+            userDetailsService, passwordEncoder, credentialCache, meterRegistry);
+    int registered = meterRegistry.getMeters().size();
+
+    provider.authenticate(token("password"));
+    provider.authenticate(token("password"));
+    when(credentialCache.get("user", "password")).thenReturn(Optional.of(user));
+    provider.authenticate(token("password"));
+    assertThatThrownBy(() -> provider.authenticate(token("wrong")))
+        .isInstanceOf(BadCredentialsException.class);
+
+    assertThat(meterRegistry.getMeters()).hasSize(registered);
+    assertThat(count("password", "success")).isEqualTo(2);
+    assertThat(count("cache", "success")).isEqualTo(1);
+    assertThat(count("password", "failure")).isEqualTo(1);
+  }
+
+  private long count(String source, String outcome) {
+    return meterRegistry
+        .get("banking.auth")
+        .tag("source", source)
+        .tag("outcome", outcome)
+        .timer()
+        .count();
+  }
+
+  private static UsernamePasswordAuthenticationToken token(String password) {
+    return UsernamePasswordAuthenticationToken.unauthenticated("user", password);
+  }
+}
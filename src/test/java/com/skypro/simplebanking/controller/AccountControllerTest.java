@@ -0,0 +1,143 @@
+package com.skypro.simplebanking.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.skypro.simplebanking.AbstractPostgresTest;
+import com.skypro.simplebanking.dto.UserDTO;
+import com.skypro.simplebanking.entity.Account;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.entity.IdempotencyRecord;
+import com.skypro.simplebanking.repository.AccountRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+/** Deposits and withdrawals carrying an Idempotency-Key. */
+@AutoConfigureMockMvc
+class AccountControllerTest extends AbstractPostgresTest {
+  private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+  @Autowired private MockMvc mockMvc;
+  @Autowired private AccountRepository accountRepository;
+
+  @Test
+  void repeatedKeyReplaysTheFirstOutcome() throws Exception {
+    UserDTO user = newUser();
+    long accountId = account(user, AccountCurrency.USD).getId();
+
+    mockMvc
+        .perform(deposit(user, accountId, 100).header(IDEMPOTENCY_KEY, "deposit-1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.amount").value(Account.INITIAL_AMOUNT + 100));
+    mockMvc
+        .perform(deposit(user, accountId, 100).header(IDEMPOTENCY_KEY, "deposit-1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.amount").value(Account.INITIAL_AMOUNT + 100));
+
+    assertThat(balance(accountId)).isEqualTo(Account.INITIAL_AMOUNT + 100);
+  }
+
+  @Test
+  void requestsWithoutKeyAreAppliedEveryTime() throws Exception {
+    UserDTO user = newUser();
+    long accountId = account(user, AccountCurrency.USD).getId();
+
+    mockMvc.perform(deposit(user, accountId, 100)).andExpect(status().isOk());
+    mockMvc.perform(deposit(user, accountId, 100)).andExpect(status().isOk());
+
+    assertThat(balance(accountId)).isEqualTo(Account.INITIAL_AMOUNT + 200);
+  }
+
+  @Test
+  void keyReusedForADifferentRequestIsAConflict() throws Exception {
+    UserDTO user = newUser();
+    long accountId = account(user, AccountCurrency.EUR).getId();
+
+    mockMvc
+        .perform(deposit(user, accountId, 100).header(IDEMPOTENCY_KEY, "reused"))
+        .andExpect(status().isOk());
+    mockMvc
+        .perform(deposit(user, accountId, 200).header(IDEMPOTENCY_KEY, "reused"))
+        .andExpect(status().isConflict());
+    mockMvc
+        .perform(withdraw(user, accountId, 100).header(IDEMPOTENCY_KEY, "reused"))
+        .andExpect(status().isConflict());
+
+    assertThat(balance(accountId)).isEqualTo(Account.INITIAL_AMOUNT + 100);
+  }
+
+  @Test
+  void keysAreScopedToTheUser() throws Exception {
+    UserDTO first = newUser();
+    UserDTO second = newUser();
+    long firstAccountId = account(first, AccountCurrency.USD).getId();
+    long secondAccountId = account(second, AccountCurrency.USD).getId();
+
+    mockMvc
+        .perform(deposit(first, firstAccountId, 100).header(IDEMPOTENCY_KEY, "shared"))
+        .andExpect(status().isOk());
+    mockMvc
+        .perform(deposit(second, secondAccountId, 100).header(IDEMPOTENCY_KEY, "shared"))
+        .andExpect(status().isOk());
+
+    assertThat(balance(firstAccountId)).isEqualTo(Account.INITIAL_AMOUNT + 100);
+    assertThat(balance(secondAccountId)).isEqualTo(Account.INITIAL_AMOUNT + 100);
+  }
+
+  @Test
+  void failedRequestIsNotRecorded() throws Exception {
+    UserDTO user = newUser();
+    long accountId = account(user, AccountCurrency.RUB).getId();
+
+    mockMvc
+        .perform(withdraw(user, accountId, 100).header(IDEMPOTENCY_KEY, "retry"))
+        .andExpect(status().isBadRequest());
+    mockMvc.perform(deposit(user, accountId, 200)).andExpect(status().isOk());
+    mockMvc
+        .perform(withdraw(user, accountId, 100).header(IDEMPOTENCY_KEY, "retry"))
+        .andExpect(status().isOk());
+
+    assertThat(balance(accountId)).isEqualTo(Account.INITIAL_AMOUNT + 100);
+  }
+
+  @Test
+  void overLongKeyIsRejected() throws Exception {
+    UserDTO user = newUser();
+    long accountId = account(user, AccountCurrency.USD).getId();
+
+    mockMvc
+        .perform(
+            deposit(user, accountId, 100)
+                .header(IDEMPOTENCY_KEY, "k".repeat(IdempotencyRecord.MAX_KEY_LENGTH + 1)))
+        .andExpect(status().isBadRequest());
+
+    assertThat(balance(accountId)).isEqualTo(Account.INITIAL_AMOUNT);
+  }
+
+  private static MockHttpServletRequestBuilder deposit(UserDTO user, long accountId, long amount) {
+    return balanceChange("/account/deposit/", user, accountId, amount);
+  }
+
+  private static MockHttpServletRequestBuilder withdraw(UserDTO user, long accountId, long amount) {
+    return balanceChange("/account/withdraw/", user, accountId, amount);
+  }
+
+  private static MockHttpServletRequestBuilder balanceChange(
+      String path, UserDTO user, long accountId, long amount) {
+    return post(path + accountId)
+        .header(HttpHeaders.AUTHORIZATION, basicAuth(user))
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"amount\":" + amount + "}");
+  }
+
+  private long balance(long accountId) {
+    return accountRepository.findById(accountId).orElseThrow().getAmount();
+  }
+}
@@ -0,0 +1,106 @@
+package com.skypro.simplebanking.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skypro.simplebanking.AbstractPostgresTest;
+import com.skypro.simplebanking.dto.BatchTransferMode;
+import com.skypro.simplebanking.dto.BatchTransferRequest;
+import com.skypro.simplebanking.dto.TransferRequest;
+import com.skypro.simplebanking.dto.UserDTO;
+import com.skypro.simplebanking.entity.Account;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.service.AccountService;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+@AutoConfigureMockMvc
+class TransferControllerTest extends AbstractPostgresTest {
+  @Autowired private MockMvc mockMvc;
+  @Autowired private ObjectMapper objectMapper;
+  @Autowired private AccountService accountService;
+
+  @Test
+  void queuedTransferIsOnlyVisibleToItsSender() throws Exception {
+    UserDTO sender = newUser();
+    UserDTO recipient = newUser();
+    TransferRequest transfer = new TransferRequest();
+    transfer.setFromAccountId(account(sender, AccountCurrency.USD).getId());
+    transfer.setToUserId(recipient.getId());
+    transfer.setToAccountId(account(recipient, AccountCurrency.USD).getId());
+    transfer.setAmount(1);
+
+    String accepted =
+        mockMvc
+            .perform(
+                post("/transfer/async")
+                    .header(HttpHeaders.AUTHORIZATION, basicAuth(sender))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(transfer)))
+            .andExpect(status().isAccepted())
+            .andExpect(jsonPath("$.status").value("PENDING"))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    long id = objectMapper.readTree(accepted).get("id").asLong();
+
+    mockMvc
+        .perform(get("/transfer/" + id).header(HttpHeaders.AUTHORIZATION, basicAuth(sender)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.id").value(id));
+    mockMvc
+        .perform(get("/transfer/" + id).header(HttpHeaders.AUTHORIZATION, basicAuth(recipient)))
+        .andExpect(status().isNotFound());
+  }
+
+  @Test
+  void rejectedAllOrNothingBatchIsAConflictAndNotReplayed() throws Exception {
+    UserDTO sender = newUser();
+    UserDTO recipient = newUser();
+    long sourceId = account(sender, AccountCurrency.USD).getId();
+    TransferRequest transfer = new TransferRequest();
+    transfer.setFromAccountId(sourceId);
+    transfer.setToUserId(recipient.getId());
+    transfer.setToAccountId(account(recipient, AccountCurrency.USD).getId());
+    transfer.setAmount(Account.INITIAL_AMOUNT);
+    BatchTransferRequest batch = new BatchTransferRequest();
+    batch.setMode(BatchTransferMode.ALL_OR_NOTHING);
+    batch.setTransfers(List.of(transfer, transfer));
+    String body = objectMapper.writeValueAsString(batch);
+
+    mockMvc
+        .perform(
+            post("/transfer/batch")
+                .header(HttpHeaders.AUTHORIZATION, basicAuth(sender))
+                .header("Idempotency-Key", "batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+        .andExpect(status().isConflict())
+        .andExpect(jsonPath("$.committed").value(false))
+        .andExpect(jsonPath("$.applied").value(0))
+        .andExpect(jsonPath("$.rejected").value(1))
+        .andExpect(jsonPath("$.items[0].status").value("SKIPPED"))
+        .andExpect(jsonPath("$.items[1].status").value("REJECTED"));
+
+    // Funded now, the same request under the same key runs again instead of replaying the 409.
+    accountService.depositToAccount(sender.getId(), sourceId, Account.INITIAL_AMOUNT);
+    mockMvc
+        .perform(
+            post("/transfer/batch")
+                .header(HttpHeaders.AUTHORIZATION, basicAuth(sender))
+                .header("Idempotency-Key", "batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.committed").value(true))
+        .andExpect(jsonPath("$.applied").value(2));
+  }
+}
@@ -0,0 +1,114 @@
+package com.skypro.simplebanking.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.skypro.simplebanking.AbstractPostgresTest;
+import com.skypro.simplebanking.entity.User;
+import com.skypro.simplebanking.repository.UserRepository;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+@AutoConfigureMockMvc
+class UserProvisioningControllerTest extends AbstractPostgresTest {
+  private static final String ADMIN_HEADER = "X-SECURITY-ADMIN-KEY";
+
+  @Autowired private MockMvc mockMvc;
+  @Autowired private UserRepository userRepository;
+  @Autowired private PasswordEncoder passwordEncoder;
+
+  @Value("${app.security.admin-token}")
+  private String adminToken;
+
+  @Test
+  void csvSkipsHeaderAndBlankLinesAndKeepsCommasInPasswords() throws Exception {
+    String first = "csv-" + UUID.randomUUID();
+    String second = "csv-" + UUID.randomUUID();
+    String body =
+        "username,password\n"
+            + first
+            + ",pa,ss\n"
+            + "\n"
+            + second
+            + "\n"
+            + " "
+            + second
+            + " ,"
+            + PASSWORD
+            + "\n";
+
+    mockMvc
+        .perform(
+            post("/admin/users/bulk")
+                .header(ADMIN_HEADER, adminToken)
+                .contentType("text/csv")
+                .content(body))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.status").value("COMPLETED"))
+        .andExpect(jsonPath("$.read").value(3))
+        .andExpect(jsonPath("$.created").value(2))
+        .andExpect(jsonPath("$.skipped").value(0))
+        .andExpect(jsonPath("$.rejected").value(1));
+
+    assertThat(passwordOf(first)).matches(hash -> passwordEncoder.matches("pa,ss", hash));
+    assertThat(passwordOf(second)).matches(hash -> passwordEncoder.matches(PASSWORD, hash));
+  }
+
+  @Test
+  void ndjsonReadsOneUserPerLine() throws Exception {
+    String first = "ndjson-" + UUID.randomUUID();
+    String existing = newUser().getUsername();
+    String body =
+        "{\"username\":\""
+            + first
+            + "\",\"password\":\""
+            + PASSWORD
+            + "\"}\n"
+            + "{\"username\":\""
+            + existing
+            + "\",\"password\":\""
+            + PASSWORD
+            + "\"}\n"
+            + "{\"username\":\""
+            + first
+            + "\"}\n";
+
+    mockMvc
+        .perform(
+            post("/admin/users/bulk")
+                .header(ADMIN_HEADER, adminToken)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(body))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.status").value("COMPLETED"))
+        .andExpect(jsonPath("$.read").value(3))
+        .andExpect(jsonPath("$.created").value(1))
+        .andExpect(jsonPath("$.skipped").value(1))
+        .andExpect(jsonPath("$.rejected").value(1));
+
+    assertThat(passwordOf(first)).matches(hash -> passwordEncoder.matches(PASSWORD, hash));
+  }
+
+  @Test
+  void importRequiresTheAdminKey() throws Exception {
+    mockMvc
+        .perform(
+            post("/admin/users/bulk")
+                .header(ADMIN_HEADER, "wrong")
+                .contentType("text/csv")
+                .content("csv-" + UUID.randomUUID() + "," + PASSWORD + "\n"))
+        .andExpect(status().isUnauthorized());
+  }
+
+  private String passwordOf(String username) {
+    return userRepository.findByUsername(username).map(User::getPassword).orElseThrow();
+  }
+}
@@ -0,0 +1,120 @@
+package com.skypro.simplebanking.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.skypro.simplebanking.AbstractPostgresTest;
+import com.skypro.simplebanking.dto.AsyncTransferDTO;
+import com.skypro.simplebanking.dto.TransferRequest;
+import com.skypro.simplebanking.dto.UserDTO;
+import com.skypro.simplebanking.entity.Account;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.entity.BalanceEngineCheckpoint;
+import com.skypro.simplebanking.entity.PendingTransferStatus;
+import com.skypro.simplebanking.repository.AccountRepository;
+import com.skypro.simplebanking.repository.BalanceEngineCheckpointRepository;
+import com.skypro.simplebanking.repository.PendingTransferRepository;
+import com.skypro.simplebanking.service.AsyncTransferService;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@TestPropertySource(properties = "app.accounts.engine.enabled=true")
+@DirtiesContext
+class BalanceEngineTest extends AbstractPostgresTest {
+  @Autowired private BalanceEngine balanceEngine;
+  @Autowired private AsyncTransferService asyncTransferService;
+  @Autowired private PendingTransferRepository pendingTransferRepository;
+  @Autowired private AccountRepository accountRepository;
+  @Autowired private BalanceEngineCheckpointRepository checkpointRepository;
+
+  @DynamicPropertySource
+  static void walDirectory(DynamicPropertyRegistry registry) throws IOException {
+    Path directory = Files.createTempDirectory("balance-engine-wal");
+    registry.add("app.accounts.engine.wal-directory", directory::toString);
+  }
+
+  @Test
+  void queuedTransferHandedInAgainIsAppliedOnce() {
+    UserDTO sender = newUser();
+    UserDTO recipient = newUser();
+    long sourceId = account(sender, AccountCurrency.USD).getId();
+    long destinationId = account(recipient, AccountCurrency.USD).getId();
+    balanceEngine.deposit(sender.getId(), sourceId, 99);
+    TransferRequest transfer = new TransferRequest();
+    transfer.setFromAccountId(sourceId);
+    transfer.setToUserId(recipient.getId());
+    transfer.setToAccountId(destinationId);
+    transfer.setAmount(40);
+    AsyncTransferDTO queued = asyncTransferService.submit(sender.getId(), transfer);
+    long[] senderIds = {sender.getId()};
+    long[] pendingTransferIds = {queued.getId()};
+    int[] applied = {0};
+
+    // The second call stands for the drain retrying after its transaction rolled back.
+    for (int attempt = 0; attempt < 2; attempt++) {
+      RuntimeException[] failures =
+          balanceEngine.transfer(
+              senderIds,
+              List.of(transfer),
+              pendingTransferIds,
+              false,
+              (index, sourceCurrency, sourceBalance, destinationCurrency, credited, balance) ->
+                  applied[0]++);
+      assertThat(failures).containsOnlyNulls();
+    }
+
+    assertThat(applied[0]).isEqualTo(1);
+    assertThat(balanceEngine.getAccount(sender.getId(), sourceId).getAmount()).isEqualTo(60);
+    assertThat(balanceEngine.getAccount(recipient.getId(), destinationId).getAmount())
+        .isEqualTo(Account.INITIAL_AMOUNT + 40);
+
+    balanceEngine.checkpoint();
+
+    assertThat(pendingTransferRepository.findById(queued.getId()).orElseThrow().getStatus())
+        .isEqualTo(PendingTransferStatus.COMPLETED);
+    assertThat(accountRepository.findById(sourceId).orElseThrow().getAmount()).isEqualTo(60);
+    assertThat(accountRepository.findById(destinationId).orElseThrow().getAmount())
+        .isEqualTo(Account.INITIAL_AMOUNT + 40);
+  }
+
+  @Test
+  @DirtiesContext
+  void failedSyncStopsTheEngine() {
+    UserDTO user = newUser();
+    long accountId = account(user, AccountCurrency.EUR).getId();
+    balanceEngine.deposit(user.getId(), accountId, 10);
+    balanceEngine.checkpoint();
+    long checkpointed = lastCheckpointedSequence();
+
+    WriteAheadLog wal = (WriteAheadLog) ReflectionTestUtils.getField(balanceEngine, "wal");
+    wal.fail(new UncheckedIOException(new IOException("disk gone")));
+
+    assertThatThrownBy(() -> balanceEngine.deposit(user.getId(), accountId, 10))
+        .isInstanceOf(IllegalStateException.class);
+    assertThatThrownBy(() -> balanceEngine.withdraw(user.getId(), accountId, 1))
+        .isInstanceOf(IllegalStateException.class);
+    assertThatThrownBy(() -> balanceEngine.getAccount(user.getId(), accountId))
+        .isInstanceOf(IllegalStateException.class);
+    balanceEngine.checkpoint();
+    assertThat(lastCheckpointedSequence()).isEqualTo(checkpointed);
+    assertThat(accountRepository.findById(accountId).orElseThrow().getAmount())
+        .isEqualTo(Account.INITIAL_AMOUNT + 10);
+  }
+
+  private long lastCheckpointedSequence() {
+    return checkpointRepository
+        .findById(1)
+        .map(BalanceEngineCheckpoint::getLastSequence)
+        .orElse(0L);
+  }
+}
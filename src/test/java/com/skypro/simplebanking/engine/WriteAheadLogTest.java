@@ -0,0 +1,195 @@
+package com.skypro.simplebanking.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class WriteAheadLogTest {
+  private static final int SEGMENT_RECORDS = 3;
+
+  @TempDir Path directory;
+
+  @Test
+  void replaysOnlyRecordsAfterTheCheckpointedSequence() throws IOException {
+    write(1, 5, 100);
+
+    List<WalRecord> replayed = new ArrayList<>();
+    long lastSequence = open(100).replay(3, record -> replayed.add(copy(record)));
+
+    assertThat(lastSequence).isEqualTo(5);
+    assertThat(replayed).extracting(record -> record.sequence).containsExactly(4L, 5L);
+    WalRecord last = replayed.get(1);
+    assertThat(last.type).isEqualTo(WalRecord.TRANSFER);
+    assertThat(last.accountId).isEqualTo(5);
+    assertThat(last.counterpartyAccountId).isEqualTo(1005);
+    assertThat(last.debited).isEqualTo(50);
+    assertThat(last.credited).isEqualTo(45);
+    assertThat(last.balance).isEqualTo(500);
+    assertThat(last.counterpartyBalance).isEqualTo(5000);
+    assertThat(last.pendingTransferId).isEqualTo(9005);
+  }
+
+  @Test
+  void replaysAcrossRotatedSegments() throws IOException {
+    write(1, 7, SEGMENT_RECORDS);
+
+    assertThat(segments()).hasSize(3);
+    assertThat(sequences(0)).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L);
+  }
+
+  @Test
+  void rotatedSegmentsCanBeDeletedOnceCheckpointed() throws IOException {
+    WriteAheadLog wal = open(100);
+    wal.start(1);
+    append(wal, 1, 4);
+    List<Path> checkpointed = wal.rotate();
+    append(wal, 5, 6);
+    wal.delete(checkpointed);
+    wal.close();
+
+    assertThat(checkpointed).hasSize(1);
+    assertThat(segments()).hasSize(1);
+    assertThat(sequences(4)).containsExactly(5L, 6L);
+  }
+
+  @Test
+  void stopsAtTheEndOfAPartlyFilledSegmentAndContinuesAfterIt() throws IOException {
+    write(1, 2, 100);
+
+    WriteAheadLog wal = open(100);
+    long lastSequence = wal.replay(0, record -> {});
+    wal.start(lastSequence + 1);
+    append(wal, lastSequence + 1, lastSequence + 1);
+    wal.close();
+
+    assertThat(lastSequence).isEqualTo(2);
+    assertThat(segments()).hasSize(2);
+    assertThat(sequences(0)).containsExactly(1L, 2L, 3L);
+  }
+
+  @Test
+  void stopsAtATornTailRecord() throws IOException {
+    write(1, 3, 100);
+    // Only the first half of the last record reached the disk.
+    overwrite(
+        segments().get(0),
+        2L * WriteAheadLog.RECORD_SIZE + WriteAheadLog.RECORD_SIZE / 2,
+        new byte[WriteAheadLog.RECORD_SIZE - WriteAheadLog.RECORD_SIZE / 2]);
+
+    assertThat(sequences(0)).containsExactly(1L, 2L);
+  }
+
+  @Test
+  void stopsAtARecordWithABadChecksum() throws IOException {
+    write(1, 3, 100);
+    overwrite(segments().get(0), 2L * WriteAheadLog.RECORD_SIZE + 30, new byte[] {0x7F});
+
+    assertThat(sequences(0)).containsExactly(1L, 2L);
+  }
+
+  @Test
+  void stopsAtTheFirstGapEvenIfLaterSegmentsAreIntact() throws IOException {
+    write(1, 6, SEGMENT_RECORDS);
+    overwrite(segments().get(0), WriteAheadLog.RECORD_SIZE + 30, new byte[] {0x7F});
+
+    assertThat(sequences(0)).containsExactly(1L);
+  }
+
+  @Test
+  void failedSyncFailsTheLogForGood() throws IOException {
+    WriteAheadLog wal = open(100);
+    wal.start(1);
+    wal.awaitDurable(append(wal, 1, 1));
+
+    wal.fail(new UncheckedIOException(new IOException("disk gone")));
+    long sequence = append(wal, 2, 2);
+
+    assertThat(wal.hasFailed()).isTrue();
+    assertThatThrownBy(() -> wal.awaitDurable(sequence))
+        .isInstanceOf(IllegalStateException.class);
+    assertThatThrownBy(wal::rotate).isInstanceOf(IOException.class);
+    // What was durable before the failure stays acknowledged.
+    wal.awaitDurable(1);
+    wal.close();
+  }
+
+  private WriteAheadLog open(int segmentRecords) throws IOException {
+    return new WriteAheadLog(directory, segmentRecords * WriteAheadLog.RECORD_SIZE);
+  }
+
+  private void write(long first, long last, int segmentRecords) throws IOException {
+    WriteAheadLog wal = open(segmentRecords);
+    wal.start(first);
+    wal.awaitDurable(append(wal, first, last));
+    wal.close();
+  }
+
+  /** Appends records {@code first..last}, each derived from its sequence. */
+  private static long append(WriteAheadLog wal, long first, long last) throws IOException {
+    WalRecord record = new WalRecord();
+    long sequence = -1;
+    for (long index = first; index <= last; index++) {
+      record.set(
+          WalRecord.TRANSFER,
+          index,
+          1000 + index,
+          10 * index,
+          9 * index,
+          100 * index,
+          1000 * index,
+          9000 + index);
+      record.timestampMicros = index;
+      sequence = wal.append(record);
+      assertThat(sequence).isEqualTo(index);
+    }
+    return sequence;
+  }
+
+  private List<Long> sequences(long afterSequence) throws IOException {
+    List<Long> sequences = new ArrayList<>();
+    open(100).replay(afterSequence, record -> sequences.add(record.sequence));
+    return sequences;
+  }
+
+  private List<Path> segments() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.sorted().collect(Collectors.toList());
+    }
+  }
+
+  private static void overwrite(Path path, long position, byte[] bytes) throws IOException {
+    try (FileChannel file = FileChannel.open(path, StandardOpenOption.WRITE)) {
+      file.write(ByteBuffer.wrap(bytes), position);
+    }
+  }
+
+  private static WalRecord copy(WalRecord record) {
+    WalRecord copy =
+        new WalRecord()
+            .set(
+                record.type,
+                record.accountId,
+                record.counterpartyAccountId,
+                record.debited,
+                record.credited,
+                record.balance,
+                record.counterpartyBalance,
+                record.pendingTransferId);
+    copy.sequence = record.sequence;
+    copy.timestampMicros = record.timestampMicros;
+    return copy;
+  }
+}
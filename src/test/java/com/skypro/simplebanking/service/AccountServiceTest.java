@@ -0,0 +1,116 @@
+package com.skypro.simplebanking.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.skypro.simplebanking.AbstractPostgresTest;
+import com.skypro.simplebanking.dto.AccountDTO;
+import com.skypro.simplebanking.dto.UserDTO;
+import com.skypro.simplebanking.entity.Account;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.exception.AccountNotFoundException;
+import com.skypro.simplebanking.exception.InsufficientFundsException;
+import com.skypro.simplebanking.repository.AccountRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/** Deposits and withdrawals are single conditional UPDATEs of the account row. */
+class AccountServiceTest extends AbstractPostgresTest {
+  @Autowired private AccountService accountService;
+  @Autowired private AccountRepository accountRepository;
+
+  @Test
+  void depositAndWithdrawalReturnTheNewBalance() {
+    UserDTO user = newUser();
+    long accountId = account(user, AccountCurrency.USD).getId();
+
+    AccountDTO deposited = accountService.depositToAccount(user.getId(), accountId, 500);
+    AccountDTO withdrawn = accountService.withdrawFromAccount(user.getId(), accountId, 200);
+
+    assertThat(deposited.getAmount()).isEqualTo(Account.INITIAL_AMOUNT + 500);
+    assertThat(withdrawn.getAmount()).isEqualTo(Account.INITIAL_AMOUNT + 300);
+    assertThat(balance(accountId)).isEqualTo(Account.INITIAL_AMOUNT + 300);
+  }
+
+  @Test
+  void withdrawalBeyondTheBalanceChangesNothing() {
+    UserDTO user = newUser();
+    long accountId = account(user, AccountCurrency.EUR).getId();
+    accountService.depositToAccount(user.getId(), accountId, 100);
+
+    assertThatThrownBy(
+            () ->
+                accountService.withdrawFromAccount(
+                    user.getId(), accountId, Account.INITIAL_AMOUNT + 101))
+        .isInstanceOf(InsufficientFundsException.class);
+    assertThat(balance(accountId)).isEqualTo(Account.INITIAL_AMOUNT + 100);
+  }
+
+  @Test
+  void anotherUsersAccountIsNotFound() {
+    UserDTO owner = newUser();
+    UserDTO other = newUser();
+    long accountId = account(owner, AccountCurrency.USD).getId();
+
+    assertThatThrownBy(() -> accountService.depositToAccount(other.getId(), accountId, 10))
+        .isInstanceOf(AccountNotFoundException.class);
+    assertThatThrownBy(() -> accountService.withdrawFromAccount(other.getId(), accountId, 1))
+        .isInstanceOf(AccountNotFoundException.class);
+    assertThat(balance(accountId)).isEqualTo(Account.INITIAL_AMOUNT);
+  }
+
+  @Test
+  void concurrentWithdrawalsNeverOverdraw() throws Exception {
+    int threads = 16;
+    long amount = 100;
+    UserDTO user = newUser();
+    long accountId = account(user, AccountCurrency.RUB).getId();
+    long opening =
+        accountService.depositToAccount(user.getId(), accountId, 1_000 - Account.INITIAL_AMOUNT)
+            .getAmount();
+
+    LongAdder withdrawn = new LongAdder();
+    LongAdder refused = new LongAdder();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> workers = new ArrayList<>(threads);
+      for (int thread = 0; thread < threads; thread++) {
+        workers.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  try {
+                    accountService.withdrawFromAccount(user.getId(), accountId, amount);
+                    withdrawn.increment();
+                  } catch (InsufficientFundsException e) {
+                    refused.increment();
+                  }
+                  return null;
+                }));
+      }
+      start.countDown();
+      for (Future<?> worker : workers) {
+        worker.get(1, TimeUnit.MINUTES);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(withdrawn.sum()).isEqualTo(opening / amount);
+    assertThat(refused.sum()).isEqualTo(threads - opening / amount);
+    assertThat(balance(accountId)).isEqualTo(opening - withdrawn.sum() * amount);
+  }
+
+  private long balance(long accountId) {
+    return accountRepository.findById(accountId).orElseThrow().getAmount();
+  }
+}
@@ -0,0 +1,159 @@
+package com.skypro.simplebanking.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+
+import com.skypro.simplebanking.AbstractPostgresTest;
+import com.skypro.simplebanking.dto.AsyncTransferDTO;
+import com.skypro.simplebanking.dto.TransferRequest;
+import com.skypro.simplebanking.dto.UserDTO;
+import com.skypro.simplebanking.entity.Account;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.entity.PendingTransfer;
+import com.skypro.simplebanking.entity.PendingTransferStatus;
+import com.skypro.simplebanking.exception.AccountNotFoundException;
+import com.skypro.simplebanking.exception.InvalidAmountException;
+import com.skypro.simplebanking.exception.TransferNotFoundException;
+import com.skypro.simplebanking.repository.AccountRepository;
+import com.skypro.simplebanking.repository.PendingTransferRepository;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+/** Transfers queued in the outbox and drained by hand, as a worker would. */
+class AsyncTransferServiceTest extends AbstractPostgresTest {
+  @Autowired private AsyncTransferService asyncTransferService;
+  @Autowired private AccountService accountService;
+  @Autowired private AccountRepository accountRepository;
+  @Autowired private PendingTransferRepository pendingTransferRepository;
+  @SpyBean private TransferService transferService;
+
+  private UserDTO sender;
+  private UserDTO recipient;
+  private long sourceId;
+  private long destinationId;
+
+  @BeforeEach
+  void fund() {
+    sender = newUser();
+    recipient = newUser();
+    sourceId = account(sender, AccountCurrency.USD).getId();
+    destinationId = account(recipient, AccountCurrency.USD).getId();
+    accountService.depositToAccount(sender.getId(), sourceId, 100 - Account.INITIAL_AMOUNT);
+  }
+
+  @Test
+  void submissionOnlyQueuesTheTransfer() {
+    AsyncTransferDTO queued = asyncTransferService.submit(sender.getId(), transfer(60));
+
+    assertThat(queued.getStatus()).isEqualTo(PendingTransferStatus.PENDING);
+    assertThat(asyncTransferService.getTransfer(sender.getId(), queued.getId()).getStatus())
+        .isEqualTo(PendingTransferStatus.PENDING);
+    assertThat(balance(sourceId)).isEqualTo(100);
+    assertThat(balance(destinationId)).isEqualTo(Account.INITIAL_AMOUNT);
+  }
+
+  @Test
+  void submissionRejectsWhatItCanCheckUpFront() {
+    assertThatThrownBy(() -> asyncTransferService.submit(recipient.getId(), transfer(10)))
+        .isInstanceOf(AccountNotFoundException.class);
+    assertThatThrownBy(() -> asyncTransferService.submit(sender.getId(), transfer(-1)))
+        .isInstanceOf(InvalidAmountException.class);
+  }
+
+  @Test
+  void drainAppliesValidTransfersAndRejectsTheRest() {
+    AsyncTransferDTO applied = asyncTransferService.submit(sender.getId(), transfer(60));
+    // Only 40 are left once the first one is applied.
+    AsyncTransferDTO rejected = asyncTransferService.submit(sender.getId(), transfer(60));
+
+    drainAll();
+
+    assertThat(status(applied)).isEqualTo(PendingTransferStatus.COMPLETED);
+    AsyncTransferDTO result = asyncTransferService.getTransfer(sender.getId(), rejected.getId());
+    assertThat(result.getStatus()).isEqualTo(PendingTransferStatus.REJECTED);
+    assertThat(result.getFailureReason()).isNotBlank();
+    assertThat(result.getProcessedAt()).isNotNull();
+    assertThat(balance(sourceId)).isEqualTo(40);
+    assertThat(balance(destinationId)).isEqualTo(Account.INITIAL_AMOUNT + 60);
+  }
+
+  @Test
+  void transferThatCannotBeAppliedIsFailedWithoutStallingTheOthers() {
+    AsyncTransferDTO first = asyncTransferService.submit(sender.getId(), transfer(10));
+    AsyncTransferDTO poison = asyncTransferService.submit(sender.getId(), transfer(20));
+    AsyncTransferDTO last = asyncTransferService.submit(sender.getId(), transfer(30));
+    doThrow(new IllegalStateException("Cannot apply"))
+        .when(transferService)
+        .applyQueued(
+            argThat(
+                queued ->
+                    queued.stream().anyMatch(queuedTransfer -> isPoison(queuedTransfer, poison))));
+
+    drainAll();
+
+    assertThat(status(first)).isEqualTo(PendingTransferStatus.COMPLETED);
+    assertThat(status(poison)).isEqualTo(PendingTransferStatus.FAILED);
+    assertThat(status(last)).isEqualTo(PendingTransferStatus.COMPLETED);
+    assertThat(balance(sourceId)).isEqualTo(60);
+    assertThat(balance(destinationId)).isEqualTo(Account.INITIAL_AMOUNT + 40);
+  }
+
+  @Test
+  void transfersOfOtherUsersAreNotFound() {
+    AsyncTransferDTO queued = asyncTransferService.submit(sender.getId(), transfer(10));
+
+    assertThatThrownBy(() -> asyncTransferService.getTransfer(recipient.getId(), queued.getId()))
+        .isInstanceOf(TransferNotFoundException.class);
+  }
+
+  @Test
+  void processedTransfersAreRemovedAfterTheRetentionPeriod() {
+    AsyncTransferDTO old = asyncTransferService.submit(sender.getId(), transfer(10));
+    AsyncTransferDTO recent = asyncTransferService.submit(sender.getId(), transfer(10));
+    drainAll();
+    AsyncTransferDTO pending = asyncTransferService.submit(sender.getId(), transfer(10));
+    PendingTransfer processed = pendingTransferRepository.findById(old.getId()).orElseThrow();
+    processed.setProcessedAt(Instant.now().minus(Duration.ofDays(30)));
+    pendingTransferRepository.save(processed);
+
+    asyncTransferService.removeProcessedTransfers();
+
+    assertThat(pendingTransferRepository.findById(old.getId())).isEmpty();
+    assertThat(pendingTransferRepository.findById(recent.getId())).isPresent();
+    assertThat(pendingTransferRepository.findById(pending.getId())).isPresent();
+    drainAll();
+  }
+
+  private static boolean isPoison(PendingTransfer queued, AsyncTransferDTO poison) {
+    return queued.getId() == poison.getId();
+  }
+
+  private void drainAll() {
+    while (asyncTransferService.drain(0, 1) > 0) {
+      // Every lane at once.
+    }
+  }
+
+  private PendingTransferStatus status(AsyncTransferDTO transfer) {
+    return asyncTransferService.getTransfer(sender.getId(), transfer.getId()).getStatus();
+  }
+
+  private TransferRequest transfer(long amount) {
+    TransferRequest transfer = new TransferRequest();
+    transfer.setFromAccountId(sourceId);
+    transfer.setToUserId(recipient.getId());
+    transfer.setToAccountId(destinationId);
+    transfer.setAmount(amount);
+    return transfer;
+  }
+
+  private long balance(long accountId) {
+    return accountRepository.findById(accountId).orElseThrow().getAmount();
+  }
+}
@@ -0,0 +1,87 @@
+package com.skypro.simplebanking.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.skypro.simplebanking.AbstractPostgresTest;
+import com.skypro.simplebanking.dto.UserDTO;
+import com.skypro.simplebanking.entity.Account;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Balances at a point in time come from a snapshot plus the ledger entries around it, so the same
+ * answer is expected before and after a snapshot run covers the moment asked about.
+ */
+@TestPropertySource(properties = "app.accounts.snapshots.settle-millis=0")
+class BalanceHistoryServiceTest extends AbstractPostgresTest {
+  @Autowired private BalanceHistoryService balanceHistoryService;
+  @Autowired private AccountService accountService;
+
+  @Test
+  void balanceAtIsTheSameBeforeAndAfterASnapshot() throws InterruptedException {
+    UserDTO user = newUser();
+    long accountId = account(user, AccountCurrency.USD).getId();
+    Instant created = tick();
+    accountService.depositToAccount(user.getId(), accountId, 100);
+    Instant deposited = tick();
+    accountService.withdrawFromAccount(user.getId(), accountId, 30);
+    Instant withdrawn = tick();
+
+    // No snapshot of the account yet: walked back from the current balance.
+    assertBalances(
+        user, accountId, created, deposited, withdrawn, withdrawn, Account.INITIAL_AMOUNT + 70);
+
+    balanceHistoryService.takeSnapshots();
+    accountService.depositToAccount(user.getId(), accountId, 50);
+    Instant afterSnapshot = tick();
+
+    // Before the snapshot: walked back from it; after it: the snapshot plus later entries.
+    assertBalances(
+        user,
+        accountId,
+        created,
+        deposited,
+        withdrawn,
+        afterSnapshot,
+        Account.INITIAL_AMOUNT + 120);
+
+    balanceHistoryService.takeSnapshots();
+    assertBalances(
+        user,
+        accountId,
+        created,
+        deposited,
+        withdrawn,
+        afterSnapshot,
+        Account.INITIAL_AMOUNT + 120);
+  }
+
+  private void assertBalances(
+      UserDTO user,
+      long accountId,
+      Instant created,
+      Instant deposited,
+      Instant withdrawn,
+      Instant latest,
+      long latestBalance) {
+    assertThat(balanceAt(user, accountId, created)).isEqualTo(Account.INITIAL_AMOUNT);
+    assertThat(balanceAt(user, accountId, deposited)).isEqualTo(Account.INITIAL_AMOUNT + 100);
+    assertThat(balanceAt(user, accountId, withdrawn)).isEqualTo(Account.INITIAL_AMOUNT + 70);
+    assertThat(balanceAt(user, accountId, latest)).isEqualTo(latestBalance);
+  }
+
+  private long balanceAt(UserDTO user, long accountId, Instant at) {
+    return balanceHistoryService.getBalanceAt(user.getId(), accountId, at).getAmount();
+  }
+
+  /** A moment strictly between the ledger entries written before and after it. */
+  private static Instant tick() throws InterruptedException {
+    Thread.sleep(5);
+    Instant now = Instant.now();
+    Thread.sleep(5);
+    return now;
+  }
+}
@@ -0,0 +1,174 @@
+package com.skypro.simplebanking.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.entity.ExchangeRate;
+import com.skypro.simplebanking.exception.InvalidAmountException;
+import com.skypro.simplebanking.exception.WrongCurrencyException;
+import com.skypro.simplebanking.repository.ExchangeRateRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ExchangeRatesTest {
+  private static final BigInteger LONG_MAX = BigInteger.valueOf(Long.MAX_VALUE);
+
+  private final ExchangeRateRepository exchangeRateRepository = mock(ExchangeRateRepository.class);
+
+  @TempDir Path directory;
+
+  @Test
+  void sameCurrencyIsNotConverted() {
+    ExchangeRates rates = fromDatabase();
+
+    assertThat(rates.supports(AccountCurrency.RUB, AccountCurrency.RUB)).isTrue();
+    assertThat(rates.convert(Long.MAX_VALUE, AccountCurrency.RUB, AccountCurrency.RUB))
+        .isEqualTo(Long.MAX_VALUE);
+  }
+
+  @Test
+  void pairWithoutRateCannotBeConverted() {
+    ExchangeRates rates = fromDatabase(rate(AccountCurrency.USD, AccountCurrency.EUR, 920_000));
+
+    assertThat(rates.supports(AccountCurrency.USD, AccountCurrency.EUR)).isTrue();
+    assertThat(rates.supports(AccountCurrency.EUR, AccountCurrency.USD)).isFalse();
+    assertThatThrownBy(() -> rates.convert(100, AccountCurrency.EUR, AccountCurrency.USD))
+        .isInstanceOf(WrongCurrencyException.class);
+  }
+
+  @Test
+  void convertsAndRoundsDown() {
+    ExchangeRates rates = fromDatabase(rate(AccountCurrency.USD, AccountCurrency.EUR, 920_000));
+
+    assertThat(rates.convert(0, AccountCurrency.USD, AccountCurrency.EUR)).isZero();
+    assertThat(rates.convert(100, AccountCurrency.USD, AccountCurrency.EUR)).isEqualTo(92);
+    assertThat(rates.convert(101, AccountCurrency.USD, AccountCurrency.EUR)).isEqualTo(92);
+    // Above SCALE the whole and fractional parts are converted separately.
+    assertThat(rates.convert(12_345_678_901L, AccountCurrency.USD, AccountCurrency.EUR))
+        .isEqualTo(11_358_024_588L);
+  }
+
+  @Test
+  void matchesExactArithmeticForAnyAmountAndRate() {
+    SplittableRandom random = new SplittableRandom(42);
+    for (int attempt = 0; attempt < 10_000; attempt++) {
+      long rateMicros = 1 + random.nextLong(Long.MAX_VALUE / ExchangeRates.SCALE);
+      if (attempt % 2 == 0) {
+        rateMicros = 1 + random.nextLong(1_000 * ExchangeRates.SCALE);
+      }
+      long amount = random.nextLong(Long.MAX_VALUE);
+      if (attempt % 3 == 0) {
+        amount = random.nextLong(1_000_000_000L);
+      }
+      ExchangeRates rates =
+          fromDatabase(rate(AccountCurrency.USD, AccountCurrency.RUB, rateMicros));
+      BigInteger exact =
+          BigInteger.valueOf(amount)
+              .multiply(BigInteger.valueOf(rateMicros))
+              .divide(BigInteger.valueOf(ExchangeRates.SCALE));
+      long convertedAmount = amount;
+      if (exact.compareTo(LONG_MAX) > 0 || (amount > 0 && exact.signum() == 0)) {
+        assertThatThrownBy(
+                () -> rates.convert(convertedAmount, AccountCurrency.USD, AccountCurrency.RUB))
+            .isInstanceOf(InvalidAmountException.class);
+      } else {
+        assertThat(rates.convert(amount, AccountCurrency.USD, AccountCurrency.RUB))
+            .as("%d at %d", amount, rateMicros)
+            .isEqualTo(exact.longValueExact());
+      }
+    }
+  }
+
+  @Test
+  void amountThatConvertsToNothingIsRejected() {
+    ExchangeRates rates = fromDatabase(rate(AccountCurrency.RUB, AccountCurrency.USD, 10_900));
+
+    assertThatThrownBy(() -> rates.convert(91, AccountCurrency.RUB, AccountCurrency.USD))
+        .isInstanceOf(InvalidAmountException.class)
+        .hasMessageContaining("too small");
+    assertThat(rates.convert(92, AccountCurrency.RUB, AccountCurrency.USD)).isEqualTo(1);
+  }
+
+  @Test
+  void amountThatOverflowsIsRejected() {
+    ExchangeRates rates = fromDatabase(rate(AccountCurrency.USD, AccountCurrency.RUB, 91_500_000));
+
+    assertThatThrownBy(
+            () -> rates.convert(Long.MAX_VALUE / 10, AccountCurrency.USD, AccountCurrency.RUB))
+        .isInstanceOf(InvalidAmountException.class)
+        .hasMessageContaining("too large");
+  }
+
+  @Test
+  void loadsRatesFromFile() throws IOException {
+    Path file = directory.resolve("rates.properties");
+    Files.writeString(file, "# per unit of the source\nUSD.EUR=0.92\n EUR.USD = 1.087 \n");
+    ExchangeRates rates = new ExchangeRates(exchangeRateRepository, file.toString(), registry());
+
+    rates.refresh();
+
+    assertThat(rates.convert(1_000, AccountCurrency.USD, AccountCurrency.EUR)).isEqualTo(920);
+    assertThat(rates.convert(1_000, AccountCurrency.EUR, AccountCurrency.USD)).isEqualTo(1_087);
+    assertThat(rates.supports(AccountCurrency.USD, AccountCurrency.RUB)).isFalse();
+  }
+
+  @Test
+  void failedRefreshKeepsThePreviousRates() throws IOException {
+    Path file = directory.resolve("rates.properties");
+    Files.writeString(file, "USD.EUR=0.92\n");
+    ExchangeRates rates = new ExchangeRates(exchangeRateRepository, file.toString(), registry());
+    rates.refresh();
+
+    for (String broken : List.of("USD=0.92\n", "USD.EUR=0\n", "USD.XYZ=1\n", "USD.EUR=abc\n")) {
+      Files.writeString(file, broken);
+      rates.refresh();
+      assertThat(rates.convert(100, AccountCurrency.USD, AccountCurrency.EUR))
+          .as(broken)
+          .isEqualTo(92);
+    }
+    Files.delete(file);
+    rates.refresh();
+    assertThat(rates.convert(100, AccountCurrency.USD, AccountCurrency.EUR)).isEqualTo(92);
+  }
+
+  @Test
+  void failedDatabaseRefreshKeepsThePreviousRates() {
+    ExchangeRates rates = fromDatabase(rate(AccountCurrency.USD, AccountCurrency.EUR, 920_000));
+    when(exchangeRateRepository.findAll())
+        .thenReturn(List.of(rate(AccountCurrency.USD, AccountCurrency.EUR, -1)));
+
+    rates.refresh();
+
+    assertThat(rates.convert(100, AccountCurrency.USD, AccountCurrency.EUR)).isEqualTo(92);
+  }
+
+  private ExchangeRates fromDatabase(ExchangeRate... rates) {
+    when(exchangeRateRepository.findAll()).thenReturn(List.of(rates));
+    ExchangeRates exchangeRates = new ExchangeRates(exchangeRateRepository, "", registry());
+    exchangeRates.refresh();
+    return exchangeRates;
+  }
+
+  private static ExchangeRate rate(
+      AccountCurrency source, AccountCurrency target, long rateMicros) {
+    ExchangeRate rate = new ExchangeRate();
+    rate.setSourceCurrency(source);
+    rate.setTargetCurrency(target);
+    rate.setRateMicros(rateMicros);
+    return rate;
+  }
+
+  private static SimpleMeterRegistry registry() {
+    return new SimpleMeterRegistry();
+  }
+}
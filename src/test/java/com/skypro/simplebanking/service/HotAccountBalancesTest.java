@@ -0,0 +1,105 @@
+package com.skypro.simplebanking.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.skypro.simplebanking.entity.AccountBalanceSlot;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.repository.AccountBalanceSlotRepository;
+import com.skypro.simplebanking.repository.AccountRepository;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class HotAccountBalancesTest {
+  private static final long USER_ID = 1;
+  private static final long HOT_ID = 10;
+  private static final long MISSING_ID = 20;
+
+  private final AccountRepository accountRepository = mock(AccountRepository.class);
+  private final AccountBalanceSlotRepository slotRepository =
+      mock(AccountBalanceSlotRepository.class);
+  private final LedgerService ledgerService = mock(LedgerService.class);
+
+  @BeforeEach
+  void accounts() {
+    when(accountRepository.existsById(HOT_ID)).thenReturn(true);
+    when(accountRepository.existsById(MISSING_ID)).thenReturn(false);
+    when(accountRepository.findCurrencyByUserIdAndId(eq(USER_ID), anyLong()))
+        .thenReturn(Optional.of(AccountCurrency.USD));
+    when(slotRepository.findSlotsByAccountId(HOT_ID)).thenReturn(List.of(1));
+  }
+
+  @Test
+  void startupCreatesTheMissingSlotsOfExistingAccounts() {
+    hotAccountBalances().afterPropertiesSet();
+
+    ArgumentCaptor<AccountBalanceSlot> saved = ArgumentCaptor.forClass(AccountBalanceSlot.class);
+    verify(slotRepository, times(2)).save(saved.capture());
+    assertThat(saved.getAllValues())
+        .extracting(AccountBalanceSlot::getSlot)
+        .containsExactly(0, 2);
+    assertThat(saved.getAllValues())
+        .allSatisfy(slot -> assertThat(slot.getAccountId()).isEqualTo(HOT_ID));
+    verify(slotRepository, never()).findSlotsByAccountId(MISSING_ID);
+  }
+
+  @Test
+  void depositGoesToASlotOnceProvisioned() {
+    HotAccountBalances balances = hotAccountBalances();
+    balances.afterPropertiesSet();
+    when(slotRepository.credit(eq(HOT_ID), anyInt(), eq(5L))).thenReturn(1);
+
+    balances.deposit(USER_ID, HOT_ID, 5);
+
+    verify(slotRepository).credit(eq(HOT_ID), anyInt(), eq(5L));
+    verify(accountRepository, never()).addToBalance(anyLong(), anyLong(), anyLong());
+    verify(ledgerService).recordDeposit(HOT_ID, 5);
+  }
+
+  @Test
+  void depositToAnUnprovisionedAccountGoesToTheAccountRow() {
+    HotAccountBalances balances = hotAccountBalances();
+    balances.afterPropertiesSet();
+
+    balances.deposit(USER_ID, MISSING_ID, 5);
+
+    verify(slotRepository, never()).credit(any(), anyInt(), anyLong());
+    verify(accountRepository).addToBalance(USER_ID, MISSING_ID, 5);
+    verify(ledgerService).recordDeposit(MISSING_ID, 5);
+  }
+
+  @Test
+  void depositToAMissingSlotGoesToTheAccountRow() {
+    HotAccountBalances balances = hotAccountBalances();
+    balances.afterPropertiesSet();
+    when(slotRepository.credit(eq(HOT_ID), anyInt(), eq(5L))).thenReturn(0);
+
+    balances.deposit(USER_ID, HOT_ID, 5);
+
+    verify(accountRepository).addToBalance(USER_ID, HOT_ID, 5);
+  }
+
+  private HotAccountBalances hotAccountBalances() {
+    return new HotAccountBalances(
+        accountRepository,
+        slotRepository,
+        mock(BalanceTransactionExecutor.class),
+        ledgerService,
+        mock(PlatformTransactionManager.class),
+        Set.of(HOT_ID, MISSING_ID),
+        3);
+  }
+}
@@ -0,0 +1,105 @@
+package com.skypro.simplebanking.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.skypro.simplebanking.AbstractPostgresTest;
+import com.skypro.simplebanking.dto.ReconciliationIssueDTO;
+import com.skypro.simplebanking.dto.ReconciliationIssueType;
+import com.skypro.simplebanking.dto.ReconciliationReportDTO;
+import com.skypro.simplebanking.dto.ReconciliationStatus;
+import com.skypro.simplebanking.dto.TransferRequest;
+import com.skypro.simplebanking.dto.UserDTO;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Runs reconciliation over the shared database. Other tests only leave consistent data behind, so
+ * a run must find nothing until a transfer leg is removed here.
+ */
+@TestPropertySource(properties = "app.reconciliation.range-size=2")
+class ReconciliationServiceTest extends AbstractPostgresTest {
+  @Autowired private ReconciliationService reconciliationService;
+  @Autowired private TransferService transferService;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  private long sourceId;
+  private long destinationId;
+
+  @BeforeEach
+  void transfer() {
+    UserDTO sender = newUser();
+    UserDTO recipient = newUser();
+    sourceId = account(sender, AccountCurrency.USD).getId();
+    destinationId = account(recipient, AccountCurrency.USD).getId();
+    TransferRequest request = new TransferRequest();
+    request.setFromAccountId(sourceId);
+    request.setToUserId(recipient.getId());
+    request.setToAccountId(destinationId);
+    request.setAmount(1);
+    transferService.transfer(sender.getId(), request);
+  }
+
+  @Test
+  void consistentLedgerHasNoIssues() throws InterruptedException {
+    ReconciliationReportDTO report = reconcile();
+
+    assertThat(report.getStatus()).isEqualTo(ReconciliationStatus.COMPLETED);
+    assertThat(report.getIssueCount()).isZero();
+    assertThat(report.getRangesDone()).isEqualTo(report.getRangesTotal()).isGreaterThan(1);
+  }
+
+  @Test
+  void transferCreditedLessThanDebitedIsReported() throws InterruptedException {
+    // Every account still matches its own ledger, only the transfer lost its credit.
+    Map<String, Object> credit =
+        jdbcTemplate.queryForMap(
+            "SELECT * FROM ledger_entries WHERE account_id = ? AND type = 'TRANSFER_IN'",
+            destinationId);
+    jdbcTemplate.update("DELETE FROM ledger_entries WHERE id = ?", credit.get("id"));
+    jdbcTemplate.update("UPDATE accounts SET amount = amount - 1 WHERE id = ?", destinationId);
+    try {
+      ReconciliationReportDTO report = reconcile();
+
+      assertThat(report.getStatus()).isEqualTo(ReconciliationStatus.COMPLETED);
+      List<ReconciliationIssueDTO> issues = report.getIssues();
+      assertThat(issues).hasSize(1);
+      ReconciliationIssueDTO issue = issues.get(0);
+      assertThat(issue.getType()).isEqualTo(ReconciliationIssueType.TRANSFER_IMBALANCE);
+      assertThat(issue.getAccountId()).isNull();
+      assertThat(issue.getCurrency()).isEqualTo(AccountCurrency.USD);
+      assertThat(issue.getCounterpartyCurrency()).isEqualTo(AccountCurrency.USD);
+      assertThat(issue.getExpectedBalance() - issue.getBalance()).isEqualTo(1);
+    } finally {
+      jdbcTemplate.update(
+          "INSERT INTO ledger_entries (id, account_id, amount, type, counterparty_account_id,"
+              + " created_at) VALUES (?, ?, ?, ?, ?, ?)",
+          credit.get("id"),
+          credit.get("account_id"),
+          credit.get("amount"),
+          credit.get("type"),
+          credit.get("counterparty_account_id"),
+          credit.get("created_at"));
+      jdbcTemplate.update("UPDATE accounts SET amount = amount + 1 WHERE id = ?", destinationId);
+    }
+  }
+
+  private ReconciliationReportDTO reconcile() throws InterruptedException {
+    long id = reconciliationService.start().getId();
+    Instant deadline = Instant.now().plus(Duration.ofMinutes(1));
+    ReconciliationReportDTO report = reconciliationService.getLatest();
+    while (report.getId() != id || report.getStatus() == ReconciliationStatus.RUNNING) {
+      assertThat(Instant.now()).isBefore(deadline);
+      Thread.sleep(50);
+      report = reconciliationService.getLatest();
+    }
+    return report;
+  }
+}
@@ -0,0 +1,180 @@
+package com.skypro.simplebanking.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.skypro.simplebanking.AbstractPostgresTest;
+import com.skypro.simplebanking.dto.BatchTransferItemResultDTO;
+import com.skypro.simplebanking.dto.BatchTransferItemStatus;
+import com.skypro.simplebanking.dto.BatchTransferMode;
+import com.skypro.simplebanking.dto.BatchTransferResultDTO;
+import com.skypro.simplebanking.dto.TransferRequest;
+import com.skypro.simplebanking.dto.UserDTO;
+import com.skypro.simplebanking.entity.Account;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.entity.ExchangeRate;
+import com.skypro.simplebanking.exception.InvalidAmountException;
+import com.skypro.simplebanking.exception.WrongCurrencyException;
+import com.skypro.simplebanking.repository.AccountRepository;
+import com.skypro.simplebanking.repository.ExchangeRateRepository;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Transfers between accounts of the same or different currencies; batches lock every account once
+ * and apply all transfers in one transaction.
+ */
+class TransferServiceTest extends AbstractPostgresTest {
+  @Autowired private TransferService transferService;
+  @Autowired private AccountService accountService;
+  @Autowired private AccountRepository accountRepository;
+  @Autowired private ExchangeRateRepository exchangeRateRepository;
+  @Autowired private ExchangeRates exchangeRates;
+
+  private UserDTO sender;
+  private UserDTO recipient;
+  private long sourceId;
+  private long destinationId;
+
+  @BeforeEach
+  void fund() {
+    sender = newUser();
+    recipient = newUser();
+    sourceId = account(sender, AccountCurrency.USD).getId();
+    destinationId = account(recipient, AccountCurrency.USD).getId();
+    accountService.depositToAccount(sender.getId(), sourceId, 1_000 - Account.INITIAL_AMOUNT);
+  }
+
+  @Test
+  void allOrNothingBatchAppliesEveryTransfer() {
+    BatchTransferResultDTO result =
+        transferService.transferBatch(
+            sender.getId(),
+            List.of(transfer(100), transfer(200), transfer(300)),
+            BatchTransferMode.ALL_OR_NOTHING);
+
+    assertThat(result.isCommitted()).isTrue();
+    assertThat(result.getApplied()).isEqualTo(3);
+    assertThat(result.getRejected()).isZero();
+    assertThat(statuses(result))
+        .containsOnly(BatchTransferItemStatus.APPLIED)
+        .hasSize(3);
+    assertThat(balance(sourceId)).isEqualTo(400);
+    assertThat(balance(destinationId)).isEqualTo(Account.INITIAL_AMOUNT + 600);
+  }
+
+  @Test
+  void allOrNothingBatchWithOneInvalidTransferAppliesNothing() {
+    // The third transfer overdraws the source once the first two are applied.
+    BatchTransferResultDTO result =
+        transferService.transferBatch(
+            sender.getId(),
+            List.of(transfer(400), transfer(400), transfer(400)),
+            BatchTransferMode.ALL_OR_NOTHING);
+
+    assertThat(result.isCommitted()).isFalse();
+    assertThat(result.getApplied()).isZero();
+    assertThat(result.getRejected()).isEqualTo(1);
+    assertThat(statuses(result))
+        .containsExactly(
+            BatchTransferItemStatus.SKIPPED,
+            BatchTransferItemStatus.SKIPPED,
+            BatchTransferItemStatus.REJECTED);
+    assertThat(result.getItems().get(2).getError()).isNotBlank();
+    assertThat(balance(sourceId)).isEqualTo(1_000);
+    assertThat(balance(destinationId)).isEqualTo(Account.INITIAL_AMOUNT);
+  }
+
+  @Test
+  void bestEffortBatchAppliesEveryValidTransfer() {
+    BatchTransferResultDTO result =
+        transferService.transferBatch(
+            sender.getId(),
+            List.of(transfer(400), transfer(700), transfer(500), transfer(-1)),
+            BatchTransferMode.BEST_EFFORT);
+
+    assertThat(result.isCommitted()).isTrue();
+    assertThat(result.getApplied()).isEqualTo(2);
+    assertThat(result.getRejected()).isEqualTo(2);
+    assertThat(statuses(result))
+        .containsExactly(
+            BatchTransferItemStatus.APPLIED,
+            BatchTransferItemStatus.REJECTED,
+            BatchTransferItemStatus.APPLIED,
+            BatchTransferItemStatus.REJECTED);
+    assertThat(balance(sourceId)).isEqualTo(100);
+    assertThat(balance(destinationId)).isEqualTo(Account.INITIAL_AMOUNT + 900);
+  }
+
+  @Test
+  void crossCurrencyTransferCreditsTheConvertedAmount() {
+    useRate(AccountCurrency.USD, AccountCurrency.EUR, 920_000);
+    TransferRequest transfer = transfer(500);
+    long euroId = account(recipient, AccountCurrency.EUR).getId();
+    transfer.setToAccountId(euroId);
+
+    transferService.transfer(sender.getId(), transfer);
+
+    assertThat(balance(sourceId)).isEqualTo(500);
+    assertThat(balance(euroId)).isEqualTo(Account.INITIAL_AMOUNT + 460);
+  }
+
+  @Test
+  void crossCurrencyTransferTooSmallToConvertMovesNothing() {
+    useRate(AccountCurrency.USD, AccountCurrency.EUR, 920_000);
+    TransferRequest transfer = transfer(1);
+    long euroId = account(recipient, AccountCurrency.EUR).getId();
+    transfer.setToAccountId(euroId);
+
+    assertThatThrownBy(() -> transferService.transfer(sender.getId(), transfer))
+        .isInstanceOf(InvalidAmountException.class);
+    assertThat(balance(sourceId)).isEqualTo(1_000);
+    assertThat(balance(euroId)).isEqualTo(Account.INITIAL_AMOUNT);
+  }
+
+  @Test
+  void transferWithoutRateIsRejected() {
+    TransferRequest transfer = transfer(100);
+    long rubleId = account(recipient, AccountCurrency.RUB).getId();
+    transfer.setToAccountId(rubleId);
+
+    assertThatThrownBy(() -> transferService.transfer(sender.getId(), transfer))
+        .isInstanceOf(WrongCurrencyException.class);
+    assertThat(balance(sourceId)).isEqualTo(1_000);
+  }
+
+  private void useRate(AccountCurrency source, AccountCurrency target, long rateMicros) {
+    ExchangeRate rate =
+        exchangeRateRepository.findAll().stream()
+            .filter(
+                candidate ->
+                    candidate.getSourceCurrency() == source
+                        && candidate.getTargetCurrency() == target)
+            .findFirst()
+            .orElseGet(ExchangeRate::new);
+    rate.setSourceCurrency(source);
+    rate.setTargetCurrency(target);
+    rate.setRateMicros(rateMicros);
+    exchangeRateRepository.save(rate);
+    exchangeRates.refresh();
+  }
+
+  private TransferRequest transfer(long amount) {
+    TransferRequest transfer = new TransferRequest();
+    transfer.setFromAccountId(sourceId);
+    transfer.setToUserId(recipient.getId());
+    transfer.setToAccountId(destinationId);
+    transfer.setAmount(amount);
+    return transfer;
+  }
+
+  private static List<BatchTransferItemStatus> statuses(BatchTransferResultDTO result) {
+    return result.getItems().stream().map(BatchTransferItemResultDTO::getStatus).toList();
+  }
+
+  private long balance(long accountId) {
+    return accountRepository.findById(accountId).orElseThrow().getAmount();
+  }
+}
@@ -0,0 +1,131 @@
+package com.skypro.simplebanking.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.skypro.simplebanking.AbstractPostgresTest;
+import com.skypro.simplebanking.dto.BulkUserImportDTO;
+import com.skypro.simplebanking.dto.BulkUserImportStatus;
+import com.skypro.simplebanking.dto.CreateUserRequest;
+import com.skypro.simplebanking.dto.UserDTO;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.entity.User;
+import com.skypro.simplebanking.repository.UserRepository;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+/** Bulk imports in chunks of three, so most imports here span several chunks. */
+@TestPropertySource(properties = "app.users.bulk.batch-size=3")
+class UserProvisioningServiceTest extends AbstractPostgresTest {
+  @Autowired private UserProvisioningService userProvisioningService;
+  @Autowired private UserRepository userRepository;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Test
+  void importCountsCreatedSkippedAndRejectedUsers() {
+    UserDTO existing = newUser();
+    String first = "bulk-" + UUID.randomUUID();
+    String second = "bulk-" + UUID.randomUUID();
+    List<CreateUserRequest> requests =
+        List.of(
+            request(first, PASSWORD),
+            request(existing.getUsername(), PASSWORD),
+            request(first, "other"),
+            request("", PASSWORD),
+            request(second, null),
+            request(second, PASSWORD));
+
+    BulkUserImportDTO result = userProvisioningService.importUsers(requests.iterator());
+
+    assertThat(result.getStatus()).isEqualTo(BulkUserImportStatus.COMPLETED);
+    assertThat(result.getRead()).isEqualTo(6);
+    assertThat(result.getCreated()).isEqualTo(2);
+    assertThat(result.getSkipped()).isEqualTo(2);
+    assertThat(result.getRejected()).isEqualTo(2);
+    assertThat(accountCount(first)).isEqualTo(AccountCurrency.values().length);
+    assertThat(accountCount(second)).isEqualTo(AccountCurrency.values().length);
+    assertThat(accountCount(existing.getUsername())).isEqualTo(AccountCurrency.values().length);
+  }
+
+  @Test
+  void concurrentImportsOfTheSameUsersCreateEachOnce() throws Exception {
+    List<CreateUserRequest> requests = new ArrayList<>();
+    for (int index = 0; index < 10; index++) {
+      requests.add(request("bulk-" + UUID.randomUUID(), PASSWORD));
+    }
+    CountDownLatch start = new CountDownLatch(1);
+    List<CompletableFuture<BulkUserImportDTO>> imports = new ArrayList<>();
+    for (int index = 0; index < 2; index++) {
+      imports.add(
+          CompletableFuture.supplyAsync(
+              () -> {
+                awaitQuietly(start);
+                return userProvisioningService.importUsers(requests.iterator());
+              }));
+    }
+    start.countDown();
+
+    long created = 0;
+    long skipped = 0;
+    for (CompletableFuture<BulkUserImportDTO> bulkImport : imports) {
+      BulkUserImportDTO result = bulkImport.get();
+      assertThat(result.getStatus()).isEqualTo(BulkUserImportStatus.COMPLETED);
+      created += result.getCreated();
+      skipped += result.getSkipped();
+    }
+    assertThat(created).isEqualTo(requests.size());
+    assertThat(skipped).isEqualTo(requests.size());
+    for (CreateUserRequest request : requests) {
+      assertThat(accountCount(request.getUsername())).isEqualTo(AccountCurrency.values().length);
+    }
+  }
+
+  @Test
+  void bulkIdsNeverCollideWithIdsFromTheEntityManager() {
+    // Alternating makes both sides take id blocks from the sequences in turn; an id handed out
+    // twice fails the insert on the primary key.
+    Set<Long> userIds = new HashSet<>();
+    for (int round = 0; round < 3; round++) {
+      UserDTO single = newUser();
+      assertThat(userIds.add(single.getId())).isTrue();
+      single.getAccounts().forEach(account -> assertThat(account.getId()).isPositive());
+      String bulk = "bulk-" + UUID.randomUUID();
+      BulkUserImportDTO result =
+          userProvisioningService.importUsers(List.of(request(bulk, PASSWORD)).iterator());
+      assertThat(result.getCreated()).isEqualTo(1);
+      User imported = userRepository.findByUsername(bulk).orElseThrow();
+      assertThat(userIds.add(imported.getId())).isTrue();
+      assertThat(accountCount(bulk)).isEqualTo(AccountCurrency.values().length);
+    }
+  }
+
+  private long accountCount(String username) {
+    return jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM accounts a JOIN users u ON u.id = a.user_id WHERE u.username = ?",
+        Long.class,
+        username);
+  }
+
+  private static CreateUserRequest request(String username, String password) {
+    CreateUserRequest request = new CreateUserRequest();
+    request.setUsername(username);
+    request.setPassword(password);
+    return request;
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}